@@ -0,0 +1,217 @@
+import com.dharma.education.grading.AssessmentCompiler;
+import com.dharma.education.grading.CompiledAssessment;
+import com.dharma.education.grading.GradeResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Microbenchmark of submission grading in grades per second: the compiled
+ * grader used by AssessmentService against grading straight from the
+ * question JSON, parsed for every submission. Each mode runs warmup
+ * iterations and then timed ones over a pool of generated submissions, on
+ * the given number of threads, with results folded into a sink so the JIT
+ * cannot drop the work, JMH-style.
+ *
+ * <p>Needs the compiled classes and Jackson; after {@code mvn compile}:
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:$(cat target/cp.txt) loadtest/AssessmentGradingBenchmark.java [questions=50] [threads=1] [iterationSeconds=2]
+ * </pre>
+ */
+public class AssessmentGradingBenchmark {
+    
+    private static final String[] TYPES = {"multiple-choice", "true-false", "short-answer", "essay"};
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int SUBMISSIONS = 1024;
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final LongAdder SINK = new LongAdder();
+    
+    interface Grader {
+        int grade(List<String> answers);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int questions = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        
+        Random random = new Random(42);
+        String json = questionBank(questions, random);
+        List<List<String>> submissions = new ArrayList<>(SUBMISSIONS);
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            submissions.add(submission(questions, random));
+        }
+        System.out.printf("%d questions (%d bytes of JSON), %d threads, %d x %d s warmup, %d x %d s measured%n",
+                questions, json.length(), threads, WARMUP_ITERATIONS, seconds, MEASURED_ITERATIONS, seconds);
+        
+        CompiledAssessment compiled = new AssessmentCompiler(MAPPER).compile(1, 0, 70, json);
+        Grader compiledGrader = answers -> {
+            GradeResult result = compiled.grade(answers);
+            return result.pointsEarned() + result.correctCount();
+        };
+        Grader parsingGrader = answers -> gradeFromJson(json, answers);
+        
+        // Both must agree before either is timed
+        for (List<String> answers : submissions) {
+            GradeResult result = compiled.grade(answers);
+            if (result.pointsEarned() + result.correctCount() != gradeFromJson(json, answers)) {
+                throw new IllegalStateException("Graders disagree on " + answers);
+            }
+        }
+        
+        double compiledRate = run("compiled", compiledGrader, submissions, threads, seconds);
+        double parsingRate = run("parse per submission", parsingGrader, submissions, threads, seconds);
+        System.out.printf("compiled grading is %.1fx the rate of parsing per submission (sink %d)%n",
+                compiledRate / parsingRate, SINK.sum());
+    }
+    
+    private static double run(String name, Grader grader, List<List<String>> submissions, int threads,
+                              int seconds) throws InterruptedException {
+        double[] rates = new double[MEASURED_ITERATIONS];
+        for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+            double rate = iteration(grader, submissions, threads, seconds);
+            boolean warmup = i < WARMUP_ITERATIONS;
+            if (!warmup) {
+                rates[i - WARMUP_ITERATIONS] = rate;
+            }
+            System.out.printf("  %-22s %s %d: %,14.0f grades/s%n", name, warmup ? "warmup " : "measure",
+                    (warmup ? i : i - WARMUP_ITERATIONS) + 1, rate);
+        }
+        double mean = Arrays.stream(rates).average().orElse(0);
+        double deviation = Math.sqrt(Arrays.stream(rates).map(r -> (r - mean) * (r - mean)).sum() / rates.length);
+        System.out.printf("%-24s %,14.0f +/- %,.0f grades/s%n", name, mean, deviation);
+        return mean;
+    }
+    
+    private static double iteration(Grader grader, List<List<String>> submissions, int threads, int seconds)
+            throws InterruptedException {
+        LongAdder grades = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            int offset = t * (SUBMISSIONS / threads);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long count = 0;
+                long sink = 0;
+                int next = offset;
+                // Check the clock every 64 grades so reading it stays out of the measurement
+                while ((count & 63) != 0 || System.nanoTime() < deadline[0]) {
+                    sink += grader.grade(submissions.get(next));
+                    next = (next + 1) & (SUBMISSIONS - 1);
+                    count++;
+                }
+                grades.add(count);
+                SINK.add(sink);
+                done.countDown();
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+        long began = System.nanoTime();
+        deadline[0] = began + seconds * 1_000_000_000L;
+        start.countDown();
+        done.await();
+        return grades.sum() * 1e9 / (System.nanoTime() - began);
+    }
+    
+    /**
+     * What grading looks like without compiling: the question JSON is parsed
+     * and each answer compared to the key as written, for every submission.
+     * Returns points earned plus questions right, like the compiled grader.
+     */
+    private static int gradeFromJson(String json, List<String> answers) {
+        JsonNode questions;
+        try {
+            questions = MAPPER.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        int earned = 0;
+        int correct = 0;
+        for (int i = 0; i < answers.size(); i++) {
+            JsonNode question = questions.get(i);
+            String answer = answers.get(i);
+            String key = question.path("correctAnswer").asText();
+            boolean right = switch (question.get("type").asText()) {
+                case "multiple-choice" -> {
+                    JsonNode options = question.get("options");
+                    boolean match = false;
+                    for (int o = 0; o < options.size(); o++) {
+                        if (options.get(o).asText().equals(key)) {
+                            match = answer.equals(String.valueOf(o));
+                        }
+                    }
+                    yield match;
+                }
+                case "true-false" -> answer.equalsIgnoreCase(key);
+                case "short-answer" -> answer.trim().replaceAll("\\s+", " ")
+                        .equalsIgnoreCase(key.trim().replaceAll("\\s+", " "));
+                default -> false;
+            };
+            if (right) {
+                earned += question.path("points").asInt(1);
+                correct++;
+            }
+        }
+        return earned + correct;
+    }
+    
+    private static String questionBank(int count, Random random) {
+        ArrayNode questions = MAPPER.createArrayNode();
+        for (int i = 0; i < count; i++) {
+            String type = TYPES[i % TYPES.length];
+            ObjectNode question = questions.addObject()
+                    .put("id", "q" + i)
+                    .put("type", type)
+                    .put("question", "Question " + i + " about the teachings of chapter " + (i % 18 + 1) + "?")
+                    .put("points", 1 + random.nextInt(5))
+                    .put("difficulty", "medium")
+                    .put("explanation", "Explained in verse " + (i + 1) + " of the commentary.");
+            switch (type) {
+                case "multiple-choice" -> {
+                    ArrayNode options = question.putArray("options");
+                    for (int o = 0; o < 4; o++) {
+                        options.add("Option " + o + " for question " + i);
+                    }
+                    question.put("correctAnswer", "Option " + random.nextInt(4) + " for question " + i);
+                }
+                case "true-false" -> question.put("correctAnswer", String.valueOf(random.nextBoolean()));
+                case "short-answer" -> question.put("correctAnswer", "answer " + i);
+                default -> question.put("correctAnswer", "");
+            }
+        }
+        return questions.toString();
+    }
+    
+    // Roughly half right, with short answers in varying case and spacing
+    private static List<String> submission(int count, Random random) {
+        List<String> answers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            answers.add(switch (TYPES[i % TYPES.length]) {
+                case "multiple-choice" -> String.valueOf(random.nextInt(4));
+                case "true-false" -> random.nextBoolean() ? "true" : "FALSE";
+                case "short-answer" -> random.nextBoolean() ? "  Answer   " + i : "answer " + (i + 1);
+                default -> "An essay for the teacher to read.";
+            });
+        }
+        return answers;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Benchmark of catalog search: the full-text query CourseRepository runs
+ * over the GIN-indexed search_vector, against the leading-wildcard LIKE over
+ * title and description it replaced. Seeds the given number of courses with
+ * titles and descriptions drawn from a fixed vocabulary, so terms range from
+ * common to rare, then times a page of 20 ids plus the total count for each
+ * term, the two statements a search page costs.
+ *
+ * <p>Runs against a database migrated by the application, inside one
+ * transaction that is rolled back, so nothing seeded is left behind. Needs
+ * the PostgreSQL driver; after {@code mvn compile}:
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp $(cat target/cp.txt) loadtest/CourseSearchBenchmark.java jdbc:postgresql://localhost:5432/dharma_education postgres password [courses=100000] [runs=50]
+ * </pre>
+ */
+public class CourseSearchBenchmark {
+    
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_RUNS = 5;
+    private static final String[] TERMS = {"yoga", "meditation practice", "upanishad", "nonexistent"};
+    
+    private static final String FTS_PAGE =
+            "SELECT c.id FROM courses c, websearch_to_tsquery('english', ?) q " +
+            "WHERE c.is_active = true AND c.search_vector @@ q " +
+            "ORDER BY ts_rank_cd(c.search_vector, q) DESC, c.id DESC LIMIT " + PAGE_SIZE;
+    private static final String FTS_COUNT =
+            "SELECT COUNT(*) FROM courses c " +
+            "WHERE c.is_active = true AND c.search_vector @@ websearch_to_tsquery('english', ?)";
+    // The search as it was before full-text search, newest first as the catalog sorts by default
+    private static final String LIKE_PAGE =
+            "SELECT c.id FROM courses c WHERE c.is_active = true AND " +
+            "(LOWER(c.title) LIKE LOWER('%' || ? || '%') OR LOWER(c.description) LIKE LOWER('%' || ? || '%')) " +
+            "ORDER BY c.created_at DESC, c.id DESC LIMIT " + PAGE_SIZE;
+    private static final String LIKE_COUNT =
+            "SELECT COUNT(*) FROM courses c WHERE c.is_active = true AND " +
+            "(LOWER(c.title) LIKE LOWER('%' || ? || '%') OR LOWER(c.description) LIKE LOWER('%' || ? || '%'))";
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: CourseSearchBenchmark <jdbcUrl> <user> <password> [courses] [runs]");
+            System.exit(2);
+        }
+        int courses = args.length > 3 ? Integer.parseInt(args[3]) : 100000;
+        int runs = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+        
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            connection.setAutoCommit(false);
+            try {
+                long seedStarted = System.nanoTime();
+                seed(connection, courses);
+                System.out.printf("Seeded %,d courses in %.1f s; %d timed runs of each query after %d warmup%n",
+                        courses, (System.nanoTime() - seedStarted) / 1e9, runs, WARMUP_RUNS);
+                System.out.printf("%-22s %8s %12s %12s %12s %12s %8s%n", "term", "matches",
+                        "fts p50 ms", "fts p95 ms", "like p50 ms", "like p95 ms", "speedup");
+                for (String term : TERMS) {
+                    long matches = count(connection, FTS_COUNT, term, false);
+                    double[] fts = time(connection, term, runs, false);
+                    double[] like = time(connection, term, runs, true);
+                    System.out.printf("%-22s %,8d %12.2f %12.2f %12.2f %12.2f %7.0fx%n", "\"" + term + "\"", matches,
+                            percentile(fts, 50), percentile(fts, 95), percentile(like, 50), percentile(like, 95),
+                            percentile(like, 50) / percentile(fts, 50));
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+    
+    // Titles like "Advanced Yoga for Beginners" and descriptions of a dozen words, one in ten thousand on the Upanishads
+    private static void seed(Connection connection, int courses) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (email, password, first_name, last_name, role) " +
+                    "VALUES ('search-benchmark@example.com', 'x', 'Search', 'Benchmark', 'TEACHER')");
+            statement.execute("INSERT INTO courses (title, description, teacher_id, category, is_active, created_at) " +
+                    "SELECT (ARRAY['Introduction to','Advanced','Foundations of','Living','Daily','Classical'])[1 + g % 6] " +
+                    "    || ' ' || (ARRAY['Yoga','Sanskrit','Vedic Chanting','Ayurveda','Philosophy','Meditation'," +
+                    "        'Bhakti','Karma'])[1 + g % 8] " +
+                    "    || ' ' || (ARRAY['for Beginners','in Depth','Workshop','Retreat','Course'])[1 + g % 5] " +
+                    "    || CASE WHEN g % 10000 = 0 THEN ': the Upanishads' ELSE '' END, " +
+                    "'A ' || (ARRAY['gentle','rigorous','practical','traditional'])[1 + g % 4] " +
+                    "    || ' course on ' || (ARRAY['breath','posture','practice','scripture','recitation','devotion'," +
+                    "        'ethics'])[1 + g % 7] " +
+                    "    || ' with ' || (ARRAY['weekly sessions','guided meditation','reading lists','live classes'])[1 + g % 11 % 4] " +
+                    "    || ' and notes on ' || (ARRAY['history','grammar','health','community','teachers'])[1 + g % 13 % 5] || '.', " +
+                    "(SELECT id FROM users WHERE email = 'search-benchmark@example.com'), " +
+                    "(ARRAY['Yoga','Philosophy','Language','Wellness'])[1 + g % 4], true, " +
+                    "now() - g * interval '1 minute' " +
+                    "FROM generate_series(1, " + courses + ") g");
+            statement.execute("ANALYZE courses");
+        }
+    }
+    
+    private static double[] time(Connection connection, String term, int runs, boolean like) throws SQLException {
+        double[] millis = new double[runs];
+        for (int i = -WARMUP_RUNS; i < runs; i++) {
+            long started = System.nanoTime();
+            page(connection, like ? LIKE_PAGE : FTS_PAGE, term, like);
+            count(connection, like ? LIKE_COUNT : FTS_COUNT, term, like);
+            if (i >= 0) {
+                millis[i] = (System.nanoTime() - started) / 1e6;
+            }
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+    
+    private static void page(Connection connection, String sql, String term, boolean like) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, sql, term, like);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                rows.getLong(1);
+            }
+        }
+    }
+    
+    private static long count(Connection connection, String sql, String term, boolean like) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, sql, term, like);
+             ResultSet rows = statement.executeQuery()) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+    
+    private static PreparedStatement prepare(Connection connection, String sql, String term, boolean like)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setString(1, term);
+        if (like) {
+            statement.setString(2, term);
+        }
+        return statement;
+    }
+    
+    private static double percentile(double[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test for GET /api/media/{id}/content. Keeps a fixed number of
+ * concurrent streams reading random byte ranges of one media file, the way
+ * seeking players do, and prints throughput and the server's heap use, read
+ * from the actuator, once a second and in a final summary.
+ *
+ * <p>Needs only a JDK; run it against a started server:
+ * <pre>
+ * java loadtest/MediaStreamLoadTest.java http://localhost:8080 &lt;mediaFileId&gt; [streams=500] [seconds=30] [rangeBytes=1048576]
+ * </pre>
+ * A range size of 0 requests the whole file on every request.
+ */
+public class MediaStreamLoadTest {
+    
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: MediaStreamLoadTest <baseUrl> <mediaFileId> [streams] [seconds] [rangeBytes]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        URI media = URI.create(baseUrl + "/api/media/" + args[1] + "/content");
+        int streams = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        long rangeBytes = args.length > 4 ? Long.parseLong(args[4]) : 1024 * 1024;
+        
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpResponse<Void> head = client.send(HttpRequest.newBuilder(media).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.discarding());
+        long size = head.headers().firstValueAsLong("Content-Length").orElseThrow();
+        System.out.printf("Streaming %s (%d bytes) with %d streams for %d s, %s per request%n",
+                media, size, streams, seconds, rangeBytes > 0 ? rangeBytes + " byte ranges" : "whole file");
+        
+        LongAdder bytes = new LongAdder();
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        List<long[]> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        
+        List<Thread> workers = new ArrayList<>(streams);
+        for (int i = 0; i < streams; i++) {
+            long[] samples = new long[1 << 16];
+            latencies.add(samples);
+            Thread worker = new Thread(() -> stream(client, media, size, rangeBytes, deadline, bytes, requests, errors, samples),
+                    "stream-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        
+        // The heap sample queues behind the streams on a busy server, so rates use the real interval
+        URI heapMetric = URI.create(baseUrl + "/actuator/metrics/jvm.memory.used?tag=area:heap");
+        double heapMin = Double.MAX_VALUE;
+        double heapMax = 0;
+        long start = System.nanoTime();
+        long previousAt = start;
+        long previousBytes = 0;
+        long previousRequests = 0;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            double heapMb = metric(client, heapMetric) / (1024 * 1024);
+            if (heapMb >= 0) {
+                heapMin = Math.min(heapMin, heapMb);
+                heapMax = Math.max(heapMax, heapMb);
+            }
+            long now = System.nanoTime();
+            double interval = (now - previousAt) / 1e9;
+            long totalBytes = bytes.sum();
+            long totalRequests = requests.sum();
+            System.out.printf("%5.1f s  %8.1f MB/s  %7.0f req/s  heap %7.1f MB  errors %d%n", (now - start) / 1e9,
+                    (totalBytes - previousBytes) / 1048576.0 / interval, (totalRequests - previousRequests) / interval,
+                    heapMb, errors.sum());
+            previousAt = now;
+            previousBytes = totalBytes;
+            previousRequests = totalRequests;
+        }
+        for (Thread worker : workers) {
+            worker.join(10_000);
+        }
+        
+        long[] all = latencies.stream().flatMapToLong(samples -> Arrays.stream(samples, 1, (int) Math.min(samples[0] + 1, samples.length)))
+                .sorted().toArray();
+        System.out.printf("%nTotal: %.1f MB in %d requests (%d errors), %.1f MB/s, %.0f req/s%n",
+                bytes.sum() / 1048576.0, requests.sum(), errors.sum(),
+                bytes.sum() / 1048576.0 / seconds, requests.sum() / (double) seconds);
+        if (all.length > 0) {
+            System.out.printf("Latency: p50 %d ms, p99 %d ms, max %d ms%n",
+                    all[all.length / 2], all[(int) (all.length * 0.99)], all[all.length - 1]);
+        }
+        System.out.printf("Server heap used: min %.1f MB, max %.1f MB%n", heapMin, heapMax);
+    }
+    
+    // samples[0] counts the latencies recorded after it
+    private static void stream(HttpClient client, URI media, long size, long rangeBytes, long deadline,
+                               LongAdder bytes, LongAdder requests, LongAdder errors, long[] samples) {
+        byte[] buffer = new byte[64 * 1024];
+        while (System.nanoTime() < deadline) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(media).timeout(Duration.ofSeconds(60));
+            if (rangeBytes > 0) {
+                long start = ThreadLocalRandom.current().nextLong(Math.max(size - rangeBytes, 1));
+                request.header("Range", "bytes=" + start + "-" + (start + rangeBytes - 1));
+            }
+            long started = System.nanoTime();
+            try {
+                HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    for (int n; (n = body.read(buffer)) > 0; ) {
+                        bytes.add(n);
+                    }
+                }
+                if (response.statusCode() != 200 && response.statusCode() != 206) {
+                    errors.increment();
+                    continue;
+                }
+                requests.increment();
+                if (samples[0] < samples.length - 1) {
+                    samples[(int) ++samples[0]] = (System.nanoTime() - started) / 1_000_000;
+                }
+            } catch (IOException e) {
+                errors.increment();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    private static double metric(HttpClient client, URI uri) {
+        try {
+            String json = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString()).body();
+            Matcher matcher = METRIC_VALUE.matcher(json);
+            return matcher.find() ? Double.parseDouble(matcher.group(1)) : -1;
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+import com.dharma.education.entity.User;
+import com.dharma.education.security.JwtUtils;
+import com.dharma.education.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Microbenchmark of bearer token verification in verifications per second:
+ * JwtUtils.verifyJwtToken answering from its striped verified-token cache,
+ * the single synchronized LRU it replaced, and plain HS512 verification of
+ * every token. Each mode runs warmup iterations and then timed ones over a
+ * pool of tokens for distinct users, on the given number of threads, with
+ * results folded into a sink so the JIT cannot drop the work, JMH-style.
+ *
+ * <p>Needs the compiled classes and the jjwt jars; after {@code mvn compile}:
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:$(cat target/cp.txt) loadtest/TokenVerificationBenchmark.java [threads=4] [users=1000] [iterationSeconds=2]
+ * </pre>
+ * Contention only shows with more threads than one and as many cores.
+ */
+public class TokenVerificationBenchmark {
+    
+    private static final String SECRET = "aVeryLongSecretKeyForBenchmarkingOnlyThatIsAtLeastSixtyFourBytesLong1234567890abcd";
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int CACHE_SIZE = 10000;
+    
+    private static final LongAdder SINK = new LongAdder();
+    
+    interface Verifier {
+        Claims verify(String token);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        
+        JwtUtils jwtUtils = jwtUtils();
+        String[] tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = jwtUtils.generateJwtToken(new UserPrincipal((long) i + 1, "user" + i + "@example.com", null,
+                    User.Role.STUDENT, true));
+        }
+        System.out.printf("%d tokens of %d bytes, %d threads, %d cores, %d x %d s warmup, %d x %d s measured%n",
+                users, tokens[0].length(), threads, Runtime.getRuntime().availableProcessors(),
+                WARMUP_ITERATIONS, seconds, MEASURED_ITERATIONS, seconds);
+        
+        JwtParser parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        Verifier hs512 = token -> parser.parseClaimsJws(token).getBody();
+        Verifier striped = token -> jwtUtils.verifyJwtToken(token).orElseThrow();
+        GlobalLockCache globalLock = new GlobalLockCache(CACHE_SIZE);
+        Verifier synchronizedLru = token -> {
+            Claims claims = globalLock.get(token);
+            if (claims == null) {
+                claims = parser.parseClaimsJws(token).getBody();
+                globalLock.put(token, claims);
+            }
+            return claims;
+        };
+        
+        double hs512Rate = run("HS512 every request", hs512, tokens, threads, seconds);
+        double stripedRate = run("striped cache", striped, tokens, threads, seconds);
+        double globalRate = run("synchronized LRU", synchronizedLru, tokens, threads, seconds);
+        System.out.printf("striped cache is %.1fx HS512 and %.2fx the synchronized LRU (sink %d)%n",
+                stripedRate / hs512Rate, stripedRate / globalRate, SINK.sum());
+    }
+    
+    // JwtUtils as Spring would set it up, with its @Value fields filled in
+    private static JwtUtils jwtUtils() throws ReflectiveOperationException {
+        JwtUtils jwtUtils = new JwtUtils();
+        set(jwtUtils, "jwtSecret", SECRET);
+        set(jwtUtils, "jwtExpirationMs", 900000);
+        set(jwtUtils, "verifiedCacheSize", CACHE_SIZE);
+        Method init = JwtUtils.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(jwtUtils);
+        return jwtUtils;
+    }
+    
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+    
+    private static double run(String name, Verifier verifier, String[] tokens, int threads, int seconds)
+            throws InterruptedException {
+        double[] rates = new double[MEASURED_ITERATIONS];
+        for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+            double rate = iteration(verifier, tokens, threads, seconds);
+            boolean warmup = i < WARMUP_ITERATIONS;
+            if (!warmup) {
+                rates[i - WARMUP_ITERATIONS] = rate;
+            }
+            System.out.printf("  %-22s %s %d: %,14.0f verifications/s%n", name, warmup ? "warmup " : "measure",
+                    (warmup ? i : i - WARMUP_ITERATIONS) + 1, rate);
+        }
+        double mean = Arrays.stream(rates).average().orElse(0);
+        double deviation = Math.sqrt(Arrays.stream(rates).map(r -> (r - mean) * (r - mean)).sum() / rates.length);
+        System.out.printf("%-24s %,14.0f +/- %,.0f verifications/s%n", name, mean, deviation);
+        return mean;
+    }
+    
+    private static double iteration(Verifier verifier, String[] tokens, int threads, int seconds)
+            throws InterruptedException {
+        LongAdder verifications = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            int offset = t * (tokens.length / threads);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long count = 0;
+                long sink = 0;
+                int next = offset;
+                // Check the clock every 64 verifications so reading it stays out of the measurement
+                while ((count & 63) != 0 || System.nanoTime() < deadline[0]) {
+                    sink += verifier.verify(tokens[next]).getExpiration().getTime();
+                    next = next + 1 == tokens.length ? 0 : next + 1;
+                    count++;
+                }
+                verifications.add(count);
+                SINK.add(sink);
+                done.countDown();
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+        long began = System.nanoTime();
+        deadline[0] = began + seconds * 1_000_000_000L;
+        start.countDown();
+        done.await();
+        return verifications.sum() * 1e9 / (System.nanoTime() - began);
+    }
+    
+    /**
+     * The verified-token cache as it was before striping: one access-ordered
+     * LinkedHashMap behind a single monitor, keyed by the token's SHA-256.
+     */
+    private static final class GlobalLockCache {
+        private final Map<String, Entry> entries;
+        
+        GlobalLockCache(int maxSize) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+        
+        Claims get(String token) {
+            String key = digest(token);
+            long now = System.currentTimeMillis();
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.expiresAt() <= now) {
+                    entries.remove(key);
+                    return null;
+                }
+                return entry.claims();
+            }
+        }
+        
+        void put(String token, Claims claims) {
+            String key = digest(token);
+            synchronized (entries) {
+                entries.put(key, new Entry(claims, claims.getExpiration().getTime()));
+            }
+        }
+        
+        private static String digest(String token) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+                return Base64.getEncoder().withoutPadding().encodeToString(hash);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        private record Entry(Claims claims, long expiresAt) {
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,319 @@
+package com.dharma.education.cache;
+
+import com.dharma.education.event.CourseChangedEvent;
+import com.dharma.education.event.CourseEnrolledEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Serialized catalog responses kept as ready-to-write bytes with a strong
+ * ETag, bounded by total size and TTL in LRU order. Entries are invalidated
+ * after course writes commit: creates, updates and deletes drop the course's
+ * detail entry and every listing, while an enrollment only drops the detail
+ * entry, listings that show the course, and listings sorted by enrollment
+ * count. The TTL bounds staleness from writes made on other instances.
+ *
+ * <p>Keys are spread over independently locked segments, each with its own
+ * share of the size budget and an index from course id to the keys whose
+ * response shows that course, so lookups on different segments do not wait
+ * on each other and an invalidation only visits the entries it drops.
+ */
+@Component
+public class CatalogResponseCache {
+    
+    private static final int MAX_SEGMENTS = 64;
+    
+    // Courses sharing a slot only turn away each other's in-flight responses, never keep a stale one
+    private static final int COURSE_STAMP_SLOTS = 4096;
+    
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final long ttlMs;
+    
+    private final Segment[] segments;
+    private final int mask;
+    
+    // Invalidations are numbered in order, and each course, all listings and the listings sorted by
+    // enrollment keep the number of the last one that concerned them. A response computed before an
+    // invalidation that concerns it is not stored after it, while unrelated responses still are
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray courseStamps = new AtomicLongArray(COURSE_STAMP_SLOTS);
+    private final AtomicLong listingsStamp = new AtomicLong();
+    private final AtomicLong enrollmentSortedStamp = new AtomicLong();
+    
+    private final Counter hits;
+    private final Counter misses;
+    
+    public CatalogResponseCache(@Value("${app.catalogCacheEnabled:true}") boolean enabled,
+                                @Value("${app.catalogCacheMaxBytes:33554432}") long maxBytes,
+                                @Value("${app.catalogCacheMaxEntryBytes:1048576}") long maxEntryBytes,
+                                @Value("${app.catalogCacheTtlMs:30000}") long ttlMs,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntryBytes;
+        this.ttlMs = ttlMs;
+        
+        // Enough segments to keep the cores apart, but each still large enough for the largest entry
+        int segmentCount = Integer.highestOneBit((int) Math.max(1, Math.min(
+                Math.min(MAX_SEGMENTS, 4 * Runtime.getRuntime().availableProcessors()),
+                maxBytes / Math.max(1, maxEntryBytes))));
+        this.segments = new Segment[segmentCount];
+        this.mask = segmentCount - 1;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxBytes / segmentCount);
+        }
+        
+        this.hits = Counter.builder("catalog.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("catalog.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.bytes", this, CatalogResponseCache::totalBytes)
+                .register(meterRegistry);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public Entry get(String key) {
+        Entry entry = segmentFor(key).get(key);
+        (entry != null ? hits : misses).increment();
+        return entry;
+    }
+    
+    public long sequence() {
+        return sequence.get();
+    }
+    
+    /**
+     * Builds an entry for the given response body and stores it unless it is
+     * too large or an invalidation concerning it has happened since
+     * {@code sequenceAtStart}. The entry is returned either way so the caller
+     * can use its ETag.
+     */
+    public Entry put(String key, byte[] body, String contentType, Long courseId, long[] listedCourseIds,
+                     boolean sortedByEnrollment, long sequenceAtStart) {
+        long[] sortedIds = listedCourseIds != null ? listedCourseIds.clone() : null;
+        if (sortedIds != null) {
+            Arrays.sort(sortedIds);
+        }
+        Entry entry = new Entry(body, contentType, etagOf(body), System.currentTimeMillis() + ttlMs,
+                courseId, sortedIds, sortedByEnrollment);
+        if (body.length <= maxEntryBytes) {
+            segmentFor(key).put(key, entry, sequenceAtStart);
+        }
+        return entry;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        long stamp = sequence.incrementAndGet();
+        courseStamps.accumulateAndGet(slotOf(event.courseId()), stamp, Math::max);
+        listingsStamp.accumulateAndGet(stamp, Math::max);
+        for (Segment segment : segments) {
+            segment.invalidate(event.courseId(), true, false);
+        }
+    }
+    
+    // Only entries showing the course's count are touched, other responses in flight are still stored
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseEnrolled(CourseEnrolledEvent event) {
+        long stamp = sequence.incrementAndGet();
+        courseStamps.accumulateAndGet(slotOf(event.courseId()), stamp, Math::max);
+        enrollmentSortedStamp.accumulateAndGet(stamp, Math::max);
+        for (Segment segment : segments) {
+            segment.invalidate(event.courseId(), false, true);
+        }
+    }
+    
+    // Checked under the segment's lock: the stamps are raised before the segments are visited,
+    // so either this sees the new stamp or the invalidation finds and drops the stored entry
+    private boolean isStale(Entry entry, long sequenceAtStart) {
+        if (entry.courseId() != null && courseStamps.get(slotOf(entry.courseId())) > sequenceAtStart) {
+            return true;
+        }
+        if (entry.sortedByEnrollment() && enrollmentSortedStamp.get() > sequenceAtStart) {
+            return true;
+        }
+        if (!entry.isListing()) {
+            return false;
+        }
+        if (listingsStamp.get() > sequenceAtStart) {
+            return true;
+        }
+        for (long id : entry.listedCourseIds()) {
+            if (courseStamps.get(slotOf(id)) > sequenceAtStart) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private long totalBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.bytes();
+        }
+        return total;
+    }
+    
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & mask];
+    }
+    
+    private static int slotOf(long courseId) {
+        return Long.hashCode(courseId) & (COURSE_STAMP_SLOTS - 1);
+    }
+    
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    public record Entry(byte[] body, String contentType, String etag, long expiresAt,
+                        Long courseId, long[] listedCourseIds, boolean sortedByEnrollment) {
+        
+        boolean isListing() {
+            return listedCourseIds != null;
+        }
+    }
+    
+    /**
+     * One lock's worth of entries in LRU order, with the keys of each course's
+     * detail entry and of the listings showing it, of every listing, and of
+     * the listings sorted by enrollment, kept in step as entries come and go.
+     */
+    private final class Segment {
+        
+        private final long maxBytes;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<Long, Set<String>> keysByCourse = new HashMap<>();
+        private final Set<String> listingKeys = new HashSet<>();
+        private final Set<String> enrollmentSortedKeys = new HashSet<>();
+        private long bytes;
+        
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+        
+        synchronized Entry get(String key) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() <= System.currentTimeMillis()) {
+                remove(key);
+                return null;
+            }
+            return entry;
+        }
+        
+        synchronized void put(String key, Entry entry, long sequenceAtStart) {
+            if (isStale(entry, sequenceAtStart)) {
+                return;
+            }
+            remove(key);
+            entries.put(key, entry);
+            bytes += entry.body().length;
+            index(key, entry);
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                bytes -= evicted.getValue().body().length;
+                unindex(evicted.getKey(), evicted.getValue());
+            }
+        }
+        
+        synchronized void invalidate(Long courseId, boolean listings, boolean enrollmentSorted) {
+            removeAll(keysByCourse.get(courseId));
+            if (listings) {
+                removeAll(listingKeys);
+            }
+            if (enrollmentSorted) {
+                removeAll(enrollmentSortedKeys);
+            }
+        }
+        
+        synchronized long bytes() {
+            return bytes;
+        }
+        
+        // Copied first, as removing an entry also takes its key out of the given set
+        private void removeAll(Set<String> keys) {
+            if (keys != null && !keys.isEmpty()) {
+                for (String key : List.copyOf(keys)) {
+                    remove(key);
+                }
+            }
+        }
+        
+        private void remove(String key) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                bytes -= removed.body().length;
+                unindex(key, removed);
+            }
+        }
+        
+        private void index(String key, Entry entry) {
+            if (entry.courseId() != null) {
+                keysByCourse.computeIfAbsent(entry.courseId(), id -> new HashSet<>()).add(key);
+            }
+            if (entry.isListing()) {
+                listingKeys.add(key);
+                for (long id : entry.listedCourseIds()) {
+                    keysByCourse.computeIfAbsent(id, ignored -> new HashSet<>()).add(key);
+                }
+            }
+            if (entry.sortedByEnrollment()) {
+                enrollmentSortedKeys.add(key);
+            }
+        }
+        
+        private void unindex(String key, Entry entry) {
+            if (entry.courseId() != null) {
+                unindexCourse(entry.courseId(), key);
+            }
+            if (entry.isListing()) {
+                listingKeys.remove(key);
+                for (long id : entry.listedCourseIds()) {
+                    unindexCourse(id, key);
+                }
+            }
+            if (entry.sortedByEnrollment()) {
+                enrollmentSortedKeys.remove(key);
+            }
+        }
+        
+        private void unindexCourse(Long courseId, String key) {
+            Set<String> keys = keysByCourse.get(courseId);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByCourse.remove(courseId);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.dharma.education.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves anonymous GETs of the public catalog endpoints from
+ * CatalogResponseCache. A hit writes the cached bytes, or a 304 when the
+ * client's If-None-Match matches, without reaching the controller. A miss
+ * runs the request, buffers the body and stores it for the next caller.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+    
+    private static final Pattern CATALOG_PATH = Pattern.compile("/api/courses(?:/(\\d+))?");
+    
+    // Clients may keep the body but must revalidate with the ETag on every use
+    private static final String CACHE_CONTROL = "no-cache";
+    
+    private final CatalogResponseCache cache;
+    private final ObjectMapper objectMapper;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !cache.isEnabled()
+                || !"GET".equals(request.getMethod())
+                || request.getHeader(HttpHeaders.AUTHORIZATION) != null
+                || !CATALOG_PATH.matcher(pathOf(request)).matches();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = pathOf(request);
+        String key = keyOf(path, request);
+        
+        CatalogResponseCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            if (new ServletWebRequest(request, response).checkNotModified(cached.etag())) {
+                return;
+            }
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+        
+        long sequence = cache.sequence();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        
+        if (wrapper.getStatus() == HttpStatus.OK.value() && isJson(wrapper.getContentType())) {
+            Matcher matcher = CATALOG_PATH.matcher(path);
+            matcher.matches();
+            Long courseId = matcher.group(1) != null ? Long.valueOf(matcher.group(1)) : null;
+            byte[] body = wrapper.getContentAsByteArray();
+            
+            CatalogResponseCache.Entry entry = cache.put(key, body, wrapper.getContentType(), courseId,
+                    courseId == null ? listedCourseIds(body) : null,
+                    "enrollmentCount".equals(request.getParameter("sortBy")), sequence);
+            
+            wrapper.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            if (new ServletWebRequest(request, wrapper).checkNotModified(entry.etag())) {
+                return;
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+    
+    private long[] listedCourseIds(byte[] body) throws IOException {
+        JsonNode content = objectMapper.readTree(body).path("content");
+        long[] ids = new long[content.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = content.get(i).path("id").asLong();
+        }
+        return ids;
+    }
+    
+    // Parameters in name order so equivalent query strings share an entry
+    private static String keyOf(String path, HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(path);
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+    
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+    
+    private static boolean isJson(String contentType) {
+        return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+}
\ No newline at end of file
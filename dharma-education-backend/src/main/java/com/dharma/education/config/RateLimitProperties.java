@@ -0,0 +1,35 @@
+package com.dharma.education.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Data
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    
+    // Buckets kept at most; past this the least recently used are dropped for new keys
+    private int maxKeys = 200_000;
+    
+    private long sweepIntervalMs = 60_000;
+    
+    /**
+     * Limits keyed by request path. Email limits only apply to JSON bodies that
+     * carry an "email" field.
+     */
+    private Map<String, RouteLimit> routes = new LinkedHashMap<>();
+    
+    @Data
+    public static class RouteLimit {
+        private int ipCapacity;
+        private double ipRefillPerMinute;
+        private int emailCapacity;
+        private double emailRefillPerMinute;
+    }
+}
\ No newline at end of file
@@ -1,9 +1,15 @@
 package com.dharma.education.config;
 
+import com.dharma.education.cache.CatalogResponseCacheFilter;
+import com.dharma.education.security.BoundedPasswordEncoder;
 import com.dharma.education.security.CustomUserDetailsService;
 import com.dharma.education.security.JwtAuthenticationEntryPoint;
 import com.dharma.education.security.JwtAuthenticationFilter;
+import com.dharma.education.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,12 +32,41 @@ public class SecurityConfig {
     
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
+    private final MeterRegistry meterRegistry;
+    private final RateLimitFilter rateLimitFilter;
+    private final CatalogResponseCacheFilter catalogResponseCacheFilter;
+    
+    @Value("${app.passwordHashThreads:0}")
+    private int passwordHashThreads;
+    
+    @Value("${app.passwordHashQueueCapacity:100}")
+    private int passwordHashQueueCapacity;
+    
+    @Value("${app.passwordHashRetryAfterSeconds:5}")
+    private long passwordHashRetryAfterSeconds;
     
     @Bean
     public JwtAuthenticationFilter authenticationJwtTokenFilter() {
         return new JwtAuthenticationFilter();
     }
     
+    // The rate limit filter runs inside the security chain only; keep Boot from
+    // also registering it as a plain servlet filter.
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+    
+    @Bean
+    public FilterRegistrationBean<CatalogResponseCacheFilter> catalogResponseCacheFilterRegistration() {
+        FilterRegistrationBean<CatalogResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(catalogResponseCacheFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+    
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -47,7 +82,11 @@ public class SecurityConfig {
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = passwordHashThreads > 0
+                ? passwordHashThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads,
+                passwordHashQueueCapacity, passwordHashRetryAfterSeconds, meterRegistry);
     }
     
     @Bean
@@ -58,7 +97,11 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/courses").permitAll()
+                .requestMatchers("/api/courses/suggest").permitAll()
                 .requestMatchers("/api/courses/{id}").permitAll()
+                .requestMatchers("/api/courses/{id}/modules").permitAll()
+                .requestMatchers("/api/media/{id}/content").permitAll()
+                .requestMatchers("/api/media/{id}/images/{variant}").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers("/actuator/**").permitAll()
                 .anyRequest().authenticated()
@@ -66,6 +109,8 @@ public class SecurityConfig {
         
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
+        http.addFilterAfter(catalogResponseCacheFilter, RateLimitFilter.class);
         
         return http.build();
     }
@@ -0,0 +1,49 @@
+package com.dharma.education.controller;
+
+import com.dharma.education.dto.response.AnalyticsRebuildResponse;
+import com.dharma.education.dto.response.CourseAnalyticsResponse;
+import com.dharma.education.security.UserPrincipal;
+import com.dharma.education.service.CourseAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@Tag(name = "Analytics", description = "Learning analytics APIs")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    
+    private final CourseAnalyticsService courseAnalyticsService;
+    
+    @GetMapping("/courses/{courseId}")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Get completion, score, time spent and activity figures for a course")
+    public ResponseEntity<CourseAnalyticsResponse> getCourseAnalytics(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "30") int days,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(courseAnalyticsService.getCourseAnalytics(courseId, userPrincipal.getId(), days));
+    }
+    
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Recompute all course analytics from enrollments and progress")
+    public ResponseEntity<AnalyticsRebuildResponse> startRebuild() {
+        return ResponseEntity.accepted().body(courseAnalyticsService.startRebuild());
+    }
+    
+    @GetMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get the status of the latest analytics rebuild")
+    public ResponseEntity<AnalyticsRebuildResponse> getRebuildStatus() {
+        return ResponseEntity.ok(courseAnalyticsService.getRebuildStatus());
+    }
+}
\ No newline at end of file
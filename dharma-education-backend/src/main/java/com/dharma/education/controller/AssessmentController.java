@@ -0,0 +1,77 @@
+package com.dharma.education.controller;
+
+import com.dharma.education.dto.request.AssessmentRequest;
+import com.dharma.education.dto.request.AssessmentSubmissionRequest;
+import com.dharma.education.dto.response.AssessmentAttemptResponse;
+import com.dharma.education.dto.response.AssessmentResponse;
+import com.dharma.education.security.UserPrincipal;
+import com.dharma.education.service.AssessmentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/assessments")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@Tag(name = "Assessments", description = "Assessment authoring and grading APIs")
+@RequiredArgsConstructor
+public class AssessmentController {
+    
+    private final AssessmentService assessmentService;
+    
+    @PostMapping("/courses/{courseId}")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Create an assessment in a course")
+    public ResponseEntity<AssessmentResponse> createAssessment(
+            @PathVariable Long courseId,
+            @Valid @RequestBody AssessmentRequest request,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        AssessmentResponse assessment = assessmentService.createAssessment(courseId, request, userPrincipal.getId());
+        
+        return ResponseEntity.status(HttpStatus.CREATED).body(assessment);
+    }
+    
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Replace an assessment; attempts already graded keep the version they were graded against")
+    public ResponseEntity<AssessmentResponse> updateAssessment(
+            @PathVariable Long id,
+            @Valid @RequestBody AssessmentRequest request,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(assessmentService.updateAssessment(id, request, userPrincipal.getId()));
+    }
+    
+    @GetMapping("/{id}")
+    @Operation(summary = "Get an assessment, without answers unless you manage its course")
+    public ResponseEntity<AssessmentResponse> getAssessment(
+            @PathVariable Long id,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(assessmentService.getAssessment(id, userPrincipal.getId()));
+    }
+    
+    @PostMapping("/{id}/submissions")
+    @PreAuthorize("hasRole('STUDENT')")
+    @Operation(summary = "Submit answers to a published assessment and get the grade")
+    public ResponseEntity<AssessmentAttemptResponse> submit(
+            @PathVariable Long id,
+            @Valid @RequestBody AssessmentSubmissionRequest request,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        AssessmentAttemptResponse attempt = assessmentService.submit(id, request.getAnswers(), userPrincipal.getId());
+        
+        return ResponseEntity.status(HttpStatus.CREATED).body(attempt);
+    }
+}
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.dharma.education.controller;
 
 import com.dharma.education.dto.request.LoginRequest;
+import com.dharma.education.dto.request.LogoutRequest;
+import com.dharma.education.dto.request.RefreshTokenRequest;
 import com.dharma.education.dto.request.RegisterRequest;
 import com.dharma.education.dto.response.JwtResponse;
 import com.dharma.education.dto.response.UserResponse;
@@ -9,6 +11,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,4 +37,23 @@ public class AuthController {
         UserResponse response = authService.register(request);
         return ResponseEntity.ok(response);
     }
+    
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new token pair")
+    public ResponseEntity<JwtResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        JwtResponse response = authService.refresh(request);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the current access token and refresh token")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) LogoutRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+            ? authorization.substring(7)
+            : null;
+        authService.logout(accessToken, request);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
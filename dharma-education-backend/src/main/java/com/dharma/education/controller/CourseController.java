@@ -1,8 +1,18 @@
 package com.dharma.education.controller;
 
+import com.dharma.education.dto.request.BulkEnrollmentRequest;
 import com.dharma.education.dto.request.CourseRequest;
+import com.dharma.education.dto.request.CourseSortKey;
+import com.dharma.education.dto.response.BulkEnrollmentResponse;
 import com.dharma.education.dto.response.CourseResponse;
+import com.dharma.education.dto.response.CourseSuggestionResponse;
+import com.dharma.education.dto.response.CursorPage;
+import com.dharma.education.dto.response.EnrolledCourseResponse;
+import com.dharma.education.dto.response.EnrollmentResponse;
+import com.dharma.education.dto.response.ModuleOutlineResponse;
+import com.dharma.education.exception.BadRequestException;
 import com.dharma.education.service.CourseService;
+import com.dharma.education.service.LearningModuleService;
 import com.dharma.education.security.UserPrincipal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -30,6 +40,7 @@ import java.util.List;
 public class CourseController {
     
     private final CourseService courseService;
+    private final LearningModuleService learningModuleService;
     
     @GetMapping
     @Operation(summary = "Get all courses with pagination and filtering")
@@ -41,8 +52,10 @@ public class CourseController {
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String search) {
         
+        // id breaks ties so pages stay stable when sorting by non-unique keys such as enrollmentCount
+        Sort.Direction direction = parseDirection(sortDir);
         Pageable pageable = PageRequest.of(page, size, 
-            Sort.by(Sort.Direction.fromString(sortDir), sortBy));
+            Sort.by(direction, CourseSortKey.fromParam(sortBy).getProperty()).and(Sort.by(direction, "id")));
             
         Page<CourseResponse> courses = courseService.getAllCourses(
             pageable, category, search);
@@ -50,6 +63,30 @@ public class CourseController {
         return ResponseEntity.ok(courses);
     }
     
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Get courses with keyset pagination; pass an empty cursor for the first page")
+    public ResponseEntity<CursorPage<CourseResponse>> getCoursesByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String search) {
+        
+        CursorPage<CourseResponse> courses = courseService.getCoursesByCursor(
+            cursor, size, CourseSortKey.fromParam(sortBy), parseDirection(sortDir), category, search);
+            
+        return ResponseEntity.ok(courses);
+    }
+    
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest courses for typeahead by title or category prefix")
+    public ResponseEntity<List<CourseSuggestionResponse>> suggestCourses(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(courseService.suggestCourses(q, limit));
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get course by ID")
     public ResponseEntity<CourseResponse> getCourseById(@PathVariable Long id) {
@@ -57,6 +94,12 @@ public class CourseController {
         return ResponseEntity.ok(course);
     }
     
+    @GetMapping("/{id}/modules")
+    @Operation(summary = "Get the published module outline of a course, without module content")
+    public ResponseEntity<List<ModuleOutlineResponse>> getCourseOutline(@PathVariable Long id) {
+        return ResponseEntity.ok(learningModuleService.getOutline(id));
+    }
+    
     @PostMapping
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
     @Operation(summary = "Create a new course")
@@ -100,22 +143,41 @@ public class CourseController {
     @PostMapping("/{id}/enroll")
     @PreAuthorize("hasRole('STUDENT')")
     @Operation(summary = "Enroll in course")
-    public ResponseEntity<String> enrollInCourse(
+    public ResponseEntity<EnrollmentResponse> enrollInCourse(
+            @PathVariable Long id,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        EnrollmentResponse enrollment = courseService.enrollInCourse(id, userPrincipal.getId());
+        
+        return ResponseEntity.ok(enrollment);
+    }
+    
+    @PostMapping("/{id}/enrollments")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Enroll many students in a course")
+    public ResponseEntity<BulkEnrollmentResponse> bulkEnroll(
             @PathVariable Long id,
+            @Valid @RequestBody BulkEnrollmentRequest request,
             Authentication authentication) {
         
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        courseService.enrollInCourse(id, userPrincipal.getId());
+        BulkEnrollmentResponse enrollments = courseService.bulkEnroll(id, request.getStudentIds(), userPrincipal.getId());
         
-        return ResponseEntity.ok("Successfully enrolled in course");
+        return ResponseEntity.ok(enrollments);
     }
     
     @GetMapping("/my-courses")
     @PreAuthorize("hasRole('STUDENT')")
     @Operation(summary = "Get enrolled courses")
-    public ResponseEntity<List<CourseResponse>> getEnrolledCourses(Authentication authentication) {
+    public ResponseEntity<List<EnrolledCourseResponse>> getEnrolledCourses(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        List<CourseResponse> courses = courseService.getEnrolledCourses(userPrincipal.getId());
+        List<EnrolledCourseResponse> courses = courseService.getEnrolledCourses(userPrincipal.getId());
         return ResponseEntity.ok(courses);
     }
+    
+    private static Sort.Direction parseDirection(String sortDir) {
+        return Sort.Direction.fromOptionalString(sortDir)
+            .orElseThrow(() -> new BadRequestException("Unsupported sortDir: " + sortDir));
+    }
 }
\ No newline at end of file
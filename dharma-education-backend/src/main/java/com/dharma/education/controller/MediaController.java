@@ -0,0 +1,177 @@
+package com.dharma.education.controller;
+
+import com.dharma.education.dto.request.MediaUploadRequest;
+import com.dharma.education.dto.response.MediaFileResponse;
+import com.dharma.education.dto.response.MediaUploadResponse;
+import com.dharma.education.dto.response.MediaUrlResponse;
+import com.dharma.education.entity.MediaFile;
+import com.dharma.education.exception.ResourceNotFoundException;
+import com.dharma.education.security.UserPrincipal;
+import com.dharma.education.service.MediaDownloadService;
+import com.dharma.education.service.MediaUploadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/media")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@Tag(name = "Media", description = "Media upload and streaming APIs")
+@RequiredArgsConstructor
+public class MediaController {
+    
+    private final MediaUploadService mediaUploadService;
+    private final MediaDownloadService mediaDownloadService;
+    
+    // Open to requests without a bearer token, which audio and video elements cannot send; private
+    // files are only served with a signature from GET /{mediaFileId}/url
+    @GetMapping("/{mediaFileId}/content")
+    @Operation(summary = "Stream a media file, honouring single and multiple byte ranges and conditional requests; " +
+            "files that are not public need a signed URL")
+    public void getContent(
+            @PathVariable Long mediaFileId,
+            @RequestParam(required = false) Long expires,
+            @RequestParam(required = false) String signature,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        mediaDownloadService.serve(mediaFileId, expires, signature, request, response);
+    }
+    
+    @GetMapping("/{mediaFileId}/images/{variant}")
+    @Operation(summary = "Get an image scaled down to a fixed width: thumbnail, card or large; " +
+            "images that are not public need a signed URL")
+    public void getImage(
+            @PathVariable Long mediaFileId,
+            @PathVariable String variant,
+            @RequestParam(required = false) Long expires,
+            @RequestParam(required = false) String signature,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        MediaFile.ImageVariant imageVariant;
+        try {
+            imageVariant = MediaFile.ImageVariant.valueOf(variant.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException("Unknown image variant: " + variant);
+        }
+        mediaDownloadService.serveImage(mediaFileId, imageVariant, expires, signature, request, response);
+    }
+    
+    @GetMapping("/{mediaFileId}/url")
+    @Operation(summary = "Get a short-lived signed URL for a media file you may view, for players and images")
+    public ResponseEntity<MediaUrlResponse> getSignedUrl(
+            @PathVariable Long mediaFileId,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(mediaDownloadService.signUrl(mediaFileId, userPrincipal.getId()));
+    }
+    
+    // Streams the request body to storage, so it is not bound by the multipart size limit
+    @PostMapping
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Upload a file sent as the raw request body, typed by its Content-Type; " +
+            "the body is not read when one of your stored files has the given content hash")
+    public ResponseEntity<MediaFileResponse> uploadFile(
+            @RequestParam String filename,
+            @RequestParam(required = false) Long courseId,
+            @RequestParam(required = false) String contentHash,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        String contentType = request.getContentType() != null
+                ? request.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        MediaFileResponse file = mediaUploadService.uploadFile(filename, contentType, request.getContentLengthLong(),
+                courseId, contentHash, request.getInputStream(), userPrincipal.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(file);
+    }
+    
+    @DeleteMapping("/{mediaFileId}")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Delete a media file; its stored content is removed once no other file shares it")
+    public ResponseEntity<Void> deleteFile(
+            @PathVariable Long mediaFileId,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        mediaUploadService.deleteFile(mediaFileId, userPrincipal.getId());
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/uploads")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Start a resumable upload; the file is then sent in chunks of the returned size, " +
+            "unless one of your stored files has its content hash and the upload is returned completed")
+    public ResponseEntity<MediaUploadResponse> startUpload(
+            @Valid @RequestBody MediaUploadRequest request,
+            Authentication authentication) throws IOException {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(mediaUploadService.startUpload(request, userPrincipal.getId()));
+    }
+    
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Get an upload's status and the chunks received so far, to resume it")
+    public ResponseEntity<MediaUploadResponse> getUpload(
+            @PathVariable Long uploadId,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(mediaUploadService.getUpload(uploadId, userPrincipal.getId()));
+    }
+    
+    @PutMapping(value = "/uploads/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Send one chunk of an upload, replacing any earlier copy of it")
+    public ResponseEntity<Void> uploadChunk(
+            @PathVariable Long uploadId,
+            @PathVariable int index,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        mediaUploadService.uploadChunk(uploadId, index, request.getInputStream(), request.getContentLengthLong(),
+                userPrincipal.getId());
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Assemble a fully received upload into a media file")
+    public ResponseEntity<MediaFileResponse> completeUpload(
+            @PathVariable Long uploadId,
+            Authentication authentication) throws IOException {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(mediaUploadService.completeUpload(uploadId, userPrincipal.getId()));
+    }
+    
+    @DeleteMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Abort an upload and discard the chunks received")
+    public ResponseEntity<Void> abortUpload(
+            @PathVariable Long uploadId,
+            Authentication authentication) throws IOException {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        mediaUploadService.abortUpload(uploadId, userPrincipal.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.dharma.education.controller;
+
+import com.dharma.education.dto.request.ModuleContentRequest;
+import com.dharma.education.repository.projection.ModuleContentBody;
+import com.dharma.education.repository.projection.ModuleContentInfo;
+import com.dharma.education.security.UserPrincipal;
+import com.dharma.education.service.LearningModuleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/modules")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@Tag(name = "Modules", description = "Learning module content APIs")
+@RequiredArgsConstructor
+public class ModuleController {
+    
+    private static final String CONTENT_TYPE = "text/plain;charset=UTF-8";
+    
+    // Content is per-user access controlled, so only the client may keep it, and must revalidate
+    private static final String CACHE_CONTROL = "private, no-cache";
+    
+    private final LearningModuleService learningModuleService;
+    
+    @GetMapping("/{moduleId}/content")
+    @Operation(summary = "Get a module's content, gzipped when the client accepts it, with ETag revalidation")
+    public void getContent(
+            @PathVariable Long moduleId,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        ModuleContentInfo info = learningModuleService.getContentInfo(moduleId, userPrincipal.getId());
+        boolean gzip = LearningModuleService.shouldSendGzip(info, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified(
+                LearningModuleService.etagOf(info.getEtag(), gzip))) {
+            return;
+        }
+        
+        ModuleContentBody body = learningModuleService.getBody(moduleId, gzip);
+        response.setHeader(HttpHeaders.ETAG, LearningModuleService.etagOf(body.getEtag(), gzip));
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, LearningModuleService.GZIP);
+        }
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(body.getBytes().length);
+        response.getOutputStream().write(body.getBytes());
+    }
+    
+    @PutMapping("/{moduleId}/content")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Replace a module's content")
+    public ResponseEntity<Void> updateContent(
+            @PathVariable Long moduleId,
+            @Valid @RequestBody ModuleContentRequest request,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        learningModuleService.updateContent(moduleId, request.getContent(), userPrincipal.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.dharma.education.controller;
+
+import com.dharma.education.dto.response.ParentDashboardResponse;
+import com.dharma.education.security.UserPrincipal;
+import com.dharma.education.service.ParentDashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/parents")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@Tag(name = "Parents", description = "Parent dashboard APIs")
+@RequiredArgsConstructor
+public class ParentController {
+    
+    private final ParentDashboardService parentDashboardService;
+    
+    @GetMapping("/me/dashboard")
+    @PreAuthorize("hasRole('PARENT')")
+    @Operation(summary = "Get enrollments, progress and recent results for all of the current parent's children")
+    public ResponseEntity<ParentDashboardResponse> getDashboard(Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(parentDashboardService.getDashboard(userPrincipal.getId()));
+    }
+    
+    @PutMapping("/{parentId}/children/{studentId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Link a student to a parent account")
+    public ResponseEntity<Void> linkChild(@PathVariable Long parentId, @PathVariable Long studentId) {
+        parentDashboardService.linkChild(parentId, studentId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{parentId}/children/{studentId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Remove the link between a student and a parent account")
+    public ResponseEntity<Void> unlinkChild(@PathVariable Long parentId, @PathVariable Long studentId) {
+        parentDashboardService.unlinkChild(parentId, studentId);
+        return ResponseEntity.noContent().build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.dharma.education.controller;
+
+import com.dharma.education.dto.request.ProgressHeartbeatRequest;
+import com.dharma.education.dto.response.ModuleProgressResponse;
+import com.dharma.education.security.UserPrincipal;
+import com.dharma.education.service.ProgressMatrixService;
+import com.dharma.education.service.StudentProgressService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/progress")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@Tag(name = "Progress", description = "Student progress tracking APIs")
+@RequiredArgsConstructor
+public class ProgressController {
+    
+    private final StudentProgressService studentProgressService;
+    private final ProgressMatrixService progressMatrixService;
+    
+    @PostMapping("/heartbeat")
+    @PreAuthorize("hasRole('STUDENT')")
+    @Operation(summary = "Record time spent on, or completion of, a learning module")
+    public ResponseEntity<Void> recordHeartbeat(
+            @Valid @RequestBody ProgressHeartbeatRequest request,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        studentProgressService.recordHeartbeat(userPrincipal.getId(), request);
+        return ResponseEntity.accepted().build();
+    }
+    
+    @GetMapping("/courses/{courseId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    @Operation(summary = "Get the current student's progress on each module of a course")
+    public ResponseEntity<List<ModuleProgressResponse>> getCourseProgress(
+            @PathVariable Long courseId,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(studentProgressService.getCourseProgress(userPrincipal.getId(), courseId));
+    }
+    
+    @GetMapping(value = "/courses/{courseId}/matrix", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Stream the students x modules completion and score grid of a course as JSON")
+    public void getProgressMatrix(
+            @PathVariable Long courseId,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        progressMatrixService.writeJson(courseId, userPrincipal.getId(), response.getOutputStream());
+    }
+    
+    @GetMapping(value = "/courses/{courseId}/matrix", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
+    @Operation(summary = "Stream the students x modules completion and score grid of a course in compact binary form")
+    public void getProgressMatrixBinary(
+            @PathVariable Long courseId,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        progressMatrixService.writeBinary(courseId, userPrincipal.getId(), response.getOutputStream());
+    }
+}
\ No newline at end of file
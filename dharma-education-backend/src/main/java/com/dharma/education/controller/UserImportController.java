@@ -0,0 +1,43 @@
+package com.dharma.education.controller;
+
+import com.dharma.education.dto.response.UserImportResponse;
+import com.dharma.education.service.UserImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@Tag(name = "User administration", description = "User onboarding APIs")
+@RequiredArgsConstructor
+public class UserImportController {
+    
+    private final UserImportService userImportService;
+    
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import users and enrollments from an uploaded CSV file")
+    public ResponseEntity<UserImportResponse> importUsers(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(userImportService.importUsers(csv));
+        }
+    }
+    
+    // Streams the request body straight into the import, so it is not bound by the multipart size limit
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import users and enrollments from a CSV request body")
+    public ResponseEntity<UserImportResponse> importUsersFromBody(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.dharma.education.dto.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class AssessmentRequest {
+    @NotBlank(message = "Title is required")
+    private String title;
+    
+    private String description;
+    
+    // The quiz builder's question array; see AssessmentCompiler
+    @NotNull(message = "Questions are required")
+    private JsonNode questions;
+    
+    @PositiveOrZero(message = "Passing score must be positive or zero")
+    @Max(value = 100, message = "Passing score cannot be more than 100")
+    private Integer passingScore;
+    
+    @Positive(message = "Time limit must be positive")
+    private Integer timeLimitMinutes;
+    
+    private Boolean isPublished;
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.dharma.education.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AssessmentSubmissionRequest {
+    // One per question in order: an option index, true or false, or text; null when unanswered
+    @NotNull(message = "Answers are required")
+    private List<String> answers;
+}
\ No newline at end of file
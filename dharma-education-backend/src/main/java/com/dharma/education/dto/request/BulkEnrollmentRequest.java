@@ -0,0 +1,15 @@
+package com.dharma.education.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkEnrollmentRequest {
+    @NotEmpty(message = "At least one student id is required")
+    @Size(max = 1000, message = "At most 1000 students can be enrolled at once")
+    private List<@NotNull Long> studentIds;
+}
\ No newline at end of file
@@ -26,4 +26,7 @@ public class CourseRequest {
     private String level;
     
     private String imageUrl;
+    
+    @PositiveOrZero(message = "Seat capacity must be positive or zero")
+    private Integer seatCapacity;
 }
\ No newline at end of file
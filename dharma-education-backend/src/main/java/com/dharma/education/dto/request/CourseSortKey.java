@@ -0,0 +1,30 @@
+package com.dharma.education.dto.request;
+
+import com.dharma.education.exception.BadRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Course catalog sort keys accepted from clients. Each is backed by a
+ * composite (key, id) index on active courses, so no client-chosen sort
+ * can fall back to a full scan.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CourseSortKey {
+    CREATED_AT("createdAt"),
+    ENROLLMENT_COUNT("enrollmentCount");
+    
+    private final String property;
+    
+    public static CourseSortKey fromParam(String sortBy) {
+        return Arrays.stream(values())
+                .filter(key -> key.property.equals(sortBy))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unsupported sortBy: " + sortBy + ". Allowed: " +
+                        Arrays.stream(values()).map(CourseSortKey::getProperty).collect(Collectors.joining(", "))));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.dharma.education.dto.request;
+
+import lombok.Data;
+
+@Data
+public class LogoutRequest {
+    private String refreshToken;
+}
\ No newline at end of file
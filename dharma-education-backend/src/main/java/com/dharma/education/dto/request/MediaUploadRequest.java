@@ -0,0 +1,29 @@
+package com.dharma.education.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class MediaUploadRequest {
+    @NotBlank(message = "Filename is required")
+    @Size(max = 255, message = "Filename cannot exceed 255 characters")
+    private String filename;
+    
+    @NotBlank(message = "Content type is required")
+    @Size(max = 100, message = "Content type cannot exceed 100 characters")
+    private String contentType;
+    
+    @NotNull(message = "Size is required")
+    @Positive(message = "Size must be positive")
+    private Long size;
+    
+    private Long courseId;
+    
+    // Optional; when one of the user's stored files has this hash the upload completes at once
+    @Pattern(regexp = "[0-9a-f]{64}", message = "Content hash must be 64 lowercase hex characters")
+    private String contentHash;
+}
\ No newline at end of file
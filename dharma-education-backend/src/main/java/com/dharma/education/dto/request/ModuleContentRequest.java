@@ -0,0 +1,10 @@
+package com.dharma.education.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ModuleContentRequest {
+    @NotNull(message = "Content is required")
+    private String content;
+}
\ No newline at end of file
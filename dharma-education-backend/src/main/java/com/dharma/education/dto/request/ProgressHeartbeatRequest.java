@@ -0,0 +1,19 @@
+package com.dharma.education.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class ProgressHeartbeatRequest {
+    @NotNull(message = "Module id is required")
+    private Long moduleId;
+    
+    // Time spent on the module since the previous heartbeat
+    @PositiveOrZero(message = "Seconds spent must be positive or zero")
+    @Max(value = 3600, message = "Seconds spent cannot exceed 3600 per heartbeat")
+    private Integer secondsSpent;
+    
+    private Boolean completed;
+}
\ No newline at end of file
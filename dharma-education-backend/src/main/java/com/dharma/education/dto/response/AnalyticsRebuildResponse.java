@@ -0,0 +1,26 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRebuildResponse {
+    private Status status;
+    private int coursesTotal;
+    private int chunksTotal;
+    private int chunksDone;
+    private int chunksFailed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    
+    public enum Status {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+}
\ No newline at end of file
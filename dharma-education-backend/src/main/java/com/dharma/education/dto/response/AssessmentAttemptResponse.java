@@ -0,0 +1,30 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssessmentAttemptResponse {
+    private Long id;
+    private Long assessmentId;
+    private Integer assessmentVersion;
+    private Integer attemptNumber;
+    private Integer attemptsRemaining;
+    private Integer pointsEarned;
+    private Integer pointsPossible;
+    // Percentage of the automatically graded points
+    private Integer score;
+    private Boolean passed;
+    private Integer correctCount;
+    private Integer questionCount;
+    // Essay points a teacher has yet to award
+    private Integer reviewPoints;
+    private LocalDateTime submittedAt;
+}
\ No newline at end of file
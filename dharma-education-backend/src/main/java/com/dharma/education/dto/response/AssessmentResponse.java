@@ -0,0 +1,29 @@
+package com.dharma.education.dto.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssessmentResponse {
+    private Long id;
+    private Long courseId;
+    private String title;
+    private String description;
+    // As saved for the course's teacher; without answers for students
+    private JsonNode questions;
+    private Integer questionCount;
+    private Integer passingScore;
+    private Integer timeLimitMinutes;
+    private Boolean isPublished;
+    private Integer version;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEnrollmentResponse {
+    private Long courseId;
+    @Builder.Default
+    private List<Long> enrolled = new ArrayList<>();
+    @Builder.Default
+    private List<Long> alreadyEnrolled = new ArrayList<>();
+    @Builder.Default
+    private List<Long> waitlisted = new ArrayList<>();
+    // Ids that are not active students
+    @Builder.Default
+    private List<Long> rejected = new ArrayList<>();
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseAnalyticsResponse {
+    private Long courseId;
+    private long enrolledCount;
+    private long completedCount;
+    // Percentages, 0 when nobody is enrolled
+    private double completionRate;
+    private double averageProgress;
+    // Null until a module has been scored
+    private Double averageScore;
+    private long averageTimeSpentSeconds;
+    private long modulesCompleted;
+    // Distinct learners with progress in the last activeWindowDays days
+    private long activeLearners;
+    private int activeWindowDays;
+    @Builder.Default
+    private List<Day> daily = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        private int newEnrollments;
+        private int completions;
+        private int modulesCompleted;
+        private int activeLearners;
+        private long timeSpentSeconds;
+    }
+}
\ No newline at end of file
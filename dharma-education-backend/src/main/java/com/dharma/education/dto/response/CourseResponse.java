@@ -1,6 +1,7 @@
 package com.dharma.education.dto.response;
 
 import com.dharma.education.entity.Course;
+import com.dharma.education.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -23,24 +25,38 @@ public class CourseResponse {
     private Integer durationWeeks;
     private String level;
     private String imageUrl;
+    // thumbnail, card and large variants when imageUrl is an uploaded image
+    private Map<String, String> imageVariantUrls;
     private Boolean isActive;
-    private Integer enrollmentCount;
+    private Long enrollmentCount;
+    private Integer seatCapacity;
+    private Integer seatsAvailable;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
     public static CourseResponse fromEntity(Course course) {
+        return fromEntity(course, course.getTeacher(),
+                course.getEnrollmentCount() != null ? course.getEnrollmentCount() : 0);
+    }
+    
+    public static CourseResponse fromEntity(Course course, User teacher, long enrollmentCount) {
         return CourseResponse.builder()
                 .id(course.getId())
                 .title(course.getTitle())
                 .description(course.getDescription())
-                .teacher(course.getTeacher() != null ? UserResponse.fromEntity(course.getTeacher()) : null)
+                .teacher(teacher != null ? UserResponse.fromEntity(teacher) : null)
                 .category(course.getCategory())
                 .price(course.getPrice())
                 .durationWeeks(course.getDurationWeeks())
                 .level(course.getLevel() != null ? course.getLevel().name() : null)
                 .imageUrl(course.getImageUrl())
+                .imageVariantUrls(ImageVariantUrls.of(course.getImageUrl()))
                 .isActive(course.getIsActive())
-                .enrollmentCount(course.getEnrollmentCount())
+                .enrollmentCount(enrollmentCount)
+                .seatCapacity(course.getSeatCapacity())
+                .seatsAvailable(course.getSeatCapacity() != null
+                        ? Math.max(course.getSeatCapacity() - course.getSeatsTaken(), 0)
+                        : null)
                 .createdAt(course.getCreatedAt())
                 .updatedAt(course.getUpdatedAt())
                 .build();
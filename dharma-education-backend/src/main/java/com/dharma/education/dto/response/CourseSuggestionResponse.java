@@ -0,0 +1,17 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSuggestionResponse {
+    private Long id;
+    private String title;
+    private String category;
+    private Long enrollmentCount;
+}
\ No newline at end of file
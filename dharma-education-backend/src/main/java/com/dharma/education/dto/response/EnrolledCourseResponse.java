@@ -0,0 +1,21 @@
+package com.dharma.education.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrolledCourseResponse {
+    @JsonUnwrapped
+    private CourseResponse course;
+    private Double progress;
+    private LocalDateTime enrolledAt;
+    private LocalDateTime completedAt;
+}
\ No newline at end of file
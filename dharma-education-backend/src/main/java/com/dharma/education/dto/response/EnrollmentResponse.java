@@ -0,0 +1,20 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentResponse {
+    private Long courseId;
+    private Status status;
+    private Integer waitlistPosition;
+    
+    public enum Status {
+        ENROLLED, ALREADY_ENROLLED, WAITLISTED
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.dharma.education.dto.response;
+
+import com.dharma.education.entity.MediaFile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scaled-down variant URLs for an image URL that points at stored media,
+ * worked out from the URL alone so listings need no extra queries.
+ */
+final class ImageVariantUrls {
+    
+    private static final Pattern MEDIA_CONTENT_URL = Pattern.compile("/api/media/(\\d+)/content$");
+    
+    private ImageVariantUrls() {
+    }
+    
+    // Keyed by variant name; null for empty or external URLs, which are used as given
+    static Map<String, String> of(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        Matcher matcher = MEDIA_CONTENT_URL.matcher(imageUrl);
+        if (!matcher.find()) {
+            return null;
+        }
+        String prefix = imageUrl.substring(0, matcher.start()) + "/api/media/" + matcher.group(1) + "/images/";
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (MediaFile.ImageVariant variant : MediaFile.ImageVariant.values()) {
+            urls.put(variant.pathName(), prefix + variant.pathName());
+        }
+        return urls;
+    }
+}
\ No newline at end of file
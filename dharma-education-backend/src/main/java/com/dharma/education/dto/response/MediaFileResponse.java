@@ -0,0 +1,24 @@
+package com.dharma.education.dto.response;
+
+import com.dharma.education.entity.MediaFile;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaFileResponse {
+    private Long id;
+    private String filename;
+    private String originalFilename;
+    private String fileType;
+    private Long fileSize;
+    private MediaFile.MediaType mediaType;
+    private String fileUrl;
+    // SHA-256 of the SHA-256 digests of each 4 MiB block; null for files stored before hashing
+    private String contentHash;
+    private Long courseId;
+}
\ No newline at end of file
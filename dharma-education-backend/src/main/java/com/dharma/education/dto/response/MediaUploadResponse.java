@@ -0,0 +1,30 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaUploadResponse {
+    private Long uploadId;
+    private Status status;
+    private String filename;
+    private String contentType;
+    private long totalSize;
+    private int chunkSize;
+    private int chunkCount;
+    // 0-based indexes of the chunks stored so far; a resumed upload sends the rest
+    private List<Integer> receivedChunks;
+    private long receivedBytes;
+    private Long mediaFileId;
+    
+    public enum Status {
+        UPLOADING, COMPLETING, COMPLETED, ABORTED
+    }
+}
\ No newline at end of file
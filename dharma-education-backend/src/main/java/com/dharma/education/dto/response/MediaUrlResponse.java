@@ -0,0 +1,22 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaUrlResponse {
+    private Long mediaFileId;
+    // Loads the file without a bearer token until expiresAt
+    private String url;
+    // Scaled-down variants by name, signed the same way; null for files that are not images
+    private Map<String, String> imageVariantUrls;
+    private Instant expiresAt;
+}
\ No newline at end of file
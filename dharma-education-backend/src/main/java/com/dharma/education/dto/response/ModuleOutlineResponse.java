@@ -0,0 +1,17 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModuleOutlineResponse {
+    private Long id;
+    private String title;
+    private Integer orderIndex;
+    private Integer durationMinutes;
+}
\ No newline at end of file
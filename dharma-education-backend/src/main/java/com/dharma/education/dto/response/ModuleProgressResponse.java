@@ -0,0 +1,22 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModuleProgressResponse {
+    private Long moduleId;
+    private String title;
+    private Integer orderIndex;
+    private boolean completed;
+    private LocalDateTime completedAt;
+    private Integer score;
+    private int timeSpentSeconds;
+}
\ No newline at end of file
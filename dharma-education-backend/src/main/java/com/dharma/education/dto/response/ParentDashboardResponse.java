@@ -0,0 +1,62 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParentDashboardResponse {
+    @Builder.Default
+    private List<Child> children = new ArrayList<>();
+    // True when any child's section is missing
+    private boolean partial;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Child {
+        private Long studentId;
+        private String firstName;
+        private String lastName;
+        private String gradeLevel;
+        // Sections that failed or missed the deadline are null and listed in unavailable
+        private List<EnrolledCourseResponse> enrollments;
+        private ProgressSummary progress;
+        private List<RecentResult> recentResults;
+        private boolean partial;
+        @Builder.Default
+        private List<String> unavailable = new ArrayList<>();
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProgressSummary {
+        private long modulesCompleted;
+        private long timeSpentSeconds;
+        private LocalDateTime lastActiveAt;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    // A graded assessment attempt
+    public static class RecentResult {
+        private Long courseId;
+        private String courseTitle;
+        private Long assessmentId;
+        private String assessmentTitle;
+        private Integer score;
+        private boolean passed;
+        private LocalDateTime submittedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.dharma.education.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResponse {
+    private long rowsRead;
+    private long usersCreated;
+    private long rowsFailed;
+    private long enrollmentsCreated;
+    private long waitlisted;
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+    // Set when more rows failed than are listed in errors
+    private boolean errorsTruncated;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String email;
+        private String message;
+    }
+}
\ No newline at end of file
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -23,6 +24,8 @@ public class UserResponse {
     private String phoneNumber;
     private LocalDate dateOfBirth;
     private String profileImageUrl;
+    // thumbnail, card and large variants when profileImageUrl is an uploaded image
+    private Map<String, String> profileImageVariantUrls;
     private String gradeLevel;
     private String specialization;
     private String bio;
@@ -41,6 +44,7 @@ public class UserResponse {
                 .phoneNumber(user.getPhoneNumber())
                 .dateOfBirth(user.getDateOfBirth())
                 .profileImageUrl(user.getProfileImageUrl())
+                .profileImageVariantUrls(ImageVariantUrls.of(user.getProfileImageUrl()))
                 .gradeLevel(user.getGradeLevel())
                 .specialization(user.getSpecialization())
                 .bio(user.getBio())
@@ -40,7 +40,15 @@ public class Assessment {
     @Builder.Default
     private Boolean isPublished = false;
     
+    // Bumped by every edit; see AssessmentService
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer version = 0;
+    
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
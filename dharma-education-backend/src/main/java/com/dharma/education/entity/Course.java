@@ -2,6 +2,8 @@ package com.dharma.education.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,6 +13,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "courses")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,6 +50,20 @@ public class Course {
     @Column(name = "image_url")
     private String imageUrl;
     
+    // Maintained by EnrollmentCounter in batches; never written through the entity
+    @Column(name = "enrollment_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long enrollmentCount = 0L;
+    
+    // Null means unlimited seats
+    @Column(name = "seat_capacity")
+    private Integer seatCapacity;
+    
+    // Maintained by EnrollmentJdbcRepository while seatCapacity is set
+    @Column(name = "seats_taken", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer seatsTaken = 0;
+    
     @Column(name = "is_active")
     @Builder.Default
     private Boolean isActive = true;
@@ -71,8 +89,4 @@ public class Course {
     public enum DifficultyLevel {
         BEGINNER, INTERMEDIATE, ADVANCED
     }
-    
-    public int getEnrollmentCount() {
-        return enrollments != null ? enrollments.size() : 0;
-    }
 }
\ No newline at end of file
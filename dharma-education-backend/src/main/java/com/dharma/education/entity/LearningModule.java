@@ -24,9 +24,6 @@ public class LearningModule {
     @Column(nullable = false)
     private String title;
     
-    @Column(columnDefinition = "TEXT")
-    private String content;
-    
     @Column(name = "order_index")
     private Integer orderIndex;
     
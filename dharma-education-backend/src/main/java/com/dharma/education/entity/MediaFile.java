@@ -5,6 +5,10 @@ import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Entity
 @Table(name = "media_files")
@@ -32,8 +36,9 @@ public class MediaFile {
     @Column(name = "file_url")
     private String fileUrl;
     
-    @Column(name = "s3_key")
-    private String s3Key;
+    // The stored object, shared with other files of the same content; managed over JDBC
+    @Column(name = "blob_id")
+    private Long blobId;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "media_type")
@@ -47,11 +52,46 @@ public class MediaFile {
     @JoinColumn(name = "course_id")
     private Course course;
     
+    // Served to anyone; other files need a signed URL, see MediaUrlSigner
+    @Column(name = "is_public", nullable = false)
+    @Builder.Default
+    private Boolean isPublic = false;
+    
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    private static final Pattern CONTENT_URL = Pattern.compile("/api/media/(\\d+)/content$");
+    
+    // The id of the stored file a URL such as a course image points at, if it points at one
+    public static Optional<Long> idFromContentUrl(String url) {
+        if (url == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = CONTENT_URL.matcher(url);
+        return matcher.find() ? Optional.of(Long.parseLong(matcher.group(1))) : Optional.empty();
+    }
+    
     public enum MediaType {
         IMAGE, VIDEO, AUDIO, DOCUMENT, OTHER
     }
+    
+    // Widths uploaded images are scaled down to, served from /api/media/{id}/images/{variant}
+    public enum ImageVariant {
+        THUMBNAIL(160), CARD(480), LARGE(1280);
+        
+        private final int width;
+        
+        ImageVariant(int width) {
+            this.width = width;
+        }
+        
+        public int getWidth() {
+            return width;
+        }
+        
+        public String pathName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
 }
\ No newline at end of file
@@ -39,6 +39,11 @@ public class StudentProgress {
     @Column(name = "time_spent_minutes")
     private Integer timeSpentMinutes;
     
+    // Written by ProgressIngestor; time_spent_minutes is derived from it
+    @Column(name = "time_spent_seconds")
+    @Builder.Default
+    private Integer timeSpentSeconds = 0;
+    
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
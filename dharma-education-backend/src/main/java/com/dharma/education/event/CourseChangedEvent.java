@@ -0,0 +1,27 @@
+package com.dharma.education.event;
+
+import com.dharma.education.entity.Course;
+
+/**
+ * Published by CourseService when a course is created, updated or
+ * deactivated. Listeners that maintain in-memory views of the catalog
+ * should react after the surrounding transaction commits.
+ */
+public record CourseChangedEvent(Long courseId, Type type, String title, String category) {
+    
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+    
+    public static CourseChangedEvent created(Course course) {
+        return new CourseChangedEvent(course.getId(), Type.CREATED, course.getTitle(), course.getCategory());
+    }
+    
+    public static CourseChangedEvent updated(Course course) {
+        return new CourseChangedEvent(course.getId(), Type.UPDATED, course.getTitle(), course.getCategory());
+    }
+    
+    public static CourseChangedEvent deleted(Long courseId) {
+        return new CourseChangedEvent(courseId, Type.DELETED, null, null);
+    }
+}
\ No newline at end of file
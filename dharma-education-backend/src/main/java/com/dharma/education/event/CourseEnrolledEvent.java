@@ -0,0 +1,7 @@
+package com.dharma.education.event;
+
+/**
+ * Published by CourseService when a student enrolls in a course.
+ */
+public record CourseEnrolledEvent(Long courseId, Long studentId) {
+}
\ No newline at end of file
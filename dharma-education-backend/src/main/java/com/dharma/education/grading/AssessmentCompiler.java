@@ -0,0 +1,158 @@
+package com.dharma.education.grading;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compiles an assessment's question JSON, the array the quiz builder saves,
+ * into a {@link CompiledAssessment}. Each question has a {@code type} of
+ * {@code multiple-choice}, {@code true-false}, {@code short-answer} or
+ * {@code essay}, the {@code question} text, {@code options} for multiple
+ * choice, a {@code correctAnswer} (the option text or its index for multiple
+ * choice), positive {@code points}, defaulting to 1, and an optional
+ * {@code id}.
+ *
+ * <p>Anything a submission could not be graded against is rejected with an
+ * {@link IllegalArgumentException} naming the question, so a bad question
+ * bank is refused when it is saved rather than when students submit.
+ */
+public final class AssessmentCompiler {
+    
+    public static final int MAX_QUESTIONS = 1000;
+    
+    private final ObjectMapper objectMapper;
+    
+    public AssessmentCompiler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    public CompiledAssessment compile(long assessmentId, int version, int passingScore, String questionsJson) {
+        JsonNode questions;
+        try {
+            questions = questionsJson == null ? null : objectMapper.readTree(questionsJson);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Questions are not valid JSON");
+        }
+        return compile(assessmentId, version, passingScore, questions);
+    }
+    
+    public CompiledAssessment compile(long assessmentId, int version, int passingScore, JsonNode questions) {
+        if (questions == null || !questions.isArray() || questions.isEmpty()) {
+            throw new IllegalArgumentException("Questions must be a non-empty array");
+        }
+        if (questions.size() > MAX_QUESTIONS) {
+            throw new IllegalArgumentException("An assessment cannot have more than " + MAX_QUESTIONS + " questions");
+        }
+        int count = questions.size();
+        byte[] types = new byte[count];
+        int[] points = new int[count];
+        int[] answerKeys = new int[count];
+        String[] textKeys = new String[count];
+        String[] questionIds = new String[count];
+        String[] prompts = new String[count];
+        String[][] options = new String[count][];
+        
+        for (int i = 0; i < count; i++) {
+            JsonNode question = questions.get(i);
+            String label = "Question " + (i + 1);
+            if (!question.isObject()) {
+                throw new IllegalArgumentException(label + " must be an object");
+            }
+            questionIds[i] = question.hasNonNull("id") ? question.get("id").asText() : String.valueOf(i + 1);
+            prompts[i] = requireText(question, "question", label);
+            points[i] = question.hasNonNull("points") ? question.get("points").asInt(0) : 1;
+            if (points[i] <= 0 || points[i] > 1000) {
+                throw new IllegalArgumentException(label + " must be worth between 1 and 1000 points");
+            }
+            
+            String type = requireText(question, "type", label);
+            switch (type) {
+                case "multiple-choice" -> {
+                    types[i] = CompiledAssessment.MULTIPLE_CHOICE;
+                    options[i] = readOptions(question, label);
+                    answerKeys[i] = optionIndex(options[i], requireText(question, "correctAnswer", label), label);
+                }
+                case "true-false" -> {
+                    types[i] = CompiledAssessment.TRUE_FALSE;
+                    String answer = requireText(question, "correctAnswer", label).trim();
+                    if (answer.equalsIgnoreCase("true")) {
+                        answerKeys[i] = 1;
+                    } else if (answer.equalsIgnoreCase("false")) {
+                        answerKeys[i] = 0;
+                    } else {
+                        throw new IllegalArgumentException(label + " must have true or false as its answer");
+                    }
+                }
+                case "short-answer" -> {
+                    types[i] = CompiledAssessment.SHORT_ANSWER;
+                    textKeys[i] = normalize(requireText(question, "correctAnswer", label));
+                    if (textKeys[i].isEmpty()) {
+                        throw new IllegalArgumentException(label + " must have an answer");
+                    }
+                }
+                case "essay" -> types[i] = CompiledAssessment.ESSAY;
+                default -> throw new IllegalArgumentException(label + " has unknown type " + type);
+            }
+        }
+        return new CompiledAssessment(assessmentId, version, passingScore, types, points, answerKeys, textKeys,
+                questionIds, prompts, options);
+    }
+    
+    private static String[] readOptions(JsonNode question, String label) {
+        JsonNode options = question.get("options");
+        if (options == null || !options.isArray() || options.size() < 2 || options.size() > 26) {
+            throw new IllegalArgumentException(label + " must have between 2 and 26 options");
+        }
+        String[] values = new String[options.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = options.get(i).asText();
+        }
+        return values;
+    }
+    
+    // The builder saves the option text; an index is accepted too
+    private static int optionIndex(String[] options, String answer, String label) {
+        for (int i = 0; i < options.length; i++) {
+            if (options[i].equals(answer)) {
+                return i;
+            }
+        }
+        try {
+            int index = Integer.parseInt(answer.trim());
+            if (index >= 0 && index < options.length) {
+                return index;
+            }
+        } catch (NumberFormatException e) {
+            // not an index either
+        }
+        throw new IllegalArgumentException(label + " has an answer that is not one of its options");
+    }
+    
+    private static String requireText(JsonNode question, String field, String label) {
+        JsonNode value = question.get(field);
+        if (value == null || !value.isValueNode() || value.asText().isBlank()) {
+            throw new IllegalArgumentException(label + " is missing " + field);
+        }
+        return value.asText();
+    }
+    
+    // Lower case, trimmed, with each run of whitespace as one space; see CompiledAssessment.matchesText
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+            } else {
+                if (space) {
+                    normalized.append(' ');
+                    space = false;
+                }
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.dharma.education.grading;
+
+import java.util.List;
+
+/**
+ * An assessment's question bank compiled for grading. Question types, points
+ * and answer keys sit in parallel primitive arrays indexed by question
+ * position, so grading a submission walks them once without parsing or
+ * allocating anything per question. Instances are immutable and shared by
+ * every submission until the assessment is edited.
+ *
+ * <p>Answers are given per question in order: the 0-based option index for
+ * multiple choice, {@code true} or {@code false}, or text for short answers,
+ * which match ignoring case and surrounding or repeated whitespace. Essays
+ * are left for the teacher and count towards {@link #getReviewPoints()}.
+ */
+public final class CompiledAssessment {
+    
+    public static final byte MULTIPLE_CHOICE = 0;
+    public static final byte TRUE_FALSE = 1;
+    public static final byte SHORT_ANSWER = 2;
+    public static final byte ESSAY = 3;
+    
+    // The quiz builder's names for the types above, by type
+    static final String[] TYPE_NAMES = {"multiple-choice", "true-false", "short-answer", "essay"};
+    
+    private final long assessmentId;
+    private final int version;
+    private final int passingScore;
+    private final byte[] types;
+    private final int[] points;
+    // Option index for multiple choice, 1 for true and 0 for false; unused otherwise
+    private final int[] answerKeys;
+    // Short answers only
+    private final String[] textKeys;
+    private final int gradedPoints;
+    private final int reviewPoints;
+    
+    // Kept for showing the questions to students without the answers
+    private final String[] questionIds;
+    private final String[] prompts;
+    private final String[][] options;
+    
+    CompiledAssessment(long assessmentId, int version, int passingScore, byte[] types, int[] points,
+                       int[] answerKeys, String[] textKeys, String[] questionIds, String[] prompts,
+                       String[][] options) {
+        this.assessmentId = assessmentId;
+        this.version = version;
+        this.passingScore = passingScore;
+        this.types = types;
+        this.points = points;
+        this.answerKeys = answerKeys;
+        this.textKeys = textKeys;
+        this.questionIds = questionIds;
+        this.prompts = prompts;
+        this.options = options;
+        int graded = 0;
+        int review = 0;
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == ESSAY) {
+                review += points[i];
+            } else {
+                graded += points[i];
+            }
+        }
+        this.gradedPoints = graded;
+        this.reviewPoints = review;
+    }
+    
+    /**
+     * Grades the answers, which may stop short of the last question; missing
+     * and blank answers score nothing.
+     */
+    public GradeResult grade(List<String> answers) {
+        if (answers.size() > types.length) {
+            throw new IllegalArgumentException("The assessment has " + types.length + " questions, not "
+                    + answers.size());
+        }
+        int earned = 0;
+        int correct = 0;
+        for (int i = 0; i < answers.size(); i++) {
+            String answer = answers.get(i);
+            if (answer != null && isCorrect(i, answer)) {
+                earned += points[i];
+                correct++;
+            }
+        }
+        int score = gradedPoints == 0 ? 0 : (int) ((long) earned * 100 / gradedPoints);
+        return new GradeResult(earned, gradedPoints, score, score >= passingScore, correct, reviewPoints);
+    }
+    
+    private boolean isCorrect(int question, String answer) {
+        switch (types[question]) {
+            case MULTIPLE_CHOICE:
+                return parseIndex(answer) == answerKeys[question];
+            case TRUE_FALSE:
+                int value = answer.equalsIgnoreCase("true") ? 1 : answer.equalsIgnoreCase("false") ? 0 : -1;
+                return value == answerKeys[question];
+            case SHORT_ANSWER:
+                return matchesText(answer, textKeys[question]);
+            default:
+                return false;
+        }
+    }
+    
+    // A small non-negative integer, or -1, read without allocating
+    private static int parseIndex(String answer) {
+        int length = answer.length();
+        if (length == 0 || length > 4) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            char c = answer.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+    
+    /**
+     * Whether the answer equals the key, already normalized by the compiler,
+     * ignoring case, leading and trailing whitespace, and runs of whitespace.
+     */
+    static boolean matchesText(String answer, String key) {
+        int a = 0;
+        int end = answer.length();
+        while (a < end && Character.isWhitespace(answer.charAt(a))) {
+            a++;
+        }
+        while (end > a && Character.isWhitespace(answer.charAt(end - 1))) {
+            end--;
+        }
+        int k = 0;
+        while (a < end) {
+            char c = answer.charAt(a);
+            if (Character.isWhitespace(c)) {
+                while (Character.isWhitespace(answer.charAt(a + 1))) {
+                    a++;
+                }
+                c = ' ';
+            }
+            if (k >= key.length() || Character.toLowerCase(c) != key.charAt(k)) {
+                return false;
+            }
+            a++;
+            k++;
+        }
+        return k == key.length();
+    }
+    
+    public long getAssessmentId() {
+        return assessmentId;
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public int getQuestionCount() {
+        return types.length;
+    }
+    
+    public int getGradedPoints() {
+        return gradedPoints;
+    }
+    
+    public int getReviewPoints() {
+        return reviewPoints;
+    }
+    
+    public byte getType(int question) {
+        return types[question];
+    }
+    
+    public String getTypeName(int question) {
+        return TYPE_NAMES[types[question]];
+    }
+    
+    public int getPoints(int question) {
+        return points[question];
+    }
+    
+    public String getQuestionId(int question) {
+        return questionIds[question];
+    }
+    
+    public String getPrompt(int question) {
+        return prompts[question];
+    }
+    
+    // Null for questions without options
+    public List<String> getOptions(int question) {
+        return options[question] == null ? null : List.of(options[question]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.dharma.education.grading;
+
+/**
+ * The automatically graded part of a submission. The score is the
+ * percentage of gradable points earned; essay points await a teacher.
+ */
+public record GradeResult(int pointsEarned, int pointsPossible, int score, boolean passed, int correctCount,
+                          int reviewPoints) {
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.grading.GradeResult;
+import com.dharma.education.repository.projection.AssessmentAttemptRow;
+import com.dharma.education.repository.projection.AssessmentHeader;
+import com.dharma.education.repository.projection.AssessmentRow;
+import com.dharma.education.repository.projection.RecentResultRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Assessments and graded attempts. Every update bumps the assessment's
+ * version, which is what compiled question banks are cached against.
+ * Attempts are only ever written by server-side grading, so they are what
+ * parents are shown as a student's results.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AssessmentJdbcRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public long create(Long courseId, String title, String description, String questions, int passingScore,
+                       Integer timeLimitMinutes, boolean published) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO assessments (course_id, title, description, questions, passing_score, " +
+                "time_limit_minutes, is_published) VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id",
+                Long.class, courseId, title, description, questions, passingScore, timeLimitMinutes, published);
+    }
+    
+    // The new version, or empty when the assessment does not exist
+    public Optional<Integer> update(Long id, String title, String description, String questions, int passingScore,
+                                    Integer timeLimitMinutes, boolean published) {
+        return jdbcTemplate.queryForList(
+                "UPDATE assessments SET title = ?, description = ?, questions = ?, passing_score = ?, " +
+                "time_limit_minutes = ?, is_published = ?, version = version + 1, updated_at = now() " +
+                "WHERE id = ? RETURNING version",
+                Integer.class, title, description, questions, passingScore, timeLimitMinutes, published, id)
+                .stream().findFirst();
+    }
+    
+    public Optional<Long> findCourseId(Long id) {
+        return jdbcTemplate.queryForList(
+                "SELECT course_id FROM assessments WHERE id = ?", Long.class, id)
+                .stream().findFirst();
+    }
+    
+    public Optional<AssessmentRow> findById(Long id) {
+        return jdbcTemplate.query(
+                "SELECT id, course_id, title, description, questions, COALESCE(passing_score, 70), " +
+                "time_limit_minutes, COALESCE(is_published, false), version, created_at, updated_at " +
+                "FROM assessments WHERE id = ?",
+                (rs, rowNum) -> new AssessmentRow(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getInt(6), (Integer) rs.getObject(7), rs.getBoolean(8), rs.getInt(9),
+                        rs.getTimestamp(10) != null ? rs.getTimestamp(10).toLocalDateTime() : null,
+                        rs.getTimestamp(11) != null ? rs.getTimestamp(11).toLocalDateTime() : null),
+                id).stream().findFirst();
+    }
+    
+    // Leaves the question text behind, so a submission reads one small row
+    public Optional<AssessmentHeader> findHeader(Long id, Long userId) {
+        return jdbcTemplate.query(
+                "SELECT a.id, a.course_id, a.title, a.description, COALESCE(a.passing_score, 70), " +
+                "a.time_limit_minutes, COALESCE(a.is_published, false), a.version, " +
+                "EXISTS (SELECT 1 FROM enrollments e WHERE e.course_id = a.course_id AND e.student_id = ?) " +
+                "FROM assessments a WHERE a.id = ?",
+                (rs, rowNum) -> new AssessmentHeader(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                        rs.getString(4), rs.getInt(5), (Integer) rs.getObject(6), rs.getBoolean(7), rs.getInt(8),
+                        rs.getBoolean(9)),
+                userId, id).stream().findFirst();
+    }
+    
+    /**
+     * Records the attempt as the student's next one, or nothing when they
+     * have already made {@code maxAttempts}. A concurrent submission taking
+     * the same number fails with a DuplicateKeyException.
+     */
+    public Optional<AssessmentAttemptRow> saveAttempt(Long assessmentId, Long studentId, int version,
+                                                      GradeResult result, int maxAttempts) {
+        return jdbcTemplate.query(
+                "INSERT INTO assessment_attempts (assessment_id, student_id, attempt_number, assessment_version, " +
+                "points_earned, points_possible, score, passed, correct_count, review_points) " +
+                "SELECT ?, ?, COALESCE(MAX(attempt_number), 0) + 1, ?, ?, ?, ?, ?, ?, ? " +
+                "FROM assessment_attempts WHERE assessment_id = ? AND student_id = ? " +
+                "HAVING COALESCE(MAX(attempt_number), 0) < ? " +
+                "RETURNING id, attempt_number",
+                (rs, rowNum) -> new AssessmentAttemptRow(rs.getLong(1), rs.getInt(2)),
+                assessmentId, studentId, version, result.pointsEarned(), result.pointsPossible(), result.score(),
+                result.passed(), result.correctCount(), result.reviewPoints(), assessmentId, studentId, maxAttempts)
+                .stream().findFirst();
+    }
+    
+    // Newest first along the (student_id, submitted_at) index
+    public List<RecentResultRow> findRecentResults(Long studentId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT c.id, c.title, a.id, a.title, t.score, t.passed, t.submitted_at " +
+                "FROM assessment_attempts t JOIN assessments a ON a.id = t.assessment_id " +
+                "JOIN courses c ON c.id = a.course_id " +
+                "WHERE t.student_id = ? ORDER BY t.submitted_at DESC, t.id DESC LIMIT ?",
+                (rs, rowNum) -> new RecentResultRow(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4),
+                        rs.getInt(5), rs.getBoolean(6), rs.getTimestamp(7).toLocalDateTime()),
+                studentId, limit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.repository.projection.CourseAnalyticsDay;
+import com.dharma.education.repository.projection.CourseAnalyticsTotals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads of the course analytics rollups and the full rebuild of a range of
+ * courses. The rollups are otherwise maintained by the triggers created in
+ * V16, so nothing in the application writes them incrementally.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CourseAnalyticsJdbcRepository {
+    
+    private static final String REBUILD_TOTALS =
+            "UPDATE course_analytics a SET " +
+            "enrolled_count = COALESCE(e.enrolled, 0), completed_count = COALESCE(e.completed, 0), " +
+            "progress_sum = COALESCE(e.progress_sum, 0), modules_completed = COALESCE(p.modules_completed, 0), " +
+            "score_sum = COALESCE(p.score_sum, 0), score_count = COALESCE(p.score_count, 0), " +
+            "time_spent_seconds = COALESCE(p.seconds, 0), updated_at = now() " +
+            "FROM course_analytics t " +
+            "LEFT JOIN (" +
+            "    SELECT course_id, COUNT(*) AS enrolled, COUNT(completed_at) AS completed," +
+            "    SUM(COALESCE(progress, 0)) AS progress_sum" +
+            "    FROM enrollments WHERE course_id BETWEEN ? AND ? GROUP BY course_id" +
+            ") e ON e.course_id = t.course_id " +
+            "LEFT JOIN (" +
+            "    SELECT course_id, COUNT(completed_at) AS modules_completed, SUM(COALESCE(score, 0)) AS score_sum," +
+            "    COUNT(score) AS score_count, SUM(time_spent_seconds) AS seconds" +
+            "    FROM student_progress WHERE course_id BETWEEN ? AND ? GROUP BY course_id" +
+            ") p ON p.course_id = t.course_id " +
+            "WHERE a.course_id = t.course_id AND t.course_id BETWEEN ? AND ?";
+    
+    // Only the columns derivable from the base tables are rebuilt; daily
+    // active learners and time spent are history kept as it was recorded
+    private static final String REBUILD_DAILY =
+            "WITH derived AS (" +
+            "    SELECT course_id, activity_date, SUM(enrollments) AS enrollments, SUM(completions) AS completions," +
+            "    SUM(modules) AS modules, SUM(learners) AS learners FROM (" +
+            "        SELECT course_id, enrolled_at::date AS activity_date, 1 AS enrollments, 0 AS completions," +
+            "        0 AS modules, 0 AS learners" +
+            "        FROM enrollments WHERE course_id BETWEEN ? AND ? AND enrolled_at IS NOT NULL" +
+            "        UNION ALL" +
+            "        SELECT course_id, completed_at::date, 0, 1, 0, 0" +
+            "        FROM enrollments WHERE course_id BETWEEN ? AND ? AND completed_at IS NOT NULL" +
+            "        UNION ALL" +
+            "        SELECT course_id, completed_at::date, 0, 0, 1, 0" +
+            "        FROM student_progress WHERE course_id BETWEEN ? AND ? AND completed_at IS NOT NULL" +
+            "        UNION ALL" +
+            "        SELECT course_id, last_active_date, 0, 0, 0, 1" +
+            "        FROM course_learner_activity WHERE course_id BETWEEN ? AND ?" +
+            "    ) facts GROUP BY course_id, activity_date" +
+            "), existing AS (" +
+            "    SELECT course_id, activity_date FROM course_analytics_daily WHERE course_id BETWEEN ? AND ?" +
+            ") " +
+            "INSERT INTO course_analytics_daily AS d (course_id, activity_date, new_enrollments, completions, " +
+            "modules_completed, last_active_learners) " +
+            "SELECT COALESCE(dr.course_id, ex.course_id), COALESCE(dr.activity_date, ex.activity_date), " +
+            "COALESCE(dr.enrollments, 0), COALESCE(dr.completions, 0), COALESCE(dr.modules, 0), " +
+            "COALESCE(dr.learners, 0) " +
+            "FROM derived dr FULL JOIN existing ex " +
+            "ON ex.course_id = dr.course_id AND ex.activity_date = dr.activity_date " +
+            "ORDER BY 1, 2 " +
+            "ON CONFLICT (course_id, activity_date) DO UPDATE SET " +
+            "new_enrollments = EXCLUDED.new_enrollments, completions = EXCLUDED.completions, " +
+            "modules_completed = EXCLUDED.modules_completed, last_active_learners = EXCLUDED.last_active_learners";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public Optional<CourseAnalyticsTotals> findTotals(Long courseId) {
+        return jdbcTemplate.query(
+                "SELECT enrolled_count, completed_count, progress_sum, modules_completed, score_sum, " +
+                "score_count, time_spent_seconds FROM course_analytics WHERE course_id = ?",
+                (rs, rowNum) -> new CourseAnalyticsTotals(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3),
+                        rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)),
+                courseId).stream().findFirst();
+    }
+    
+    /**
+     * Daily rows for the course from {@code since} onwards, oldest first.
+     * Days without any activity have no row.
+     */
+    public List<CourseAnalyticsDay> findDaily(Long courseId, LocalDate since) {
+        return jdbcTemplate.query(
+                "SELECT activity_date, new_enrollments, completions, modules_completed, active_learners, " +
+                "last_active_learners, time_spent_seconds FROM course_analytics_daily " +
+                "WHERE course_id = ? AND activity_date >= ? ORDER BY activity_date",
+                (rs, rowNum) -> new CourseAnalyticsDay(rs.getDate(1).toLocalDate(), rs.getInt(2), rs.getInt(3),
+                        rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getLong(7)),
+                courseId, since);
+    }
+    
+    /**
+     * The database's current date, which the V16 triggers stamp daily rows
+     * with; the application's clock and zone may disagree with it.
+     */
+    public LocalDate currentDate() {
+        return jdbcTemplate.queryForObject("SELECT current_date", LocalDate.class);
+    }
+    
+    public List<Long> findAllCourseIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM courses ORDER BY id", Long.class);
+    }
+    
+    /**
+     * Recomputes the rollups of every course with an id in the given range.
+     * The range's course_analytics rows are locked first, so trigger updates
+     * from concurrent writes wait and are applied on top of the rebuilt
+     * figures instead of being overwritten by them.
+     */
+    @Transactional
+    public void rebuild(long fromCourseId, long toCourseId) {
+        jdbcTemplate.update(
+                "INSERT INTO course_analytics (course_id) SELECT id FROM courses WHERE id BETWEEN ? AND ? " +
+                "ORDER BY id ON CONFLICT (course_id) DO NOTHING",
+                fromCourseId, toCourseId);
+        jdbcTemplate.queryForList(
+                "SELECT course_id FROM course_analytics WHERE course_id BETWEEN ? AND ? " +
+                "ORDER BY course_id FOR UPDATE",
+                Long.class, fromCourseId, toCourseId);
+        jdbcTemplate.update(REBUILD_TOTALS, range(fromCourseId, toCourseId, 3));
+        jdbcTemplate.update(REBUILD_DAILY, range(fromCourseId, toCourseId, 5));
+    }
+    
+    private static Object[] range(long from, long to, int times) {
+        Object[] args = new Object[times * 2];
+        for (int i = 0; i < times; i++) {
+            args[i * 2] = from;
+            args[i * 2 + 1] = to;
+        }
+        return args;
+    }
+}
\ No newline at end of file
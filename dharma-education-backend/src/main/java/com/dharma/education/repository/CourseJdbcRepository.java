@@ -0,0 +1,56 @@
+package com.dharma.education.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.SortedMap;
+
+/**
+ * Plain JDBC writes to courses that are maintained outside the Course
+ * entity, such as the denormalized enrollment_count and seats_taken columns.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CourseJdbcRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Applies per-course enrollment count deltas in one batch. Rows are
+     * updated in course id order so concurrent flushes from several
+     * instances cannot deadlock.
+     */
+    @Transactional
+    public void addEnrollmentCounts(SortedMap<Long, Long> deltas) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE courses SET enrollment_count = enrollment_count + ? WHERE id = ?",
+                new ArrayList<>(deltas.entrySet()), deltas.size(),
+                (ps, delta) -> {
+                    ps.setLong(1, delta.getValue());
+                    ps.setLong(2, delta.getKey());
+                });
+    }
+    
+    /**
+     * Resets enrollment_count, and seats_taken on capped courses, to the
+     * actual number of enrollments for every course where they differ,
+     * skipping courses with enrollments newer than {@code quietSince} whose
+     * increments may still be pending in memory.
+     */
+    @Transactional
+    public int reconcileEnrollmentCounts(LocalDateTime quietSince) {
+        return jdbcTemplate.update(
+                "UPDATE courses c SET enrollment_count = n.total, " +
+                "seats_taken = CASE WHEN c.seat_capacity IS NULL THEN c.seats_taken ELSE n.total END " +
+                "FROM (SELECT c2.id, (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c2.id) AS total " +
+                "FROM courses c2) n " +
+                "WHERE n.id = c.id " +
+                "AND (c.enrollment_count <> n.total OR (c.seat_capacity IS NOT NULL AND c.seats_taken <> n.total)) " +
+                "AND NOT EXISTS (SELECT 1 FROM enrollments e WHERE e.course_id = c.id AND e.enrolled_at > ?)",
+                quietSince);
+    }
+}
\ No newline at end of file
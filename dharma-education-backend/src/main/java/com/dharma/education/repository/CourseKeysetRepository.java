@@ -0,0 +1,18 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.dto.request.CourseSortKey;
+import com.dharma.education.repository.projection.CourseRow;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface CourseKeysetRepository {
+    
+    /**
+     * Loads up to {@code limit} active courses ordered by {@code (key, id)}
+     * that come strictly after the given position, or from the start when
+     * {@code afterId} is null. Issues no count query.
+     */
+    List<CourseRow> findActiveCoursesAfter(CourseSortKey key, Sort.Direction direction, String category,
+                                           Object afterValue, Long afterId, int limit);
+}
\ No newline at end of file
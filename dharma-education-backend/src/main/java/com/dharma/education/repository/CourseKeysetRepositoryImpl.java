@@ -0,0 +1,51 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.dto.request.CourseSortKey;
+import com.dharma.education.repository.projection.CourseRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+class CourseKeysetRepositoryImpl implements CourseKeysetRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<CourseRow> findActiveCoursesAfter(CourseSortKey key, Sort.Direction direction, String category,
+                                                  Object afterValue, Long afterId, int limit) {
+        String property = "c." + key.getProperty();
+        String order = direction.isAscending() ? "ASC" : "DESC";
+        
+        StringBuilder jpql = new StringBuilder(CourseRepository.COURSE_ROW)
+                .append("WHERE c.isActive = true ");
+        if (category != null) {
+            jpql.append("AND c.category = :category ");
+        }
+        if (afterId != null) {
+            // (key, id) > (:afterValue, :afterId) spelled out, since HQL rejects ordered tuple
+            // comparisons; the inclusive bound on key alone starts the index range scan at the cursor
+            String inclusive = direction.isAscending() ? ">=" : "<=";
+            String exclusive = direction.isAscending() ? ">" : "<";
+            jpql.append("AND ").append(property).append(' ').append(inclusive).append(" :afterValue ")
+                .append("AND (").append(property).append(' ').append(exclusive).append(" :afterValue ")
+                .append("OR c.id ").append(exclusive).append(" :afterId) ");
+        }
+        jpql.append("ORDER BY ").append(property).append(' ').append(order)
+            .append(", c.id ").append(order);
+        
+        TypedQuery<CourseRow> query = entityManager.createQuery(jpql.toString(), CourseRow.class)
+                .setMaxResults(limit);
+        if (category != null) {
+            query.setParameter("category", category);
+        }
+        if (afterId != null) {
+            query.setParameter("afterValue", afterValue);
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+}
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.dharma.education.repository;
 
 import com.dharma.education.entity.Course;
 import com.dharma.education.entity.User;
+import com.dharma.education.repository.projection.CourseRow;
+import com.dharma.education.repository.projection.CourseSuggestionView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,21 +11,51 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Long> {
+public interface CourseRepository extends JpaRepository<Course, Long>, CourseKeysetRepository {
     
     @Query("SELECT c FROM Course c WHERE c.isActive = true")
     Page<Course> findAllActive(Pageable pageable);
     
-    @Query("SELECT c FROM Course c WHERE c.isActive = true AND " +
-           "(:category IS NULL OR c.category = :category) AND " +
-           "(:search IS NULL OR LOWER(c.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(c.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Course> findActiveCoursesWithFilters(@Param("category") String category, 
-                                             @Param("search") String search, 
-                                             Pageable pageable);
+    // Course and teacher in one statement; the enrollment count is the
+    // denormalized column, so enrollments are never loaded just to be sized.
+    String COURSE_ROW = "SELECT new com.dharma.education.repository.projection.CourseRow(c, t) " +
+                        "FROM Course c LEFT JOIN c.teacher t ";
+    
+    @Query(value = COURSE_ROW +
+                   "WHERE c.isActive = true AND (:category IS NULL OR c.category = :category)",
+           countQuery = "SELECT COUNT(c) FROM Course c WHERE c.isActive = true AND " +
+                        "(:category IS NULL OR c.category = :category)")
+    Page<CourseRow> findActiveCoursesWithFilters(@Param("category") String category, 
+                                                Pageable pageable);
+    
+    @Query(COURSE_ROW + "WHERE c.id IN :ids")
+    List<CourseRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Full-text search over the weighted search_vector column (title ranked
+    // above description) maintained by trg_courses_search_vector. Returns ids
+    // in relevance order; rows are loaded with findRowsByIdIn.
+    @Query(value = "SELECT c.id FROM courses c, websearch_to_tsquery('english', :search) q " +
+                   "WHERE c.is_active = true AND " +
+                   "(CAST(:category AS VARCHAR) IS NULL OR c.category = :category) AND " +
+                   "c.search_vector @@ q " +
+                   "ORDER BY ts_rank_cd(c.search_vector, q) DESC, c.id DESC",
+           countQuery = "SELECT COUNT(*) FROM courses c " +
+                        "WHERE c.is_active = true AND " +
+                        "(CAST(:category AS VARCHAR) IS NULL OR c.category = :category) AND " +
+                        "c.search_vector @@ websearch_to_tsquery('english', :search)",
+           nativeQuery = true)
+    Page<Long> searchActiveCourseIds(@Param("category") String category,
+                                     @Param("search") String search,
+                                     Pageable pageable);
+    
+    @Query("SELECT c.id AS id, c.title AS title, c.category AS category, " +
+           "c.enrollmentCount AS enrollmentCount " +
+           "FROM Course c WHERE c.isActive = true")
+    List<CourseSuggestionView> findActiveSuggestionViews();
     
     List<Course> findByTeacherAndIsActiveTrue(User teacher);
     
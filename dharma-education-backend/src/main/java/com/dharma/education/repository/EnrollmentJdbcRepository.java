@@ -0,0 +1,203 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.repository.projection.BulkEnrollmentRow;
+import com.dharma.education.repository.projection.EnrollmentAttempt;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Enrollment writes that have to be atomic under concurrency: the
+ * idempotent single enrollment upsert, seat reservation against
+ * courses.seat_capacity, the waitlist, and bulk enrollment. Each operation
+ * is one statement so no check-then-insert window exists; duplicates are
+ * absorbed by ON CONFLICT on the UNIQUE(student_id, course_id) constraint.
+ * seats_taken is only maintained while a course has a seat_capacity.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EnrollmentJdbcRepository {
+    
+    // Reserves a seat only when the course is capped, the student is not yet
+    // enrolled and a seat is free; the UPDATE re-checks seats_taken against the
+    // latest row version, so concurrent reservations cannot oversell
+    private static final String ENROLL =
+            "WITH course AS (" +
+            "    SELECT id, seat_capacity FROM courses WHERE id = ? AND is_active = true" +
+            "), existing AS (" +
+            "    SELECT 1 FROM enrollments WHERE course_id = ? AND student_id = ?" +
+            "), seat AS (" +
+            "    UPDATE courses c SET seats_taken = c.seats_taken + 1 FROM course" +
+            "    WHERE c.id = course.id AND c.seat_capacity IS NOT NULL" +
+            "    AND c.seats_taken < c.seat_capacity AND NOT EXISTS (SELECT 1 FROM existing)" +
+            "    RETURNING c.id" +
+            "), inserted AS (" +
+            "    INSERT INTO enrollments (student_id, course_id, progress, enrolled_at, updated_at)" +
+            "    SELECT ?, course.id, 0, now(), now() FROM course" +
+            "    WHERE course.seat_capacity IS NULL OR EXISTS (SELECT 1 FROM seat)" +
+            "    ON CONFLICT (student_id, course_id) DO NOTHING" +
+            "    RETURNING id" +
+            "), dequeued AS (" +
+            "    DELETE FROM course_waitlist WHERE course_id = ? AND student_id = ?" +
+            "    AND EXISTS (SELECT 1 FROM inserted)" +
+            ") " +
+            "SELECT EXISTS (SELECT 1 FROM course), EXISTS (SELECT 1 FROM inserted), " +
+            "EXISTS (SELECT 1 FROM existing), EXISTS (SELECT 1 FROM seat)";
+    
+    // The course row is locked up front so the free seat count used for the
+    // LIMIT stays exact until the statement commits
+    private static final String BULK_ENROLL =
+            "WITH course AS (" +
+            "    SELECT id, seat_capacity, seats_taken FROM courses WHERE id = ? AND is_active = true FOR UPDATE" +
+            "), requested AS (" +
+            "    SELECT r.student_id, MIN(r.ord) AS ord" +
+            "    FROM unnest(?::bigint[]) WITH ORDINALITY AS r(student_id, ord) GROUP BY r.student_id" +
+            "), students AS (" +
+            "    SELECT q.student_id, q.ord FROM requested q" +
+            "    JOIN users u ON u.id = q.student_id AND u.role = 'STUDENT' AND u.is_active = true" +
+            "), eligible AS (" +
+            "    SELECT s.student_id, s.ord FROM students s, course c" +
+            "    WHERE NOT EXISTS (SELECT 1 FROM enrollments e WHERE e.course_id = c.id AND e.student_id = s.student_id)" +
+            "), admitted AS (" +
+            "    SELECT el.student_id FROM eligible el ORDER BY el.ord" +
+            "    LIMIT (SELECT CASE WHEN seat_capacity IS NULL THEN NULL" +
+            "           ELSE GREATEST(seat_capacity - seats_taken, 0) END FROM course)" +
+            "), inserted AS (" +
+            "    INSERT INTO enrollments (student_id, course_id, progress, enrolled_at, updated_at)" +
+            "    SELECT a.student_id, c.id, 0, now(), now() FROM admitted a, course c" +
+            "    ON CONFLICT (student_id, course_id) DO NOTHING" +
+            "    RETURNING student_id" +
+            "), seats AS (" +
+            "    UPDATE courses c SET seats_taken = c.seats_taken + (SELECT COUNT(*) FROM inserted) FROM course" +
+            "    WHERE c.id = course.id AND course.seat_capacity IS NOT NULL" +
+            "), queued AS (" +
+            "    INSERT INTO course_waitlist (course_id, student_id, created_at)" +
+            "    SELECT c.id, el.student_id, now() FROM eligible el, course c" +
+            "    WHERE el.student_id NOT IN (SELECT student_id FROM admitted) ORDER BY el.ord" +
+            "    ON CONFLICT (course_id, student_id) DO NOTHING" +
+            "), dequeued AS (" +
+            "    DELETE FROM course_waitlist w USING inserted i, course c" +
+            "    WHERE w.course_id = c.id AND w.student_id = i.student_id" +
+            ") " +
+            "SELECT q.student_id, CASE" +
+            "    WHEN i.student_id IS NOT NULL THEN 'ENROLLED'" +
+            "    WHEN s.student_id IS NULL THEN 'REJECTED'" +
+            "    WHEN el.student_id IS NULL OR a.student_id IS NOT NULL THEN 'ALREADY_ENROLLED'" +
+            "    ELSE 'WAITLISTED' END " +
+            "FROM requested q CROSS JOIN course " +
+            "LEFT JOIN students s ON s.student_id = q.student_id " +
+            "LEFT JOIN eligible el ON el.student_id = q.student_id " +
+            "LEFT JOIN admitted a ON a.student_id = q.student_id " +
+            "LEFT JOIN inserted i ON i.student_id = q.student_id " +
+            "ORDER BY q.ord";
+    
+    // Returns the 1-based queue position whether or not the student was already
+    // waiting, or 0 when an enrollment committed since the student found the course full
+    private static final String JOIN_WAITLIST =
+            "WITH enrolled AS (" +
+            "    SELECT 1 FROM enrollments WHERE course_id = ? AND student_id = ?" +
+            "), joined AS (" +
+            "    INSERT INTO course_waitlist (course_id, student_id, created_at)" +
+            "    SELECT ?, ?, now() WHERE NOT EXISTS (SELECT 1 FROM enrolled)" +
+            "    ON CONFLICT (course_id, student_id) DO NOTHING" +
+            "    RETURNING id, created_at" +
+            "), me AS (" +
+            "    SELECT id, created_at FROM joined" +
+            "    UNION ALL" +
+            "    SELECT id, created_at FROM course_waitlist WHERE course_id = ? AND student_id = ?" +
+            ") " +
+            "SELECT CASE WHEN EXISTS (SELECT 1 FROM enrolled) THEN 0 ELSE (" +
+            "    SELECT COUNT(w.id) + 1 FROM me LEFT JOIN course_waitlist w ON w.course_id = ?" +
+            "    AND (w.created_at < me.created_at OR (w.created_at = me.created_at AND w.id < me.id))" +
+            ") END";
+    
+    // Moves the head of the waitlist into the seats left free by the capacity,
+    // dropping entries for students who have meanwhile enrolled
+    private static final String PROMOTE_WAITLIST =
+            "WITH course AS (" +
+            "    SELECT id, seat_capacity, seats_taken FROM courses WHERE id = ?" +
+            "), promoted AS (" +
+            "    DELETE FROM course_waitlist w WHERE w.id IN (" +
+            "        SELECT n.id FROM course_waitlist n, course c WHERE n.course_id = c.id" +
+            "        AND NOT EXISTS (SELECT 1 FROM enrollments e WHERE e.course_id = c.id AND e.student_id = n.student_id)" +
+            "        ORDER BY n.created_at, n.id" +
+            "        LIMIT (SELECT CASE WHEN seat_capacity IS NULL THEN NULL" +
+            "               ELSE GREATEST(seat_capacity - seats_taken, 0) END FROM course))" +
+            "    OR (w.course_id = ? AND EXISTS (SELECT 1 FROM enrollments e" +
+            "        WHERE e.course_id = w.course_id AND e.student_id = w.student_id))" +
+            "    RETURNING w.student_id, w.course_id" +
+            "), inserted AS (" +
+            "    INSERT INTO enrollments (student_id, course_id, progress, enrolled_at, updated_at)" +
+            "    SELECT p.student_id, p.course_id, 0, now(), now() FROM promoted p" +
+            "    ON CONFLICT (student_id, course_id) DO NOTHING" +
+            "    RETURNING student_id" +
+            "), seats AS (" +
+            "    UPDATE courses c SET seats_taken = c.seats_taken + (SELECT COUNT(*) FROM inserted) FROM course" +
+            "    WHERE c.id = course.id AND course.seat_capacity IS NOT NULL" +
+            ") " +
+            "SELECT student_id FROM inserted";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Enrolls a student in one statement. On a capped course a seat is
+     * reserved atomically first; when none is free nothing is written.
+     */
+    public EnrollmentAttempt enroll(Long courseId, Long studentId) {
+        return jdbcTemplate.queryForObject(ENROLL,
+                (rs, rowNum) -> new EnrollmentAttempt(rs.getBoolean(1), rs.getBoolean(2),
+                        rs.getBoolean(3), rs.getBoolean(4)),
+                courseId, courseId, studentId, studentId, courseId, studentId);
+    }
+    
+    public void releaseSeat(Long courseId) {
+        jdbcTemplate.update(
+                "UPDATE courses SET seats_taken = seats_taken - 1 " +
+                "WHERE id = ? AND seat_capacity IS NOT NULL AND seats_taken > 0",
+                courseId);
+    }
+    
+    /**
+     * Adds the student to the course's waitlist if not already on it and
+     * returns their position in the queue, or 0 if they are enrolled.
+     */
+    public int joinWaitlist(Long courseId, Long studentId) {
+        Integer position = jdbcTemplate.queryForObject(JOIN_WAITLIST, Integer.class,
+                courseId, studentId, courseId, studentId, courseId, studentId, courseId);
+        return position != null ? position : 0;
+    }
+    
+    /**
+     * Enrolls many students in one statement, in request order, filling free
+     * seats first and queueing the rest on the waitlist of a capped course.
+     * Returns one row per distinct requested id, or none if the course is not
+     * active.
+     */
+    public List<BulkEnrollmentRow> bulkEnroll(Long courseId, Collection<Long> studentIds) {
+        return jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(BULK_ENROLL);
+                    ps.setLong(1, courseId);
+                    ps.setArray(2, connection.createArrayOf("bigint", studentIds.toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> new BulkEnrollmentRow(rs.getLong(1), rs.getString(2)));
+    }
+    
+    /**
+     * Recounts seats_taken for a course whose seat_capacity was just changed
+     * and promotes waitlisted students into any seats that are now free.
+     * Must run in the transaction that changed the capacity so the course row
+     * stays locked. Returns the promoted student ids.
+     */
+    public List<Long> applySeatCapacity(Long courseId) {
+        jdbcTemplate.update(
+                "UPDATE courses c SET seats_taken = " +
+                "(SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id) WHERE c.id = ?",
+                courseId);
+        return jdbcTemplate.queryForList(PROMOTE_WAITLIST, Long.class, courseId, courseId);
+    }
+}
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.dharma.education.repository;
 import com.dharma.education.entity.Enrollment;
 import com.dharma.education.entity.User;
 import com.dharma.education.entity.Course;
+import com.dharma.education.repository.projection.EnrolledCourseRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,8 +24,19 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     @Query("SELECT e FROM Enrollment e WHERE e.student.id = :studentId")
     List<Enrollment> findByStudentId(@Param("studentId") Long studentId);
     
+    // One statement for the whole dashboard regardless of how many courses the student has
+    @Query("SELECT new com.dharma.education.repository.projection.EnrolledCourseRow(" +
+           "c, t, e.progress, e.enrolledAt, e.completedAt) " +
+           "FROM Enrollment e JOIN e.course c LEFT JOIN c.teacher t " +
+           "WHERE e.student.id = :studentId " +
+           "ORDER BY e.enrolledAt DESC, e.id DESC")
+    List<EnrolledCourseRow> findEnrolledCourseRows(@Param("studentId") Long studentId);
+    
     @Query("SELECT COUNT(e) FROM Enrollment e WHERE e.course.id = :courseId")
     Long countByCourseId(@Param("courseId") Long courseId);
     
     boolean existsByStudentAndCourse(User student, Course course);
+    
+    @Query("SELECT COUNT(e) > 0 FROM Enrollment e WHERE e.student.id = :studentId AND e.course.id = :courseId")
+    boolean isEnrolled(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.repository.projection.ModuleContentBody;
+import com.dharma.education.repository.projection.ModuleContentInfo;
+import com.dharma.education.repository.projection.ModuleOutlineRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Module outlines and lesson content. Content lives in module_contents so
+ * that outline reads never load it, and each body is read only in the one
+ * encoding being sent.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LearningModuleJdbcRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public List<ModuleOutlineRow> findPublishedOutline(Long courseId) {
+        return jdbcTemplate.query(
+                "SELECT id, title, order_index, duration_minutes FROM learning_modules " +
+                "WHERE course_id = ? AND is_published = true ORDER BY order_index, id",
+                (rs, rowNum) -> new ModuleOutlineRow(rs.getLong(1), rs.getString(2),
+                        (Integer) rs.getObject(3), (Integer) rs.getObject(4)),
+                courseId);
+    }
+    
+    public Optional<Long> findCourseId(Long moduleId) {
+        return jdbcTemplate.queryForList(
+                "SELECT course_id FROM learning_modules WHERE id = ?", Long.class, moduleId)
+                .stream().findFirst();
+    }
+    
+    /**
+     * The module's course, publication state and content metadata, or empty
+     * when the module does not exist or has no content.
+     */
+    public Optional<ModuleContentInfo> findContentInfo(Long moduleId) {
+        return jdbcTemplate.query(
+                "SELECT m.id, m.course_id, COALESCE(m.is_published, false), c.body_length, c.gzip_length, c.etag " +
+                "FROM learning_modules m JOIN module_contents c ON c.module_id = m.id WHERE m.id = ?",
+                (rs, rowNum) -> new ModuleContentInfo(rs.getLong(1), rs.getLong(2), rs.getBoolean(3),
+                        rs.getInt(4), (Integer) rs.getObject(5), rs.getString(6)),
+                moduleId).stream().findFirst();
+    }
+    
+    /**
+     * The body as UTF-8 bytes, or its gzip form when {@code gzip} is set,
+     * together with the ETag of the body read. The bytes are null when the
+     * gzip form was asked for but not computed yet.
+     */
+    public Optional<ModuleContentBody> findBody(Long moduleId, boolean gzip) {
+        // convert_to hands over the stored bytes without decoding them into a String first
+        return jdbcTemplate.query(
+                "SELECT CASE WHEN ? THEN body_gzip ELSE convert_to(body, 'UTF8') END, etag " +
+                "FROM module_contents WHERE module_id = ?",
+                (rs, rowNum) -> new ModuleContentBody(rs.getBytes(1), rs.getString(2)),
+                gzip, moduleId).stream().findFirst();
+    }
+    
+    public void saveContent(Long moduleId, String body, int bodyLength, byte[] gzip, String etag) {
+        jdbcTemplate.update(
+                "INSERT INTO module_contents (module_id, body, body_length, body_gzip, gzip_length, etag, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, now()) " +
+                "ON CONFLICT (module_id) DO UPDATE SET body = EXCLUDED.body, body_length = EXCLUDED.body_length, " +
+                "body_gzip = EXCLUDED.body_gzip, gzip_length = EXCLUDED.gzip_length, etag = EXCLUDED.etag, " +
+                "updated_at = EXCLUDED.updated_at",
+                moduleId, body, bodyLength, gzip, gzip.length, etag);
+    }
+    
+    /**
+     * Stores the compressed form of a body that has none yet. Does nothing
+     * if it was compressed, or replaced by a save, in the meantime.
+     */
+    public void saveCompressed(Long moduleId, byte[] gzip, String etag) {
+        jdbcTemplate.update(
+                "UPDATE module_contents SET body_gzip = ?, gzip_length = ?, etag = ? " +
+                "WHERE module_id = ? AND etag IS NULL",
+                gzip, gzip.length, etag, moduleId);
+    }
+}
\ No newline at end of file
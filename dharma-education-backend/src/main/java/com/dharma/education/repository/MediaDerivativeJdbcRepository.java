@@ -0,0 +1,111 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.repository.projection.ImageSourceRow;
+import com.dharma.education.repository.projection.MediaDerivativeRow;
+import com.dharma.education.repository.projection.MediaFileRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Image derivatives, kept per blob so files sharing content share them too.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MediaDerivativeJdbcRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public Optional<ImageSourceRow> findSource(Long mediaFileId) {
+        return jdbcTemplate.query(
+                "SELECT b.id, b.storage_key, b.size, f.media_type, b.derivatives_status " +
+                "FROM media_files f JOIN media_blobs b ON b.id = f.blob_id WHERE f.id = ?",
+                (rs, rowNum) -> new ImageSourceRow(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4),
+                        rs.getString(5)),
+                mediaFileId).stream().findFirst();
+    }
+    
+    public Optional<String> findStatus(long blobId) {
+        return jdbcTemplate.query("SELECT derivatives_status FROM media_blobs WHERE id = ?",
+                (rs, rowNum) -> Optional.ofNullable(rs.getString(1)), blobId)
+                .stream().findFirst().flatMap(status -> status);
+    }
+    
+    // Shaped like the file itself, so it is served the same way
+    public Optional<MediaFileRow> findDerivative(Long mediaFileId, String variant) {
+        return jdbcTemplate.query(
+                "SELECT f.id, regexp_replace(d.storage_key, '^.*/', ''), f.original_filename, d.content_type, " +
+                "d.size, d.storage_key, d.created_at, f.uploaded_by, f.course_id, f.is_public FROM media_files f " +
+                "JOIN media_derivatives d ON d.blob_id = f.blob_id AND d.variant = ? WHERE f.id = ?",
+                (rs, rowNum) -> new MediaFileRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getLong(5), rs.getString(6), null, rs.getTimestamp(7).toLocalDateTime(),
+                        (Long) rs.getObject(8), (Long) rs.getObject(9), rs.getBoolean(10)),
+                variant, mediaFileId).stream().findFirst();
+    }
+    
+    /**
+     * Records the blob's derivatives and marks it processed in one statement.
+     * Returns false, recording nothing, when the blob has been deleted
+     * meanwhile.
+     */
+    public boolean saveDerivatives(long blobId, List<MediaDerivativeRow> derivatives, String status) {
+        String[] variants = new String[derivatives.size()];
+        String[] keys = new String[derivatives.size()];
+        String[] contentTypes = new String[derivatives.size()];
+        Integer[] widths = new Integer[derivatives.size()];
+        Integer[] heights = new Integer[derivatives.size()];
+        Long[] sizes = new Long[derivatives.size()];
+        for (int i = 0; i < derivatives.size(); i++) {
+            MediaDerivativeRow derivative = derivatives.get(i);
+            variants[i] = derivative.getVariant();
+            keys[i] = derivative.getStorageKey();
+            contentTypes[i] = derivative.getContentType();
+            widths[i] = derivative.getWidth();
+            heights[i] = derivative.getHeight();
+            sizes[i] = derivative.getSize();
+        }
+        List<Long> saved = jdbcTemplate.query(
+                "WITH blob AS (" +
+                "    UPDATE media_blobs SET derivatives_status = ? WHERE id = ? RETURNING id" +
+                "), saved AS (" +
+                "    INSERT INTO media_derivatives (blob_id, variant, storage_key, content_type, width, height, size) " +
+                "    SELECT blob.id, d.variant, d.storage_key, d.content_type, d.width, d.height, d.size FROM blob, " +
+                "    unnest(?::varchar[], ?::text[], ?::varchar[], ?::int[], ?::int[], ?::bigint[]) " +
+                "    AS d(variant, storage_key, content_type, width, height, size) " +
+                "    ON CONFLICT (blob_id, variant) DO NOTHING" +
+                ") " +
+                "SELECT count(*) FROM blob",
+                ps -> {
+                    ps.setString(1, status);
+                    ps.setLong(2, blobId);
+                    ps.setArray(3, ps.getConnection().createArrayOf("varchar", variants));
+                    ps.setArray(4, ps.getConnection().createArrayOf("text", keys));
+                    ps.setArray(5, ps.getConnection().createArrayOf("varchar", contentTypes));
+                    ps.setArray(6, ps.getConnection().createArrayOf("int4", widths));
+                    ps.setArray(7, ps.getConnection().createArrayOf("int4", heights));
+                    ps.setArray(8, ps.getConnection().createArrayOf("int8", sizes));
+                },
+                (rs, rowNum) -> rs.getLong(1));
+        return saved.get(0) > 0;
+    }
+    
+    public void markStatus(long blobId, String status) {
+        jdbcTemplate.update("UPDATE media_blobs SET derivatives_status = ? WHERE id = ?", status, blobId);
+    }
+    
+    /**
+     * Counts a failed run of the blob, marking it with {@code status} once
+     * {@code maxAttempts} runs have failed. Returns whether it was marked.
+     */
+    public boolean recordFailedAttempt(long blobId, int maxAttempts, String status) {
+        List<Boolean> marked = jdbcTemplate.query(
+                "UPDATE media_blobs SET derivative_attempts = derivative_attempts + 1, " +
+                "derivatives_status = CASE WHEN derivative_attempts + 1 >= ? THEN ? ELSE derivatives_status END " +
+                "WHERE id = ? RETURNING derivatives_status IS NOT NULL",
+                (rs, rowNum) -> rs.getBoolean(1), maxAttempts, status, blobId);
+        return !marked.isEmpty() && marked.get(0);
+    }
+}
\ No newline at end of file
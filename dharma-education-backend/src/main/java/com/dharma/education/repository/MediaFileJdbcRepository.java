@@ -0,0 +1,122 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.repository.projection.MediaFileRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Media files and the content-addressed blobs holding their bytes. A blob's
+ * ref_count is changed in the same statement that adds or removes a file
+ * using it, so it always equals the number of such files.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MediaFileJdbcRepository {
+    
+    /**
+     * Inserts a media file for the row of a preceding {@code blob} CTE, if it
+     * returned one. Takes the original filename, content type, size, media
+     * type, uploader and course, and leaves the new id in {@code file}.
+     */
+    static final String INSERT_FILE_FOR_BLOB =
+            "next AS (SELECT nextval('media_files_id_seq') AS id), file AS (" +
+            "    INSERT INTO media_files (id, filename, original_filename, file_type, file_size, blob_id, " +
+            "    media_type, uploaded_by, course_id, file_url) " +
+            "    SELECT next.id, regexp_replace(blob.storage_key, '^.*/', ''), ?, ?, ?, blob.id, ?, ?, ?, " +
+            "    '/api/media/' || next.id || '/content' FROM next, blob RETURNING id" +
+            ") ";
+    
+    // Takes a reference to an existing blob, unless the sweeper has already claimed it
+    static final String REFERENCE_BLOB =
+            "blob AS (" +
+            "    UPDATE media_blobs SET ref_count = ref_count + 1 WHERE content_hash = ? AND size = ? " +
+            "    RETURNING id, storage_key" +
+            ") ";
+    
+    // As above, but only a blob one of the given user's files already uses
+    private static final String REFERENCE_OWN_BLOB =
+            "blob AS (" +
+            "    UPDATE media_blobs b SET ref_count = ref_count + 1 WHERE content_hash = ? AND size = ? " +
+            "    AND EXISTS (SELECT 1 FROM media_files f WHERE f.blob_id = b.id AND f.uploaded_by = ?) " +
+            "    RETURNING id, storage_key" +
+            ") ";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Only files whose bytes are in storage; rows from before uploads existed have no blob
+    public Optional<MediaFileRow> findStored(Long id) {
+        return jdbcTemplate.query(
+                "SELECT f.id, f.filename, f.original_filename, f.file_type, b.size, b.storage_key, b.content_hash, " +
+                "f.created_at, f.uploaded_by, f.course_id, f.is_public " +
+                "FROM media_files f JOIN media_blobs b ON b.id = f.blob_id WHERE f.id = ?",
+                (rs, rowNum) -> new MediaFileRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getLong(5), rs.getString(6), rs.getString(7),
+                        rs.getTimestamp(8) != null ? rs.getTimestamp(8).toLocalDateTime() : null,
+                        (Long) rs.getObject(9), (Long) rs.getObject(10), rs.getBoolean(11)),
+                id).stream().findFirst();
+    }
+    
+    /**
+     * Creates a media file sharing the stored blob with this content hash and
+     * size, when another of the uploader's files already uses it. Returns the
+     * new id, or empty when there is no such blob. A hash alone proves nothing
+     * about having the bytes, so other users' blobs are only shared once the
+     * server has hashed an upload itself.
+     */
+    public Optional<Long> createFromBlob(String contentHash, long size, String originalFilename, String contentType,
+                                         String mediaType, long uploadedBy, Long courseId) {
+        return jdbcTemplate.queryForList(
+                "WITH " + REFERENCE_OWN_BLOB + ", " + INSERT_FILE_FOR_BLOB + "SELECT id FROM file",
+                Long.class, contentHash, size, uploadedBy, originalFilename, contentType, size, mediaType, uploadedBy, courseId)
+                .stream().findFirst();
+    }
+    
+    /**
+     * Makes the file public, when it was uploaded by one of the given users.
+     * Used for files put on public pages, such as course covers.
+     */
+    public void makePublic(Long id, Long uploadedBy, Long otherUploader) {
+        jdbcTemplate.update(
+                "UPDATE media_files SET is_public = true WHERE id = ? AND uploaded_by IN (?, ?) AND NOT is_public",
+                id, uploadedBy, otherUploader);
+    }
+    
+    /**
+     * Deletes the file, when it was uploaded by the given user or any user is
+     * allowed, and releases its blob for the sweeper to remove once nothing
+     * uses it. Returns false when no such file was deleted.
+     */
+    public boolean delete(Long id, Long uploadedBy, boolean anyUploader) {
+        return jdbcTemplate.queryForObject(
+                "WITH file AS (" +
+                "    DELETE FROM media_files WHERE id = ? AND (? OR uploaded_by = ?) RETURNING blob_id" +
+                "), released AS (" +
+                "    UPDATE media_blobs SET ref_count = ref_count - 1 WHERE id = (SELECT blob_id FROM file)" +
+                ") " +
+                "SELECT count(*) FROM file",
+                Long.class, id, anyUploader, uploadedBy) > 0;
+    }
+    
+    /**
+     * Deletes up to {@code limit} blobs no file uses, with their derivatives,
+     * and returns the storage keys of both. Each row is rechecked under its
+     * lock, so a blob referenced again meanwhile is kept, and one deleted
+     * here can no longer be referenced.
+     */
+    public List<String> deleteOrphanedBlobs(int limit) {
+        // The outer query still sees the derivative rows the cascade removes
+        return jdbcTemplate.queryForList(
+                "WITH gone AS (" +
+                "    DELETE FROM media_blobs WHERE id IN (" +
+                "        SELECT id FROM media_blobs WHERE ref_count = 0 ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED" +
+                "    ) AND ref_count = 0 RETURNING id, storage_key" +
+                ") " +
+                "SELECT storage_key FROM gone " +
+                "UNION ALL SELECT d.storage_key FROM media_derivatives d JOIN gone ON gone.id = d.blob_id",
+                String.class, limit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.repository.projection.MediaUploadPart;
+import com.dharma.education.repository.projection.MediaUploadRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Resumable upload sessions and the parts received for each. Every write is
+ * a single statement outside any transaction, so no connection is held while
+ * a chunk streams in.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MediaUploadJdbcRepository {
+    
+    private static final String SELECT_UPLOAD =
+            "SELECT id, uploaded_by, course_id, original_filename, content_type, total_size, chunk_size, " +
+            "storage_key, storage_upload_id, status, media_file_id, content_hash, updated_at FROM media_uploads ";
+    
+    private static final RowMapper<MediaUploadRow> UPLOAD_MAPPER = (rs, rowNum) -> new MediaUploadRow(
+            rs.getLong(1), rs.getLong(2), (Long) rs.getObject(3), rs.getString(4), rs.getString(5),
+            rs.getLong(6), rs.getInt(7), rs.getString(8), rs.getString(9), rs.getString(10),
+            (Long) rs.getObject(11), rs.getString(12), rs.getTimestamp(13).toLocalDateTime());
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public long create(long uploadedBy, Long courseId, String originalFilename, String contentType,
+                       long totalSize, int chunkSize, String storageKey, String storageUploadId, String status,
+                       String contentHash) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO media_uploads (uploaded_by, course_id, original_filename, content_type, total_size, " +
+                "chunk_size, storage_key, storage_upload_id, status, content_hash) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING id",
+                Long.class, uploadedBy, courseId, originalFilename, contentType, totalSize, chunkSize,
+                storageKey, storageUploadId, status, contentHash);
+    }
+    
+    public Optional<MediaUploadRow> findById(long uploadId) {
+        return jdbcTemplate.query(SELECT_UPLOAD + "WHERE id = ?", UPLOAD_MAPPER, uploadId).stream().findFirst();
+    }
+    
+    public List<MediaUploadPart> findParts(long uploadId) {
+        return jdbcTemplate.query(
+                "SELECT part_number, size, part_tag, block_hashes FROM media_upload_parts " +
+                "WHERE upload_id = ? ORDER BY part_number",
+                (rs, rowNum) -> new MediaUploadPart(rs.getInt(1), rs.getLong(2), rs.getString(3), rs.getBytes(4)),
+                uploadId);
+    }
+    
+    /**
+     * Records a stored part and marks the upload active. Returns false, and
+     * records nothing, when the upload is no longer in the given status.
+     */
+    public boolean savePart(long uploadId, String status, int partNumber, long size, String partTag,
+                            byte[] blockHashes) {
+        return jdbcTemplate.update(
+                "WITH touched AS (" +
+                "    UPDATE media_uploads SET updated_at = now() WHERE id = ? AND status = ? RETURNING id" +
+                ") " +
+                "INSERT INTO media_upload_parts (upload_id, part_number, size, part_tag, block_hashes) " +
+                "SELECT id, ?, ?, ?, ? FROM touched " +
+                "ON CONFLICT (upload_id, part_number) DO UPDATE SET size = EXCLUDED.size, " +
+                "part_tag = EXCLUDED.part_tag, block_hashes = EXCLUDED.block_hashes",
+                uploadId, status, partNumber, size, partTag, blockHashes) > 0;
+    }
+    
+    // Compare-and-set on the status, so only one caller wins a transition
+    public boolean transition(long uploadId, String from, String to) {
+        return jdbcTemplate.update(
+                "UPDATE media_uploads SET status = ?, updated_at = now() WHERE id = ? AND status = ?",
+                to, uploadId, from) > 0;
+    }
+    
+    /**
+     * Completes the upload as a media file sharing the stored blob with this
+     * content hash, in one statement. Returns the media file id, or empty,
+     * changing nothing, when no such blob exists.
+     */
+    public Optional<Long> completeFromBlob(MediaUploadRow upload, String contentHash, String mediaType,
+                                           String status) {
+        return jdbcTemplate.queryForList(
+                "WITH " + MediaFileJdbcRepository.REFERENCE_BLOB + ", " + MediaFileJdbcRepository.INSERT_FILE_FOR_BLOB +
+                "UPDATE media_uploads SET status = ?, content_hash = ?, media_file_id = (SELECT id FROM file), " +
+                "updated_at = now() WHERE id = ? AND EXISTS (SELECT 1 FROM file) RETURNING media_file_id",
+                Long.class, contentHash, upload.getTotalSize(), upload.getOriginalFilename(), upload.getContentType(),
+                upload.getTotalSize(), mediaType, upload.getUploadedBy(), upload.getCourseId(),
+                status, contentHash, upload.getId()).stream().findFirst();
+    }
+    
+    /**
+     * Records the assembled upload as a blob and creates its media file in
+     * one statement, so a crash cannot leave one without the other. When a
+     * blob with the same content hash appeared meanwhile the file uses that
+     * one instead, and the upload's own object is left unreferenced. Returns
+     * the media file id.
+     */
+    public long completeWithNewBlob(MediaUploadRow upload, String contentHash, String mediaType, String status) {
+        return jdbcTemplate.queryForObject(
+                "WITH blob AS (" +
+                "    INSERT INTO media_blobs (content_hash, size, storage_key, ref_count) VALUES (?, ?, ?, 1) " +
+                "    ON CONFLICT (content_hash) DO UPDATE SET ref_count = media_blobs.ref_count + 1 " +
+                "    RETURNING id, storage_key" +
+                "), " + MediaFileJdbcRepository.INSERT_FILE_FOR_BLOB +
+                "UPDATE media_uploads SET status = ?, content_hash = ?, media_file_id = (SELECT id FROM file), " +
+                "updated_at = now() WHERE id = ? RETURNING media_file_id",
+                Long.class, contentHash, upload.getTotalSize(), upload.getStorageKey(), upload.getOriginalFilename(),
+                upload.getContentType(), upload.getTotalSize(), mediaType, upload.getUploadedBy(), upload.getCourseId(),
+                status, contentHash, upload.getId());
+    }
+    
+    public List<MediaUploadRow> findIdle(List<String> statuses, LocalDateTime idleSince, int limit) {
+        return jdbcTemplate.query(
+                SELECT_UPLOAD + "WHERE status = ANY (?) AND updated_at < ? ORDER BY updated_at LIMIT ?",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("varchar", statuses.toArray()));
+                    ps.setObject(2, idleSince);
+                    ps.setInt(3, limit);
+                },
+                UPLOAD_MAPPER);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.repository.projection.ChildRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Links between parent accounts and the students they follow.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ParentStudentJdbcRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public List<ChildRow> findChildren(Long parentId) {
+        return jdbcTemplate.query(
+                "SELECT u.id, u.first_name, u.last_name, u.grade_level " +
+                "FROM parent_students ps JOIN users u ON u.id = ps.student_id " +
+                "WHERE ps.parent_id = ? AND u.is_active = true ORDER BY u.id",
+                (rs, rowNum) -> new ChildRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)),
+                parentId);
+    }
+    
+    // Returns false when the link already existed
+    public boolean link(Long parentId, Long studentId) {
+        return jdbcTemplate.update(
+                "INSERT INTO parent_students (parent_id, student_id, created_at) VALUES (?, ?, now()) " +
+                "ON CONFLICT (parent_id, student_id) DO NOTHING",
+                parentId, studentId) > 0;
+    }
+    
+    public boolean unlink(Long parentId, Long studentId) {
+        return jdbcTemplate.update(
+                "DELETE FROM parent_students WHERE parent_id = ? AND student_id = ?",
+                parentId, studentId) > 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.repository.projection.ModuleHeader;
+import com.dharma.education.repository.projection.ProgressSummaryRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based writes of coalesced progress heartbeats. A batch is applied as a
+ * single upsert into student_progress, after which enrollments.progress is
+ * recomputed only for the enrollments that gained a completed module. Also
+ * holds the reads behind the teacher's progress matrix and the parent
+ * dashboard.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StudentProgressJdbcRepository {
+    
+    // Deltas for modules outside the student's enrollments find no row to join and are dropped
+    private static final String UPSERT =
+            "WITH batch AS (" +
+            "    SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::int[], ?::timestamp[])" +
+            "    AS b(student_id, module_id, seconds, completed_at)" +
+            ") " +
+            "INSERT INTO student_progress (student_id, course_id, module_id, time_spent_seconds, " +
+            "time_spent_minutes, completed_at, created_at, updated_at) " +
+            "SELECT b.student_id, m.course_id, b.module_id, b.seconds, b.seconds / 60, " +
+            "b.completed_at, now(), now() " +
+            "FROM batch b JOIN learning_modules m ON m.id = b.module_id " +
+            "JOIN enrollments e ON e.course_id = m.course_id AND e.student_id = b.student_id " +
+            "ORDER BY b.student_id, b.module_id " +
+            "ON CONFLICT (student_id, module_id) DO UPDATE SET " +
+            "time_spent_seconds = student_progress.time_spent_seconds + EXCLUDED.time_spent_seconds, " +
+            "time_spent_minutes = (student_progress.time_spent_seconds + EXCLUDED.time_spent_seconds) / 60, " +
+            "completed_at = COALESCE(student_progress.completed_at, EXCLUDED.completed_at), " +
+            "updated_at = now() " +
+            "RETURNING student_id, module_id, course_id";
+    
+    // Progress is the percentage of the course's published modules completed
+    private static final String RECOMPUTE_ENROLLMENT_PROGRESS =
+            "UPDATE enrollments e SET " +
+            "progress = CASE WHEN t.total = 0 THEN e.progress ELSE ROUND(100.0 * t.done / t.total, 2) END, " +
+            "completed_at = CASE WHEN t.total > 0 AND t.done >= t.total " +
+            "THEN COALESCE(e.completed_at, now()) ELSE e.completed_at END, " +
+            "updated_at = now() " +
+            "FROM (" +
+            "    SELECT p.student_id, p.course_id," +
+            "    (SELECT COUNT(*) FROM learning_modules m" +
+            "     WHERE m.course_id = p.course_id AND m.is_published = true) AS total," +
+            "    (SELECT COUNT(*) FROM student_progress sp JOIN learning_modules m ON m.id = sp.module_id" +
+            "     WHERE sp.student_id = p.student_id AND sp.course_id = p.course_id" +
+            "     AND sp.completed_at IS NOT NULL AND m.is_published = true) AS done" +
+            "    FROM unnest(?::bigint[], ?::bigint[]) AS p(student_id, course_id)" +
+            ") t " +
+            "WHERE e.student_id = t.student_id AND e.course_id = t.course_id";
+    
+    private static final int MATRIX_FETCH_SIZE = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Applies a batch of deltas, which must hold at most one entry per
+     * (student, module). Returns the number of progress rows written.
+     */
+    @Transactional
+    public int applyProgress(List<ProgressDelta> deltas) {
+        // (student, module) -> course for every row the upsert wrote
+        Map<List<Long>, Long> writtenCourses = new HashMap<>();
+        jdbcTemplate.query(connection -> upsert(connection, deltas), rs -> {
+            writtenCourses.put(List.of(rs.getLong(1), rs.getLong(2)), rs.getLong(3));
+        });
+        
+        Set<List<Long>> completedEnrollments = new LinkedHashSet<>();
+        for (ProgressDelta delta : deltas) {
+            Long courseId = writtenCourses.get(List.of(delta.studentId(), delta.moduleId()));
+            if (delta.completedAt() != null && courseId != null) {
+                completedEnrollments.add(List.of(delta.studentId(), courseId));
+            }
+        }
+        if (!completedEnrollments.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(RECOMPUTE_ENROLLMENT_PROGRESS);
+                ps.setArray(1, connection.createArrayOf("bigint",
+                        completedEnrollments.stream().map(pair -> pair.get(0)).toArray()));
+                ps.setArray(2, connection.createArrayOf("bigint",
+                        completedEnrollments.stream().map(pair -> pair.get(1)).toArray()));
+                return ps;
+            });
+        }
+        return writtenCourses.size();
+    }
+    
+    /**
+     * Published modules of the course in display order.
+     */
+    public List<ModuleHeader> findPublishedModules(Long courseId) {
+        return jdbcTemplate.query(
+                "SELECT id, title FROM learning_modules WHERE course_id = ? AND is_published = true " +
+                "ORDER BY order_index, id",
+                (rs, rowNum) -> new ModuleHeader(rs.getLong(1), rs.getString(2)),
+                courseId);
+    }
+    
+    /**
+     * Streams one row per (enrolled student, progress row) of the course,
+     * grouped by student in id order; students without progress come back
+     * once with a null module_id. Columns: student_id, name, module_id,
+     * completed, score. Must run in a transaction so the driver reads
+     * through a cursor instead of loading the whole result.
+     */
+    public void streamProgressMatrix(Long courseId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT e.student_id, u.first_name || ' ' || u.last_name, sp.module_id, " +
+                    "sp.completed_at IS NOT NULL, sp.score " +
+                    "FROM enrollments e JOIN users u ON u.id = e.student_id " +
+                    "LEFT JOIN student_progress sp ON sp.course_id = ? AND sp.student_id = e.student_id " +
+                    "WHERE e.course_id = ? ORDER BY e.student_id");
+            ps.setFetchSize(MATRIX_FETCH_SIZE);
+            ps.setLong(1, courseId);
+            ps.setLong(2, courseId);
+            return ps;
+        }, handler);
+    }
+    
+    public ProgressSummaryRow findProgressSummary(Long studentId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(completed_at), COALESCE(SUM(time_spent_seconds), 0), MAX(updated_at) " +
+                "FROM student_progress WHERE student_id = ?",
+                (rs, rowNum) -> {
+                    Timestamp lastActiveAt = rs.getTimestamp(3);
+                    return new ProgressSummaryRow(rs.getLong(1), rs.getLong(2),
+                            lastActiveAt != null ? lastActiveAt.toLocalDateTime() : null);
+                },
+                studentId);
+    }
+    
+    private static PreparedStatement upsert(Connection connection, List<ProgressDelta> deltas) throws SQLException {
+        List<Long> students = new ArrayList<>(deltas.size());
+        List<Long> modules = new ArrayList<>(deltas.size());
+        List<Integer> seconds = new ArrayList<>(deltas.size());
+        List<Timestamp> completedAt = new ArrayList<>(deltas.size());
+        for (ProgressDelta delta : deltas) {
+            students.add(delta.studentId());
+            modules.add(delta.moduleId());
+            seconds.add(delta.seconds());
+            completedAt.add(delta.completedAt() != null ? Timestamp.valueOf(delta.completedAt()) : null);
+        }
+        
+        PreparedStatement ps = connection.prepareStatement(UPSERT);
+        ps.setArray(1, connection.createArrayOf("bigint", students.toArray()));
+        ps.setArray(2, connection.createArrayOf("bigint", modules.toArray()));
+        ps.setArray(3, connection.createArrayOf("integer", seconds.toArray()));
+        ps.setArray(4, connection.createArrayOf("timestamp", completedAt.toArray()));
+        return ps;
+    }
+    
+    /**
+     * Progress accumulated for one (student, module) since the last flush.
+     * Time adds up and the first completion wins.
+     */
+    public record ProgressDelta(long studentId, long moduleId, int seconds, LocalDateTime completedAt) {
+        
+        public ProgressDelta plus(ProgressDelta other) {
+            return new ProgressDelta(studentId, moduleId,
+                    (int) Math.min((long) seconds + other.seconds, Integer.MAX_VALUE),
+                    completedAt != null ? completedAt : other.completedAt);
+        }
+    }
+}
\ No newline at end of file
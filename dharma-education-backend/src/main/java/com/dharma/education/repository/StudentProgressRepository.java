@@ -0,0 +1,21 @@
+package com.dharma.education.repository;
+
+import com.dharma.education.entity.StudentProgress;
+import com.dharma.education.repository.projection.ModuleProgressRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StudentProgressRepository extends JpaRepository<StudentProgress, Long> {
+    
+    @Query("SELECT new com.dharma.education.repository.projection.ModuleProgressRow(" +
+           "m.id, m.title, m.orderIndex, sp.completedAt, sp.score, sp.timeSpentSeconds) " +
+           "FROM LearningModule m LEFT JOIN StudentProgress sp ON sp.module = m AND sp.student.id = :studentId " +
+           "WHERE m.course.id = :courseId AND m.isPublished = true " +
+           "ORDER BY m.orderIndex, m.id")
+    List<ModuleProgressRow> findModuleProgress(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+}
\ No newline at end of file
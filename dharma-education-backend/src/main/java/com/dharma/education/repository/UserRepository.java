@@ -1,17 +1,31 @@
 package com.dharma.education.repository;
 
 import com.dharma.education.entity.User;
+import com.dharma.education.repository.projection.UserStatusView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Resolved on every login; cached until the users table changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    Optional<UserStatusView> findStatusById(Long id);
+    
     @Query("SELECT u FROM User u WHERE u.role = ?1 AND u.isActive = true")
     java.util.List<User> findByRoleAndActiveTrue(User.Role role);
 }
\ No newline at end of file
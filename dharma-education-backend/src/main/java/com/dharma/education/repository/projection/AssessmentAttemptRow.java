@@ -0,0 +1,15 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A recorded attempt and its number among the student's attempts at the
+ * assessment, counting from 1.
+ */
+@Getter
+@AllArgsConstructor
+public class AssessmentAttemptRow {
+    private final long id;
+    private final int attemptNumber;
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An assessment without its questions, with whether a given user is
+ * enrolled in its course, which is all a submission needs to be checked.
+ */
+@Getter
+@AllArgsConstructor
+public class AssessmentHeader {
+    private final long id;
+    private final long courseId;
+    private final String title;
+    private final String description;
+    private final int passingScore;
+    private final Integer timeLimitMinutes;
+    private final boolean published;
+    private final int version;
+    private final boolean enrolled;
+}
\ No newline at end of file
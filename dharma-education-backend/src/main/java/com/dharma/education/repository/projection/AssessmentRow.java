@@ -0,0 +1,23 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class AssessmentRow {
+    private final long id;
+    private final long courseId;
+    private final String title;
+    private final String description;
+    // The raw JSON as saved
+    private final String questions;
+    private final int passingScore;
+    private final Integer timeLimitMinutes;
+    private final boolean published;
+    private final int version;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+}
\ No newline at end of file
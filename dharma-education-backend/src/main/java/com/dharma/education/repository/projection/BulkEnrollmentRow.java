@@ -0,0 +1,16 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The outcome of a bulk enrollment for one requested student: ENROLLED,
+ * ALREADY_ENROLLED, WAITLISTED or REJECTED when the id is not an active
+ * student.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkEnrollmentRow {
+    private final Long studentId;
+    private final String outcome;
+}
\ No newline at end of file
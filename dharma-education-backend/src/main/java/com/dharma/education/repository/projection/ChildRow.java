@@ -0,0 +1,13 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ChildRow {
+    private final Long studentId;
+    private final String firstName;
+    private final String lastName;
+    private final String gradeLevel;
+}
\ No newline at end of file
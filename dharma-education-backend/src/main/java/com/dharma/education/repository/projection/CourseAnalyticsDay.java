@@ -0,0 +1,19 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class CourseAnalyticsDay {
+    private final LocalDate activityDate;
+    private final int newEnrollments;
+    private final int completions;
+    private final int modulesCompleted;
+    private final int activeLearners;
+    // Learners whose most recent activity fell on this day
+    private final int lastActiveLearners;
+    private final long timeSpentSeconds;
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Running totals for one course from course_analytics. Averages are derived
+ * from these sums by the service.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseAnalyticsTotals {
+    private final long enrolledCount;
+    private final long completedCount;
+    private final BigDecimal progressSum;
+    private final long modulesCompleted;
+    private final long scoreSum;
+    private final long scoreCount;
+    private final long timeSpentSeconds;
+}
\ No newline at end of file
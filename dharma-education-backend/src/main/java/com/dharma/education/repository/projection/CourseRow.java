@@ -0,0 +1,17 @@
+package com.dharma.education.repository.projection;
+
+import com.dharma.education.entity.Course;
+import com.dharma.education.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A course with its teacher, loaded by a single statement so building a
+ * CourseResponse never touches a lazy association.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseRow {
+    private final Course course;
+    private final User teacher;
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.dharma.education.repository.projection;
+
+public interface CourseSuggestionView {
+    Long getId();
+    String getTitle();
+    String getCategory();
+    Long getEnrollmentCount();
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.dharma.education.repository.projection;
+
+import com.dharma.education.entity.Course;
+import com.dharma.education.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A course a student is enrolled in, with its teacher and the student's own
+ * enrollment state, loaded for all of the student's enrollments at once.
+ */
+@Getter
+@AllArgsConstructor
+public class EnrolledCourseRow {
+    private final Course course;
+    private final User teacher;
+    private final Double progress;
+    private final LocalDateTime enrolledAt;
+    private final LocalDateTime completedAt;
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What a single enrollment upsert did. A seat can be reserved without an
+ * enrollment being inserted when the same student enrolls twice at once;
+ * the caller then has to give the seat back.
+ */
+@Getter
+@AllArgsConstructor
+public class EnrollmentAttempt {
+    private final boolean courseFound;
+    private final boolean enrolled;
+    private final boolean alreadyEnrolled;
+    private final boolean seatReserved;
+}
\ No newline at end of file
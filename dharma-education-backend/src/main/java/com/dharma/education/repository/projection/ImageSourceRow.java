@@ -0,0 +1,15 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ImageSourceRow {
+    private final long blobId;
+    private final String storageKey;
+    private final long size;
+    private final String mediaType;
+    // READY or FAILED once processed, null before
+    private final String derivativesStatus;
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MediaDerivativeRow {
+    private final String variant;
+    private final String storageKey;
+    private final String contentType;
+    private final int width;
+    private final int height;
+    private final long size;
+}
\ No newline at end of file
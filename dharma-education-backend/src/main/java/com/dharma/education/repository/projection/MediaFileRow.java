@@ -0,0 +1,23 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class MediaFileRow {
+    private final long id;
+    private final String filename;
+    private final String originalFilename;
+    private final String fileType;
+    private final long fileSize;
+    private final String storageKey;
+    private final String contentHash;
+    private final LocalDateTime createdAt;
+    // Who may see it: see MediaDownloadService
+    private final Long uploadedBy;
+    private final Long courseId;
+    private final boolean publicAccess;
+}
\ No newline at end of file
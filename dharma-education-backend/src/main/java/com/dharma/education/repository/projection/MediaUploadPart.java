@@ -0,0 +1,14 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MediaUploadPart {
+    private final int partNumber;
+    private final long size;
+    private final String partTag;
+    // SHA-256 of each 4 MiB block of the part, concatenated; null for parts stored before hashing
+    private final byte[] blockHashes;
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class MediaUploadRow {
+    private final long id;
+    private final long uploadedBy;
+    private final Long courseId;
+    private final String originalFilename;
+    private final String contentType;
+    private final long totalSize;
+    private final int chunkSize;
+    private final String storageKey;
+    private final String storageUploadId;
+    private final String status;
+    private final Long mediaFileId;
+    // Declared by the client when started, then the hash of what was received
+    private final String contentHash;
+    private final LocalDateTime updatedAt;
+    
+    public int getChunkCount() {
+        return (int) ((totalSize + chunkSize - 1) / chunkSize);
+    }
+    
+    // Every chunk is chunkSize bytes except the last, which holds the rest
+    public long chunkLength(int index) {
+        return Math.min(chunkSize, totalSize - (long) index * chunkSize);
+    }
+}
\ No newline at end of file
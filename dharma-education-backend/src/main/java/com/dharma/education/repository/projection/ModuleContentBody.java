@@ -0,0 +1,11 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ModuleContentBody {
+    private final byte[] bytes;
+    private final String etag;
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Everything about a module's content except the content itself. The gzip
+ * fields and ETag are null until the body has been compressed.
+ */
+@Getter
+@AllArgsConstructor
+public class ModuleContentInfo {
+    private final long moduleId;
+    private final long courseId;
+    private final boolean published;
+    private final int bodyLength;
+    private final Integer gzipLength;
+    private final String etag;
+    
+    public boolean isCompressed() {
+        return etag != null;
+    }
+}
\ No newline at end of file
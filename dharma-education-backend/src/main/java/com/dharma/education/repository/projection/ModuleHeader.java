@@ -0,0 +1,11 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ModuleHeader {
+    private final long id;
+    private final String title;
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ModuleOutlineRow {
+    private final long id;
+    private final String title;
+    private final Integer orderIndex;
+    private final Integer durationMinutes;
+}
\ No newline at end of file
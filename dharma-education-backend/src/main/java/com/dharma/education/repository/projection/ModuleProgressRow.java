@@ -0,0 +1,21 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A published module of a course with the student's stored progress on it;
+ * the progress fields are null when the student has not opened the module.
+ */
+@Getter
+@AllArgsConstructor
+public class ModuleProgressRow {
+    private final Long moduleId;
+    private final String title;
+    private final Integer orderIndex;
+    private final LocalDateTime completedAt;
+    private final Integer score;
+    private final Integer timeSpentSeconds;
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class ProgressSummaryRow {
+    private final long modulesCompleted;
+    private final long timeSpentSeconds;
+    private final LocalDateTime lastActiveAt;
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.dharma.education.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A graded assessment attempt, most recent first.
+ */
+@Getter
+@AllArgsConstructor
+public class RecentResultRow {
+    private final Long courseId;
+    private final String courseTitle;
+    private final Long assessmentId;
+    private final String assessmentTitle;
+    private final Integer score;
+    private final boolean passed;
+    private final LocalDateTime submittedAt;
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.dharma.education.repository.projection;
+
+import com.dharma.education.entity.User;
+
+public interface UserStatusView {
+    Long getId();
+    User.Role getRole();
+    Boolean getIsActive();
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.dharma.education.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Signs media URLs so audio, video and image elements, which cannot send a
+ * bearer token, can load private media. A signature is an HMAC-SHA256 over
+ * the media file id and an expiry time, and is only handed out to users
+ * allowed to see the file. Expiry times are rounded up to a whole window,
+ * so URLs issued for the same file close together are identical and the
+ * browser can reuse what it has cached.
+ */
+@Component
+public class MediaUrlSigner {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final long WINDOW_SECONDS = 300;
+    
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    
+    public MediaUrlSigner(@Value("${app.mediaUrlSecret:${app.jwtSecret:dharmaEducationSecretKey}}") String secret,
+                          @Value("${app.mediaUrlTtlSeconds:3600}") long ttlSeconds) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+    }
+    
+    // In epoch seconds; at least the configured lifetime from now
+    public long newExpiry() {
+        long earliest = System.currentTimeMillis() / 1000 + ttlSeconds;
+        return (earliest + WINDOW_SECONDS - 1) / WINDOW_SECONDS * WINDOW_SECONDS;
+    }
+    
+    public String sign(long mediaFileId, long expires) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal((mediaFileId + ":" + expires).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+    
+    // Whether the signature is one this server made for the file and has not expired
+    public boolean verify(long mediaFileId, Long expires, String signature) {
+        if (expires == null || signature == null || expires <= System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(mediaFileId, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.dharma.education.security;
+
+import com.dharma.education.config.RateLimitProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Rejects excess requests to the configured auth routes with 429 before they
+ * reach the authentication manager. Requests are limited per client IP and,
+ * for JSON bodies carrying an email, per target account. On routes with a
+ * per-account limit a JSON body too large to inspect is refused with 413, so
+ * the account limit cannot be skipped by padding the body.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final int MAX_INSPECTED_BODY_BYTES = 16 * 1024;
+    private static final byte[] TOO_MANY_REQUESTS_BODY = ("{\"status\":429,\"error\":\"Too Many Requests\","
+            + "\"message\":\"Too many requests, please retry later\"}").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_TOO_LARGE_BODY = ("{\"status\":413,\"error\":\"Payload Too Large\","
+            + "\"message\":\"Request body cannot exceed " + MAX_INSPECTED_BODY_BYTES + " bytes\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    
+    private final RateLimitProperties properties;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !properties.getRoutes().containsKey(routeOf(request));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String route = routeOf(request);
+        RateLimitProperties.RouteLimit limit = properties.getRoutes().get(route);
+        
+        if (!rateLimiter.tryAcquire(route + "|ip|" + request.getRemoteAddr(),
+                limit.getIpCapacity(), limit.getIpRefillPerMinute())) {
+            reject(response, limit.getIpRefillPerMinute());
+            return;
+        }
+        
+        if (limit.getEmailCapacity() > 0 && isJson(request)) {
+            CachedBodyRequest cachedRequest = CachedBodyRequest.wrap(request);
+            if (cachedRequest == null) {
+                log.warn("Refused a request body over {} bytes on {}", MAX_INSPECTED_BODY_BYTES, route);
+                write(response, HttpStatus.PAYLOAD_TOO_LARGE, PAYLOAD_TOO_LARGE_BODY);
+                return;
+            }
+            
+            String email = extractEmail(cachedRequest.body);
+            if (email != null && !rateLimiter.tryAcquire(route + "|email|" + email,
+                    limit.getEmailCapacity(), limit.getEmailRefillPerMinute())) {
+                log.warn("Rate limit exceeded for {} on {}", email, route);
+                reject(response, limit.getEmailRefillPerMinute());
+                return;
+            }
+            filterChain.doFilter(cachedRequest, response);
+            return;
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    private static String routeOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+    
+    // Whatever Jackson would read for the controller: application/json and any +json type
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                    || "json".equalsIgnoreCase(mediaType.getSubtypeSuffix());
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+    
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    private void reject(HttpServletResponse response, double refillPerMinute) throws IOException {
+        long retryAfter = refillPerMinute > 0 ? (long) Math.ceil(60.0 / refillPerMinute) : 60;
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        write(response, HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS_BODY);
+    }
+    
+    private static void write(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+    
+    /**
+     * Buffers a small request body so it can be inspected here and read again
+     * by the controller. The whole body is in memory, so a read listener is
+     * told at once that it is all available and read.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+        
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        // Null when the body is larger than can be inspected, whether declared or sent without a length
+        static CachedBodyRequest wrap(HttpServletRequest request) throws IOException {
+            long length = request.getContentLengthLong();
+            if (length > MAX_INSPECTED_BODY_BYTES) {
+                return null;
+            }
+            byte[] body = request.getInputStream().readNBytes(MAX_INSPECTED_BODY_BYTES + 1);
+            if (body.length > MAX_INSPECTED_BODY_BYTES) {
+                return null;
+            }
+            return new CachedBodyRequest(request, body);
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+                
+                @Override
+                public int read() {
+                    return input.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
\ No newline at end of file
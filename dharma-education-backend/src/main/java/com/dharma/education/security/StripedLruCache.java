@@ -0,0 +1,97 @@
+package com.dharma.education.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded least-recently-used map split into independently locked stripes,
+ * each an access-ordered LinkedHashMap holding its share of the capacity.
+ * Threads touching different keys rarely meet on the same monitor, so the
+ * cache does not serialize every request the way a single synchronized LRU
+ * would, while a full stripe still evicts its least recently used entry.
+ */
+final class StripedLruCache<K, V> {
+    
+    private static final int MAX_STRIPES = 64;
+    
+    private final Map<K, V>[] stripes;
+    private final int mask;
+    
+    @SuppressWarnings("unchecked")
+    StripedLruCache(int maxSize) {
+        // Enough stripes to keep the cores apart, but no fewer than 16 entries each
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(
+                Math.min(MAX_STRIPES, 4 * Runtime.getRuntime().availableProcessors()), maxSize / 16)));
+        int stripeSize = Math.max(1, (maxSize + stripeCount - 1) / stripeCount);
+        this.stripes = new Map[stripeCount];
+        this.mask = stripeCount - 1;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > stripeSize;
+                }
+            };
+        }
+    }
+    
+    V get(K key) {
+        Map<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+    
+    void put(K key, V value) {
+        Map<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+    
+    // The key's value, created while the stripe is locked if there is none, evicting the stripe's eldest if full
+    V computeIfAbsent(K key, Function<? super K, ? extends V> create) {
+        Map<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.computeIfAbsent(key, create);
+        }
+    }
+    
+    // Removes the entry only while it is still the given value, so a fresher one is kept
+    void remove(K key, V value) {
+        Map<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.remove(key, value);
+        }
+    }
+    
+    // One stripe locked at a time, so other stripes stay usable while a sweep runs
+    int removeIf(Predicate<? super V> filter) {
+        int removed = 0;
+        for (Map<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                int before = stripe.size();
+                stripe.values().removeIf(filter);
+                removed += before - stripe.size();
+            }
+        }
+        return removed;
+    }
+    
+    int size() {
+        int size = 0;
+        for (Map<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+    
+    private Map<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+}
\ No newline at end of file
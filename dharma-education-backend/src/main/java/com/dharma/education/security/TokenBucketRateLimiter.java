@@ -0,0 +1,96 @@
+package com.dharma.education.security;
+
+import com.dharma.education.config.RateLimitProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token buckets keyed by arbitrary strings, held in a striped LRU of at most
+ * maxKeys entries; each bucket is guarded by its own monitor. Buckets that
+ * have refilled completely carry no state and are swept away. When the
+ * table is full a new key still gets a fresh bucket and the least recently
+ * used one is dropped, so a spray of distinct keys cannot lock out users
+ * who were not tracked yet; at worst it resets the limits of idle keys.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TokenBucketRateLimiter {
+    
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+    
+    private final RateLimitProperties properties;
+    private StripedLruCache<String, Bucket> buckets;
+    
+    @PostConstruct
+    void init() {
+        buckets = new StripedLruCache<>(properties.getMaxKeys());
+    }
+    
+    /**
+     * Takes one token from the bucket for {@code key}. Returns false when the
+     * bucket is empty.
+     */
+    public boolean tryAcquire(String key, int capacity, double refillPerMinute) {
+        if (capacity <= 0) {
+            return true;
+        }
+        
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(key,
+                k -> new Bucket(capacity, refillPerMinute / NANOS_PER_MINUTE, now));
+        return bucket.tryConsume(now);
+    }
+    
+    public int size() {
+        return buckets.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        int removed = buckets.removeIf(bucket -> bucket.isFull(now));
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate limit buckets", removed);
+        }
+    }
+    
+    private static final class Bucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+        
+        Bucket(int capacity, double refillPerNano, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+        
+        synchronized boolean tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return true;
+            }
+            return false;
+        }
+        
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+        
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
\ No newline at end of file
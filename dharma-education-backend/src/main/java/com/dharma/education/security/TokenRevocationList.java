@@ -0,0 +1,107 @@
+package com.dharma.education.security;
+
+import com.dharma.education.entity.RevokedToken;
+import com.dharma.education.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory revocation list for access token ids (jti). A Bloom filter answers
+ * the common "not revoked" case without touching the exact set, and neither
+ * path queries the database. The list is loaded from revoked_tokens at
+ * startup and reloaded periodically, which also drops expired entries and
+ * picks up revocations made by other instances.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TokenRevocationList {
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    
+    @Value("${app.revocationExpectedTokens:100000}")
+    private int expectedTokens;
+    
+    @Value("${app.revocationFalsePositiveRate:0.001}")
+    private double falsePositiveRate;
+    
+    private volatile Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    
+    @PostConstruct
+    void init() {
+        reload();
+    }
+    
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+    
+    @Transactional
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()))
+                .build());
+        
+        synchronized (this) {
+            revoked.put(tokenId, expiresAt.getTime());
+            filter.put(tokenId);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.revocationReloadIntervalMs:60000}",
+               initialDelayString = "${app.revocationReloadIntervalMs:60000}")
+    @Transactional
+    public void purgeAndReload() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired revoked tokens", purged);
+        }
+        reload();
+    }
+    
+    private void reload() {
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now());
+        
+        Map<String, Long> entries = new ConcurrentHashMap<>();
+        for (RevokedToken token : active) {
+            entries.put(token.getTokenId(),
+                    token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            revoked.forEach((tokenId, expiresAt) -> {
+                if (expiresAt > now) {
+                    entries.putIfAbsent(tokenId, expiresAt);
+                }
+            });
+            
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, entries.size() * 2), falsePositiveRate);
+            entries.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+            revoked = entries;
+        }
+    }
+}
\ No newline at end of file
@@ -14,13 +14,22 @@ public class UserPrincipal implements UserDetails {
     private String password;
     private User.Role role;
     private boolean isActive;
+    private String firstName;
+    private String lastName;
     
     public UserPrincipal(Long id, String email, String password, User.Role role, boolean isActive) {
+        this(id, email, password, role, isActive, null, null);
+    }
+    
+    public UserPrincipal(Long id, String email, String password, User.Role role, boolean isActive,
+                         String firstName, String lastName) {
         this.id = id;
         this.email = email;
         this.password = password;
         this.role = role;
         this.isActive = isActive;
+        this.firstName = firstName;
+        this.lastName = lastName;
     }
     
     public static UserPrincipal create(User user) {
@@ -29,7 +38,9 @@ public class UserPrincipal implements UserDetails {
                 user.getEmail(),
                 user.getPassword(),
                 user.getRole(),
-                user.getIsActive()
+                user.getIsActive(),
+                user.getFirstName(),
+                user.getLastName()
         );
     }
     
@@ -41,6 +52,14 @@ public class UserPrincipal implements UserDetails {
         return role;
     }
     
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+    
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
@@ -0,0 +1,70 @@
+package com.dharma.education.security;
+
+import com.dharma.education.entity.User;
+import com.dharma.education.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL-based cache of each user's current role and active flag.
+ * JWT claims are checked against it so deactivation and role changes take
+ * effect within one TTL while the database is only read on a miss. Nothing
+ * in the application changes an existing user's role or active flag, so
+ * changes made in the database are picked up by expiry rather than eviction.
+ * When full, the least recently used user makes room for the new one.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserStatusCache {
+    
+    private final UserRepository userRepository;
+    
+    @Value("${app.userStatusCacheTtlMs:30000}")
+    private long ttlMs;
+    
+    @Value("${app.userStatusCacheMaxSize:100000}")
+    private int maxSize;
+    
+    private StripedLruCache<Long, Entry> entries;
+    
+    @PostConstruct
+    void init() {
+        entries = new StripedLruCache<>(maxSize);
+    }
+    
+    public boolean isCurrent(UserPrincipal principal) {
+        Entry entry = get(principal.getId());
+        return entry != null
+                && entry.active()
+                && entry.role() == principal.getRole();
+    }
+    
+    private Entry get(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry;
+        }
+        
+        Entry loaded = userRepository.findStatusById(userId)
+                .map(status -> new Entry(status.getRole(),
+                        Boolean.TRUE.equals(status.getIsActive()), now + ttlMs))
+                .orElse(null);
+        if (loaded == null) {
+            if (entry != null) {
+                entries.remove(userId, entry);
+            }
+            return null;
+        }
+        
+        entries.put(userId, loaded);
+        return loaded;
+    }
+    
+    private record Entry(User.Role role, boolean active, long expiresAt) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.dharma.education.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Bounded LRU of recently verified tokens, keyed by a SHA-256 digest of the
+ * compact token so raw bearer tokens are never held in memory. Entries are
+ * dropped once the token they belong to has expired. The digest is taken
+ * outside any lock and the entries are striped, so concurrent requests
+ * rarely contend.
+ */
+class VerifiedTokenCache {
+    
+    private final StripedLruCache<String, Entry> entries;
+    
+    VerifiedTokenCache(int maxSize) {
+        this.entries = new StripedLruCache<>(maxSize);
+    }
+    
+    Claims get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.claims();
+    }
+    
+    void put(String token, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        entries.put(digest(token), new Entry(claims, claims.getExpiration().getTime()));
+    }
+    
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private record Entry(Claims claims, long expiresAt) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,269 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.request.AssessmentRequest;
+import com.dharma.education.dto.response.AssessmentAttemptResponse;
+import com.dharma.education.dto.response.AssessmentResponse;
+import com.dharma.education.exception.BadRequestException;
+import com.dharma.education.exception.ResourceNotFoundException;
+import com.dharma.education.grading.AssessmentCompiler;
+import com.dharma.education.grading.CompiledAssessment;
+import com.dharma.education.grading.GradeResult;
+import com.dharma.education.repository.AssessmentJdbcRepository;
+import com.dharma.education.repository.projection.AssessmentAttemptRow;
+import com.dharma.education.repository.projection.AssessmentHeader;
+import com.dharma.education.repository.projection.AssessmentRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assessments and their grading. A published assessment's questions are
+ * compiled once into a {@link CompiledAssessment} and kept in memory against
+ * the assessment's version, so a submission costs one small header read,
+ * a pass over primitive arrays and one insert, with no question JSON read or
+ * parsed. Saving an assessment bumps its version and drops the compiled form
+ * here; other instances see the newer version in the header and recompile.
+ *
+ * <p>Questions are compiled when saved too, so a question bank that could
+ * not be graded is refused then, not when students submit.
+ *
+ * <p>Every graded attempt reveals a score, so students get a limited number
+ * of them per assessment; otherwise changing one answer per submission would
+ * uncover the answer key.
+ */
+@Service
+@Slf4j
+public class AssessmentService {
+    
+    private static final int DEFAULT_PASSING_SCORE = 70;
+    
+    private final AssessmentJdbcRepository assessmentJdbcRepository;
+    private final CourseService courseService;
+    private final ObjectMapper objectMapper;
+    private final AssessmentCompiler compiler;
+    private final int maxAttempts;
+    
+    // Compiled question banks by assessment id; one small entry per assessment taken since startup
+    private final Map<Long, CompiledAssessment> compiled = new ConcurrentHashMap<>();
+    private final SingleFlight<Long, CompiledAssessment> compilations = new SingleFlight<>();
+    
+    private final Counter compileCounter;
+    
+    public AssessmentService(AssessmentJdbcRepository assessmentJdbcRepository,
+                             CourseService courseService,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.assessmentMaxAttempts:3}") int maxAttempts) {
+        this.assessmentJdbcRepository = assessmentJdbcRepository;
+        this.courseService = courseService;
+        this.objectMapper = objectMapper;
+        this.compiler = new AssessmentCompiler(objectMapper);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        
+        Gauge.builder("assessments.compiled", compiled, Map::size)
+                .description("Compiled assessments held for grading")
+                .register(meterRegistry);
+        this.compileCounter = Counter.builder("assessments.compilations")
+                .description("Assessments compiled for grading after a miss or an edit")
+                .register(meterRegistry);
+    }
+    
+    public AssessmentResponse createAssessment(Long courseId, AssessmentRequest request, Long userId) {
+        courseService.verifyCourseManager(courseId, userId, "You can only add assessments to your own courses");
+        String questions = validQuestions(request);
+        
+        long id = assessmentJdbcRepository.create(courseId, request.getTitle(), request.getDescription(), questions,
+                passingScore(request), request.getTimeLimitMinutes(), Boolean.TRUE.equals(request.getIsPublished()));
+        return toManagerResponse(findRow(id));
+    }
+    
+    public AssessmentResponse updateAssessment(Long id, AssessmentRequest request, Long userId) {
+        Long courseId = assessmentJdbcRepository.findCourseId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+        courseService.verifyCourseManager(courseId, userId, "You can only edit assessments of your own courses");
+        String questions = validQuestions(request);
+        
+        assessmentJdbcRepository.update(id, request.getTitle(), request.getDescription(), questions,
+                        passingScore(request), request.getTimeLimitMinutes(),
+                        Boolean.TRUE.equals(request.getIsPublished()))
+                .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+        compiled.remove(id);
+        return toManagerResponse(findRow(id));
+    }
+    
+    /**
+     * The assessment with its questions as saved for the course's teacher or an
+     * admin, or, once published, without the answers for an enrolled student.
+     */
+    public AssessmentResponse getAssessment(Long id, Long userId) {
+        AssessmentHeader header = findHeader(id, userId);
+        if (header.isPublished() && header.isEnrolled()) {
+            return toStudentResponse(header, compiled(id, header.getVersion()));
+        }
+        courseService.verifyCourseManager(header.getCourseId(), userId,
+                "You must be enrolled in the course to view this assessment");
+        return toManagerResponse(findRow(id));
+    }
+    
+    /**
+     * Grades a student's answers against the current version of a published
+     * assessment and records the attempt, unless the student has used all of
+     * theirs. Essays are recorded as awaiting review and do not count towards
+     * the score.
+     */
+    public AssessmentAttemptResponse submit(Long id, List<String> answers, Long userId) {
+        AssessmentHeader header = findHeader(id, userId);
+        if (!header.isPublished()) {
+            throw new ResourceNotFoundException("Assessment not found");
+        }
+        if (!header.isEnrolled()) {
+            throw new BadRequestException("You must be enrolled in the course to submit this assessment");
+        }
+        CompiledAssessment assessment = compiled(id, header.getVersion());
+        if (answers.size() > assessment.getQuestionCount()) {
+            throw new BadRequestException("The assessment has " + assessment.getQuestionCount() + " questions");
+        }
+        
+        GradeResult result = assessment.grade(answers);
+        AssessmentAttemptRow attempt;
+        try {
+            attempt = assessmentJdbcRepository.saveAttempt(id, userId, assessment.getVersion(), result, maxAttempts)
+                    .orElseThrow(() -> new BadRequestException(
+                            "You have used all " + maxAttempts + " attempts at this assessment"));
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException("Another attempt at this assessment was submitted at the same time");
+        }
+        return AssessmentAttemptResponse.builder()
+                .id(attempt.getId())
+                .assessmentId(id)
+                .assessmentVersion(assessment.getVersion())
+                .attemptNumber(attempt.getAttemptNumber())
+                .attemptsRemaining(maxAttempts - attempt.getAttemptNumber())
+                .pointsEarned(result.pointsEarned())
+                .pointsPossible(result.pointsPossible())
+                .score(result.score())
+                .passed(result.passed())
+                .correctCount(result.correctCount())
+                .questionCount(assessment.getQuestionCount())
+                .reviewPoints(result.reviewPoints())
+                .submittedAt(LocalDateTime.now())
+                .build();
+    }
+    
+    // The compiled form of at least this version; concurrent misses share one compilation
+    private CompiledAssessment compiled(Long id, int version) {
+        CompiledAssessment cached = compiled.get(id);
+        if (cached != null && cached.getVersion() >= version) {
+            return cached;
+        }
+        CompiledAssessment loaded = compilations.load(id, () -> compile(id));
+        // A compilation already running when the assessment was saved may have read the old questions
+        return loaded.getVersion() >= version ? loaded : compile(id);
+    }
+    
+    private CompiledAssessment compile(Long id) {
+        AssessmentRow row = findRow(id);
+        CompiledAssessment fresh;
+        try {
+            fresh = compiler.compile(id, row.getVersion(), row.getPassingScore(), row.getQuestions());
+        } catch (IllegalArgumentException e) {
+            // Only rows saved before questions were checked can get here
+            throw new BadRequestException("This assessment cannot be graded: " + e.getMessage());
+        }
+        compileCounter.increment();
+        log.debug("Compiled version {} of assessment {}: {} questions", fresh.getVersion(), id,
+                fresh.getQuestionCount());
+        return compiled.merge(id, fresh, (old, current) -> current.getVersion() >= old.getVersion() ? current : old);
+    }
+    
+    private String validQuestions(AssessmentRequest request) {
+        try {
+            compiler.compile(0, 0, passingScore(request), request.getQuestions());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return request.getQuestions().toString();
+    }
+    
+    private static int passingScore(AssessmentRequest request) {
+        return request.getPassingScore() != null ? request.getPassingScore() : DEFAULT_PASSING_SCORE;
+    }
+    
+    private AssessmentHeader findHeader(Long id, Long userId) {
+        return assessmentJdbcRepository.findHeader(id, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+    }
+    
+    private AssessmentRow findRow(Long id) {
+        return assessmentJdbcRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+    }
+    
+    private AssessmentResponse toManagerResponse(AssessmentRow row) {
+        JsonNode questions = null;
+        if (row.getQuestions() != null) {
+            try {
+                questions = objectMapper.readTree(row.getQuestions());
+            } catch (JsonProcessingException e) {
+                // Rows from before questions were checked may hold anything
+                questions = TextNode.valueOf(row.getQuestions());
+            }
+        }
+        return AssessmentResponse.builder()
+                .id(row.getId())
+                .courseId(row.getCourseId())
+                .title(row.getTitle())
+                .description(row.getDescription())
+                .questions(questions)
+                .questionCount(questions != null && questions.isArray() ? questions.size() : null)
+                .passingScore(row.getPassingScore())
+                .timeLimitMinutes(row.getTimeLimitMinutes())
+                .isPublished(row.isPublished())
+                .version(row.getVersion())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+    
+    private AssessmentResponse toStudentResponse(AssessmentHeader header, CompiledAssessment assessment) {
+        ArrayNode questions = objectMapper.createArrayNode();
+        for (int i = 0; i < assessment.getQuestionCount(); i++) {
+            ObjectNode question = questions.addObject()
+                    .put("id", assessment.getQuestionId(i))
+                    .put("type", assessment.getTypeName(i))
+                    .put("question", assessment.getPrompt(i))
+                    .put("points", assessment.getPoints(i));
+            List<String> options = assessment.getOptions(i);
+            if (options != null) {
+                options.forEach(question.putArray("options")::add);
+            }
+        }
+        return AssessmentResponse.builder()
+                .id(header.getId())
+                .courseId(header.getCourseId())
+                .title(header.getTitle())
+                .description(header.getDescription())
+                .questions(questions)
+                .questionCount(assessment.getQuestionCount())
+                .passingScore(header.getPassingScore())
+                .timeLimitMinutes(header.getTimeLimitMinutes())
+                .isPublished(true)
+                .version(assessment.getVersion())
+                .build();
+    }
+}
\ No newline at end of file
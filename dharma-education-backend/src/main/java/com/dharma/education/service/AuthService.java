@@ -1,6 +1,8 @@
 package com.dharma.education.service;
 
 import com.dharma.education.dto.request.LoginRequest;
+import com.dharma.education.dto.request.LogoutRequest;
+import com.dharma.education.dto.request.RefreshTokenRequest;
 import com.dharma.education.dto.request.RegisterRequest;
 import com.dharma.education.dto.response.JwtResponse;
 import com.dharma.education.dto.response.UserResponse;
@@ -9,6 +11,7 @@ import com.dharma.education.exception.BadRequestException;
 import com.dharma.education.exception.UnauthorizedException;
 import com.dharma.education.repository.UserRepository;
 import com.dharma.education.security.JwtUtils;
+import com.dharma.education.security.TokenRevocationList;
 import com.dharma.education.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +21,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -30,7 +34,12 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
     
+    // Password hashing runs on a separate pool; keep it outside a transaction so
+    // no pooled connection is held while a request waits for a hashing slot.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public JwtResponse login(LoginRequest request) {
         try {
             Authentication authentication = authenticationManager.authenticate(
@@ -41,20 +50,7 @@ public class AuthService {
             );
             
             UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            String jwt = jwtUtils.generateJwtToken(userPrincipal);
-            
-            User user = userRepository.findById(userPrincipal.getId())
-                    .orElseThrow(() -> new UnauthorizedException("User not found"));
-            
-            return JwtResponse.builder()
-                .token(jwt)
-                .type("Bearer")
-                .id(userPrincipal.getId())
-                .email(userPrincipal.getUsername())
-                .role(userPrincipal.getRole().name())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .build();
+            return buildJwtResponse(userPrincipal);
                 
         } catch (BadCredentialsException e) {
             log.error("Invalid credentials for user: {}", request.getEmail());
@@ -62,6 +58,23 @@ public class AuthService {
         }
     }
     
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public JwtResponse refresh(RefreshTokenRequest request) {
+        User user = refreshTokenService.consume(request.getRefreshToken());
+        return buildJwtResponse(UserPrincipal.create(user));
+    }
+    
+    public void logout(String accessToken, LogoutRequest request) {
+        if (accessToken != null) {
+            jwtUtils.verifyJwtToken(accessToken)
+                .ifPresent(claims -> tokenRevocationList.revoke(claims.getId(), claims.getExpiration()));
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new BadRequestException("Email is already taken!");
@@ -84,4 +97,18 @@ public class AuthService {
         
         return UserResponse.fromEntity(savedUser);
     }
+    
+    private JwtResponse buildJwtResponse(UserPrincipal userPrincipal) {
+        return JwtResponse.builder()
+            .token(jwtUtils.generateJwtToken(userPrincipal))
+            .refreshToken(refreshTokenService.issue(userPrincipal.getId()))
+            .expiresIn(jwtUtils.getJwtExpirationMs() / 1000L)
+            .type("Bearer")
+            .id(userPrincipal.getId())
+            .email(userPrincipal.getUsername())
+            .role(userPrincipal.getRole().name())
+            .firstName(userPrincipal.getFirstName())
+            .lastName(userPrincipal.getLastName())
+            .build();
+    }
 }
\ No newline at end of file
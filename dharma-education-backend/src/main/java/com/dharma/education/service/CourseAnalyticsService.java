@@ -0,0 +1,210 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.response.AnalyticsRebuildResponse;
+import com.dharma.education.dto.response.CourseAnalyticsResponse;
+import com.dharma.education.repository.CourseAnalyticsJdbcRepository;
+import com.dharma.education.repository.projection.CourseAnalyticsDay;
+import com.dharma.education.repository.projection.CourseAnalyticsTotals;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves course analytics from the rollup tables, which the database keeps
+ * current as enrollments and progress commit, and runs the admin-triggered
+ * full rebuild as chunks of course id ranges on a small dedicated pool.
+ */
+@Service
+@Slf4j
+public class CourseAnalyticsService {
+    
+    private final CourseAnalyticsJdbcRepository courseAnalyticsJdbcRepository;
+    private final CourseService courseService;
+    private final int maxDays;
+    private final int activeWindowDays;
+    private final int rebuildChunkSize;
+    private final int rebuildMaxAttempts;
+    private final ExecutorService rebuildExecutor;
+    
+    private AnalyticsRebuildResponse rebuild = AnalyticsRebuildResponse.builder()
+            .status(AnalyticsRebuildResponse.Status.IDLE)
+            .build();
+    
+    public CourseAnalyticsService(CourseAnalyticsJdbcRepository courseAnalyticsJdbcRepository,
+                                  CourseService courseService,
+                                  @Value("${app.analyticsMaxDays:365}") int maxDays,
+                                  @Value("${app.analyticsActiveWindowDays:7}") int activeWindowDays,
+                                  @Value("${app.analyticsRebuildChunkSize:200}") int rebuildChunkSize,
+                                  @Value("${app.analyticsRebuildParallelism:4}") int rebuildParallelism,
+                                  @Value("${app.analyticsRebuildMaxAttempts:3}") int rebuildMaxAttempts) {
+        this.courseAnalyticsJdbcRepository = courseAnalyticsJdbcRepository;
+        this.courseService = courseService;
+        this.maxDays = Math.max(maxDays, 1);
+        this.activeWindowDays = Math.max(activeWindowDays, 1);
+        this.rebuildChunkSize = Math.max(rebuildChunkSize, 1);
+        this.rebuildMaxAttempts = Math.max(rebuildMaxAttempts, 1);
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.rebuildExecutor = Executors.newFixedThreadPool(Math.max(rebuildParallelism, 1), runnable -> {
+            Thread thread = new Thread(runnable, "analytics-rebuild-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+    
+    /**
+     * Totals and the last {@code days} days of activity for a course the user
+     * teaches, or any course for an admin. Two primary key reads, with days
+     * counted from the database's date so they line up with the rollups.
+     */
+    public CourseAnalyticsResponse getCourseAnalytics(Long courseId, Long userId, int days) {
+        courseService.verifyCourseManager(courseId, userId, "You can only view analytics for your own courses");
+        
+        int window = Math.min(Math.max(days, 1), maxDays);
+        LocalDate today = courseAnalyticsJdbcRepository.currentDate();
+        LocalDate firstDay = today.minusDays(window - 1L);
+        LocalDate activeSince = today.minusDays(activeWindowDays - 1L);
+        
+        CourseAnalyticsTotals totals = courseAnalyticsJdbcRepository.findTotals(courseId)
+                .orElse(new CourseAnalyticsTotals(0, 0, BigDecimal.ZERO, 0, 0, 0, 0));
+        List<CourseAnalyticsDay> rows = courseAnalyticsJdbcRepository.findDaily(courseId,
+                firstDay.isBefore(activeSince) ? firstDay : activeSince);
+        
+        long activeLearners = 0;
+        Map<LocalDate, CourseAnalyticsDay> byDate = new HashMap<>();
+        for (CourseAnalyticsDay row : rows) {
+            byDate.put(row.getActivityDate(), row);
+            if (!row.getActivityDate().isBefore(activeSince)) {
+                activeLearners += row.getLastActiveLearners();
+            }
+        }
+        
+        // One entry per day, including days without activity, so charts need no gap filling
+        List<CourseAnalyticsResponse.Day> daily = new ArrayList<>(window);
+        for (LocalDate date = firstDay; !date.isAfter(today); date = date.plusDays(1)) {
+            CourseAnalyticsDay row = byDate.get(date);
+            daily.add(row == null
+                    ? new CourseAnalyticsResponse.Day(date, 0, 0, 0, 0, 0)
+                    : new CourseAnalyticsResponse.Day(date, row.getNewEnrollments(), row.getCompletions(),
+                            row.getModulesCompleted(), row.getActiveLearners(), row.getTimeSpentSeconds()));
+        }
+        
+        long enrolled = totals.getEnrolledCount();
+        return CourseAnalyticsResponse.builder()
+                .courseId(courseId)
+                .enrolledCount(enrolled)
+                .completedCount(totals.getCompletedCount())
+                .completionRate(enrolled > 0 ? round(100.0 * totals.getCompletedCount() / enrolled) : 0)
+                .averageProgress(enrolled > 0 ? round(totals.getProgressSum().doubleValue() / enrolled) : 0)
+                .averageScore(totals.getScoreCount() > 0
+                        ? round((double) totals.getScoreSum() / totals.getScoreCount()) : null)
+                .averageTimeSpentSeconds(enrolled > 0 ? totals.getTimeSpentSeconds() / enrolled : 0)
+                .modulesCompleted(totals.getModulesCompleted())
+                .activeLearners(activeLearners)
+                .activeWindowDays(activeWindowDays)
+                .daily(daily)
+                .build();
+    }
+    
+    /**
+     * Starts a full rebuild unless one is already running, and returns the
+     * job's status either way.
+     */
+    public synchronized AnalyticsRebuildResponse startRebuild() {
+        if (rebuild.getStatus() == AnalyticsRebuildResponse.Status.RUNNING) {
+            return copy(rebuild);
+        }
+        
+        List<Long> courseIds = courseAnalyticsJdbcRepository.findAllCourseIds();
+        List<long[]> chunks = new ArrayList<>();
+        for (int i = 0; i < courseIds.size(); i += rebuildChunkSize) {
+            int last = Math.min(i + rebuildChunkSize, courseIds.size()) - 1;
+            chunks.add(new long[]{courseIds.get(i), courseIds.get(last)});
+        }
+        rebuild = AnalyticsRebuildResponse.builder()
+                .status(chunks.isEmpty() ? AnalyticsRebuildResponse.Status.COMPLETED
+                        : AnalyticsRebuildResponse.Status.RUNNING)
+                .coursesTotal(courseIds.size())
+                .chunksTotal(chunks.size())
+                .startedAt(LocalDateTime.now())
+                .finishedAt(chunks.isEmpty() ? LocalDateTime.now() : null)
+                .build();
+        log.info("Rebuilding analytics for {} courses in {} chunks", courseIds.size(), chunks.size());
+        
+        AnalyticsRebuildResponse job = rebuild;
+        for (long[] chunk : chunks) {
+            rebuildExecutor.execute(() -> finishChunk(job, rebuildChunk(chunk[0], chunk[1])));
+        }
+        return copy(rebuild);
+    }
+    
+    public synchronized AnalyticsRebuildResponse getRebuildStatus() {
+        return copy(rebuild);
+    }
+    
+    private boolean rebuildChunk(long fromCourseId, long toCourseId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                courseAnalyticsJdbcRepository.rebuild(fromCourseId, toCourseId);
+                return true;
+            } catch (PessimisticLockingFailureException e) {
+                // Deadlock with a concurrent trigger update; the chunk's transaction rolled back, so just run it again
+                if (attempt >= rebuildMaxAttempts) {
+                    log.error("Gave up rebuilding analytics for courses {}-{}", fromCourseId, toCourseId, e);
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild analytics for courses {}-{}", fromCourseId, toCourseId, e);
+                return false;
+            }
+        }
+    }
+    
+    private synchronized void finishChunk(AnalyticsRebuildResponse job, boolean succeeded) {
+        if (succeeded) {
+            job.setChunksDone(job.getChunksDone() + 1);
+        } else {
+            job.setChunksFailed(job.getChunksFailed() + 1);
+        }
+        if (job.getChunksDone() + job.getChunksFailed() == job.getChunksTotal()) {
+            job.setStatus(job.getChunksFailed() == 0
+                    ? AnalyticsRebuildResponse.Status.COMPLETED : AnalyticsRebuildResponse.Status.FAILED);
+            job.setFinishedAt(LocalDateTime.now());
+            log.info("Analytics rebuild finished: {} of {} chunks rebuilt", job.getChunksDone(), job.getChunksTotal());
+        }
+    }
+    
+    private static AnalyticsRebuildResponse copy(AnalyticsRebuildResponse job) {
+        return AnalyticsRebuildResponse.builder()
+                .status(job.getStatus())
+                .coursesTotal(job.getCoursesTotal())
+                .chunksTotal(job.getChunksTotal())
+                .chunksDone(job.getChunksDone())
+                .chunksFailed(job.getChunksFailed())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
\ No newline at end of file
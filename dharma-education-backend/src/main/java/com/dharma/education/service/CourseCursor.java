@@ -0,0 +1,50 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.request.CourseSortKey;
+import com.dharma.education.entity.Course;
+import com.dharma.education.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in the course catalog: the sort it belongs to and
+ * the sort value and id of the last course returned, base64url-encoded.
+ */
+record CourseCursor(CourseSortKey key, Sort.Direction direction, Object value, long id) {
+    
+    private static final String SEPARATOR = "|";
+    
+    static CourseCursor after(CourseSortKey key, Sort.Direction direction, Course course) {
+        Object value = switch (key) {
+            case CREATED_AT -> course.getCreatedAt();
+            case ENROLLMENT_COUNT -> course.getEnrollmentCount();
+        };
+        return new CourseCursor(key, direction, value, course.getId());
+    }
+    
+    String encode() {
+        String raw = String.join(SEPARATOR, key.name(), direction.name(), String.valueOf(value), String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static CourseCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Expected 4 cursor fields");
+            }
+            CourseSortKey key = CourseSortKey.valueOf(parts[0]);
+            Object value = switch (key) {
+                case CREATED_AT -> LocalDateTime.parse(parts[2]);
+                case ENROLLMENT_COUNT -> Long.parseLong(parts[2]);
+            };
+            return new CourseCursor(key, Sort.Direction.valueOf(parts[1]), value, Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
\ No newline at end of file
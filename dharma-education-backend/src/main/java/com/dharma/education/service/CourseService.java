@@ -1,23 +1,47 @@
 package com.dharma.education.service;
 
 import com.dharma.education.dto.request.CourseRequest;
+import com.dharma.education.dto.request.CourseSortKey;
+import com.dharma.education.dto.response.BulkEnrollmentResponse;
 import com.dharma.education.dto.response.CourseResponse;
+import com.dharma.education.dto.response.CourseSuggestionResponse;
+import com.dharma.education.dto.response.CursorPage;
+import com.dharma.education.dto.response.EnrolledCourseResponse;
+import com.dharma.education.dto.response.EnrollmentResponse;
 import com.dharma.education.entity.Course;
-import com.dharma.education.entity.Enrollment;
+import com.dharma.education.entity.MediaFile;
 import com.dharma.education.entity.User;
+import com.dharma.education.event.CourseChangedEvent;
+import com.dharma.education.event.CourseEnrolledEvent;
 import com.dharma.education.exception.BadRequestException;
 import com.dharma.education.exception.ResourceNotFoundException;
 import com.dharma.education.repository.CourseRepository;
+import com.dharma.education.repository.EnrollmentJdbcRepository;
 import com.dharma.education.repository.EnrollmentRepository;
+import com.dharma.education.repository.MediaFileJdbcRepository;
 import com.dharma.education.repository.UserRepository;
+import com.dharma.education.repository.projection.BulkEnrollmentRow;
+import com.dharma.education.repository.projection.CourseRow;
+import com.dharma.education.repository.projection.EnrollmentAttempt;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,19 +50,89 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CourseService {
     
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_SUGGEST_QUERY_LENGTH = 100;
+    
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final CourseSuggestionIndex courseSuggestionIndex;
+    private final EnrollmentCounter enrollmentCounter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MediaFileJdbcRepository mediaFileJdbcRepository;
+    
+    private final SingleFlight<Long, CourseResponse> courseLoads = new SingleFlight<>();
     
     public Page<CourseResponse> getAllCourses(Pageable pageable, String category, String search) {
-        Page<Course> courses = courseRepository.findActiveCoursesWithFilters(category, search, pageable);
-        return courses.map(CourseResponse::fromEntity);
+        if (StringUtils.hasText(search)) {
+            // Search results are ordered by relevance rather than the requested sort
+            Pageable byRelevance = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            Page<Long> ids = courseRepository.searchActiveCourseIds(category, search.trim(), byRelevance);
+            Map<Long, CourseRow> rows = ids.isEmpty() ? Map.of()
+                    : courseRepository.findRowsByIdIn(ids.getContent()).stream()
+                            .collect(Collectors.toMap(row -> row.getCourse().getId(), Function.identity()));
+            return ids.map(id -> toResponse(rows.get(id)));
+        }
+        
+        return courseRepository.findActiveCoursesWithFilters(category, pageable)
+                .map(this::toResponse);
+    }
+    
+    public CursorPage<CourseResponse> getCoursesByCursor(String cursor, int size, CourseSortKey sortKey,
+                                                         Sort.Direction direction, String category, String search) {
+        if (StringUtils.hasText(search)) {
+            throw new BadRequestException("search is not supported with cursor pagination");
+        }
+        
+        CourseCursor after = StringUtils.hasText(cursor) ? CourseCursor.decode(cursor) : null;
+        if (after != null && (after.key() != sortKey || after.direction() != direction)) {
+            throw new BadRequestException("Cursor does not match sortBy and sortDir");
+        }
+        
+        // Fetch one extra row to learn whether another page exists without a count query
+        int limit = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        List<CourseRow> rows = courseRepository.findActiveCoursesAfter(sortKey, direction, category,
+                after != null ? after.value() : null, after != null ? after.id() : null, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<CourseRow> page = hasNext ? rows.subList(0, limit) : rows;
+        
+        return CursorPage.<CourseResponse>builder()
+                .content(page.stream().map(this::toResponse).collect(Collectors.toList()))
+                .size(limit)
+                .hasNext(hasNext)
+                .nextCursor(hasNext
+                        ? CourseCursor.after(sortKey, direction, page.get(limit - 1).getCourse()).encode()
+                        : null)
+                .build();
+    }
+    
+    // Served entirely from the in-memory index, so no transaction or connection is needed
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CourseSuggestionResponse> suggestCourses(String query, int limit) {
+        if (!StringUtils.hasText(query)) {
+            return List.of();
+        }
+        String trimmed = query.length() > MAX_SUGGEST_QUERY_LENGTH
+                ? query.substring(0, MAX_SUGGEST_QUERY_LENGTH)
+                : query;
+        return courseSuggestionIndex.suggest(trimmed, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
     }
     
+    // Course and teacher come from the second-level cache when warm; concurrent
+    // misses for the same id share one load. No transaction is held while waiting.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CourseResponse getCourseById(Long id) {
-        Course course = courseRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
-        return CourseResponse.fromEntity(course);
+        return courseLoads.load(id, () -> {
+            Course course = courseRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
+            User teacher = course.getTeacher() != null
+                    ? userRepository.findById(course.getTeacher().getId()).orElse(null)
+                    : null;
+            return toResponse(course, teacher);
+        });
     }
     
     public CourseResponse createCourse(CourseRequest request, Long teacherId) {
@@ -54,10 +148,13 @@ public class CourseService {
                 .durationWeeks(request.getDurationWeeks())
                 .level(request.getLevel() != null ? Course.DifficultyLevel.valueOf(request.getLevel().toUpperCase()) : null)
                 .imageUrl(request.getImageUrl())
+                .seatCapacity(request.getSeatCapacity())
                 .build();
         
         Course savedCourse = courseRepository.save(course);
+        publishImage(savedCourse, teacherId);
         log.info("Course created: {} by teacher: {}", savedCourse.getTitle(), teacher.getEmail());
+        eventPublisher.publishEvent(CourseChangedEvent.created(savedCourse));
         
         return CourseResponse.fromEntity(savedCourse);
     }
@@ -66,13 +163,10 @@ public class CourseService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
         
-        // Verify teacher owns the course or is admin
-        if (!course.getTeacher().getId().equals(teacherId)) {
-            User user = userRepository.findById(teacherId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-            if (!user.getRole().equals(User.Role.ADMIN)) {
-                throw new BadRequestException("You can only update your own courses");
-            }
+        verifyOwnerOrAdmin(course, teacherId, "You can only update your own courses");
+        // A deleted course stays out of the catalog; editing it must not publish it again
+        if (!Boolean.TRUE.equals(course.getIsActive())) {
+            throw new ResourceNotFoundException("Course not found");
         }
         
         course.setTitle(request.getTitle());
@@ -84,52 +178,157 @@ public class CourseService {
             course.setLevel(Course.DifficultyLevel.valueOf(request.getLevel().toUpperCase()));
         }
         course.setImageUrl(request.getImageUrl());
+        publishImage(course, teacherId);
+        
+        boolean capacityChanged = !Objects.equals(course.getSeatCapacity(), request.getSeatCapacity());
+        course.setSeatCapacity(request.getSeatCapacity());
         
         Course updatedCourse = courseRepository.save(course);
-        return CourseResponse.fromEntity(updatedCourse);
+        if (capacityChanged) {
+            // Write the new capacity before recounting seats and promoting from the waitlist
+            courseRepository.flush();
+            List<Long> promoted = enrollmentJdbcRepository.applySeatCapacity(courseId);
+            evictCourseAfterCommit(courseId);
+            promoted.forEach(studentId -> eventPublisher.publishEvent(new CourseEnrolledEvent(courseId, studentId)));
+            if (!promoted.isEmpty()) {
+                log.info("Promoted {} students from the waitlist of course {}", promoted.size(), courseId);
+            }
+        }
+        eventPublisher.publishEvent(CourseChangedEvent.updated(updatedCourse));
+        return toResponse(updatedCourse, updatedCourse.getTeacher());
+    }
+    
+    // A stored image used as the cover is shown on public pages, so it is served without a signed URL
+    private void publishImage(Course course, Long userId) {
+        MediaFile.idFromContentUrl(course.getImageUrl())
+                .ifPresent(mediaFileId -> mediaFileJdbcRepository.makePublic(mediaFileId,
+                        course.getTeacher().getId(), userId));
     }
     
     public void deleteCourse(Long courseId, Long teacherId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
         
-        // Verify teacher owns the course or is admin
-        if (!course.getTeacher().getId().equals(teacherId)) {
-            User user = userRepository.findById(teacherId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-            if (!user.getRole().equals(User.Role.ADMIN)) {
-                throw new BadRequestException("You can only delete your own courses");
-            }
-        }
+        verifyOwnerOrAdmin(course, teacherId, "You can only delete your own courses");
         
         course.setIsActive(false);
         courseRepository.save(course);
+        eventPublisher.publishEvent(CourseChangedEvent.deleted(courseId));
     }
     
-    public void enrollInCourse(Long courseId, Long studentId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
+    /**
+     * Enrolls the student with a single upsert. Repeating the call is
+     * harmless, and a student who finds a capped course full is put on its
+     * waitlist instead.
+     */
+    public EnrollmentResponse enrollInCourse(Long courseId, Long studentId) {
+        EnrollmentAttempt attempt = enrollmentJdbcRepository.enroll(courseId, studentId);
+        if (!attempt.isCourseFound()) {
+            throw new ResourceNotFoundException("Course not found");
+        }
         
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
+        EnrollmentResponse.EnrollmentResponseBuilder response = EnrollmentResponse.builder().courseId(courseId);
+        if (attempt.isEnrolled()) {
+            eventPublisher.publishEvent(new CourseEnrolledEvent(courseId, studentId));
+            log.info("Student {} enrolled in course {}", studentId, courseId);
+            return response.status(EnrollmentResponse.Status.ENROLLED).build();
+        }
+        if (attempt.isAlreadyEnrolled() || attempt.isSeatReserved()) {
+            // A seat reserved by a request that lost the insert race to a concurrent duplicate
+            if (attempt.isSeatReserved()) {
+                enrollmentJdbcRepository.releaseSeat(courseId);
+            }
+            return response.status(EnrollmentResponse.Status.ALREADY_ENROLLED).build();
+        }
         
-        if (enrollmentRepository.existsByStudentAndCourse(student, course)) {
-            throw new BadRequestException("Already enrolled in this course");
+        int position = enrollmentJdbcRepository.joinWaitlist(courseId, studentId);
+        if (position == 0) {
+            return response.status(EnrollmentResponse.Status.ALREADY_ENROLLED).build();
         }
+        log.info("Student {} waitlisted for course {} at position {}", studentId, courseId, position);
+        return response.status(EnrollmentResponse.Status.WAITLISTED).waitlistPosition(position).build();
+    }
+    
+    public BulkEnrollmentResponse bulkEnroll(Long courseId, List<Long> studentIds, Long teacherId) {
+        Course course = courseRepository.findById(courseId)
+                .filter(Course::getIsActive)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
+        verifyOwnerOrAdmin(course, teacherId, "You can only enroll students in your own courses");
         
-        Enrollment enrollment = Enrollment.builder()
-                .student(student)
-                .course(course)
-                .build();
+        List<BulkEnrollmentRow> rows = enrollmentJdbcRepository.bulkEnroll(courseId, studentIds);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Course not found");
+        }
         
-        enrollmentRepository.save(enrollment);
-        log.info("Student {} enrolled in course {}", student.getEmail(), course.getTitle());
+        BulkEnrollmentResponse response = BulkEnrollmentResponse.builder().courseId(courseId).build();
+        for (BulkEnrollmentRow row : rows) {
+            switch (row.getOutcome()) {
+                case "ENROLLED" -> {
+                    response.getEnrolled().add(row.getStudentId());
+                    eventPublisher.publishEvent(new CourseEnrolledEvent(courseId, row.getStudentId()));
+                }
+                case "ALREADY_ENROLLED" -> response.getAlreadyEnrolled().add(row.getStudentId());
+                case "WAITLISTED" -> response.getWaitlisted().add(row.getStudentId());
+                default -> response.getRejected().add(row.getStudentId());
+            }
+        }
+        log.info("Bulk enrollment in course {}: {} enrolled, {} waitlisted", courseId,
+                response.getEnrolled().size(), response.getWaitlisted().size());
+        return response;
     }
     
-    public List<CourseResponse> getEnrolledCourses(Long studentId) {
-        List<Enrollment> enrollments = enrollmentRepository.findByStudentId(studentId);
-        return enrollments.stream()
-                .map(enrollment -> CourseResponse.fromEntity(enrollment.getCourse()))
+    public List<EnrolledCourseResponse> getEnrolledCourses(Long studentId) {
+        return enrollmentRepository.findEnrolledCourseRows(studentId).stream()
+                .map(row -> EnrolledCourseResponse.builder()
+                        .course(toResponse(row.getCourse(), row.getTeacher()))
+                        .progress(row.getProgress())
+                        .enrolledAt(row.getEnrolledAt())
+                        .completedAt(row.getCompletedAt())
+                        .build())
                 .collect(Collectors.toList());
     }
+    
+    // seats_taken was written over JDBC after Hibernate captured the row it will cache on commit
+    private void evictCourseAfterCommit(Long courseId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(Course.class, courseId);
+            }
+        });
+    }
+    
+    /**
+     * Throws unless the user teaches the course or is an admin.
+     */
+    public void verifyCourseManager(Long courseId, Long userId, String message) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
+        verifyOwnerOrAdmin(course, userId, message);
+    }
+    
+    // Teachers may only manage their own courses; admins may manage any
+    private void verifyOwnerOrAdmin(Course course, Long userId, String message) {
+        if (!course.getTeacher().getId().equals(userId)) {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            if (!user.getRole().equals(User.Role.ADMIN)) {
+                throw new BadRequestException(message);
+            }
+        }
+    }
+    
+    private CourseResponse toResponse(CourseRow row) {
+        return toResponse(row.getCourse(), row.getTeacher());
+    }
+    
+    private CourseResponse toResponse(Course course, User teacher) {
+        return CourseResponse.fromEntity(course, teacher, enrollmentCount(course));
+    }
+    
+    // Stored count plus enrollments on this instance that are not flushed yet
+    private long enrollmentCount(Course course) {
+        long stored = course.getEnrollmentCount() != null ? course.getEnrollmentCount() : 0;
+        return stored + enrollmentCounter.pending(course.getId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,296 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.response.CourseSuggestionResponse;
+import com.dharma.education.event.CourseChangedEvent;
+import com.dharma.education.event.CourseEnrolledEvent;
+import com.dharma.education.repository.CourseRepository;
+import com.dharma.education.repository.projection.CourseSuggestionView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-process prefix index over normalized course titles and categories for
+ * catalog typeahead. Terms live in a sorted map whose postings are sorted
+ * arrays of course ids, so a prefix lookup is a range scan with no database
+ * round trip. Reads are lock-free; writes replace postings under a lock.
+ * The index is loaded once at startup and then kept current from committed
+ * course and enrollment events. Those events are only seen by the instance
+ * that published them, so a periodic pass reconciles the index with the
+ * database to pick up changes made on other instances.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CourseSuggestionIndex {
+    
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long[] NO_IDS = new long[0];
+    
+    // Least popular first so the heap can evict it; older courses lose ties
+    private static final Comparator<Candidate> BY_POPULARITY = Comparator
+            .comparingLong(Candidate::popularity)
+            .thenComparingLong(candidate -> candidate.entry().id());
+    
+    private final CourseRepository courseRepository;
+    
+    private final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (writeLock) {
+            List<CourseSuggestionView> courses = courseRepository.findActiveSuggestionViews();
+            
+            Map<String, List<Long>> ids = new HashMap<>();
+            entries.clear();
+            for (CourseSuggestionView course : courses) {
+                String[] terms = terms(course.getTitle(), course.getCategory());
+                long enrollments = course.getEnrollmentCount() != null ? course.getEnrollmentCount() : 0;
+                entries.put(course.getId(), new Entry(course.getId(), course.getTitle(), course.getCategory(),
+                        terms, new AtomicLong(enrollments)));
+                for (String term : terms) {
+                    ids.computeIfAbsent(term, t -> new ArrayList<>()).add(course.getId());
+                }
+            }
+            
+            postings.clear();
+            ids.forEach((term, list) -> postings.put(term,
+                    list.stream().mapToLong(Long::longValue).sorted().toArray()));
+            log.info("Course suggestion index loaded: {} courses, {} terms", entries.size(), postings.size());
+        }
+    }
+    
+    /**
+     * Brings the index in line with the active courses in the database:
+     * courses added, renamed or deactivated elsewhere are updated in place
+     * and popularity is reset to the stored enrollment counts.
+     */
+    @Scheduled(fixedDelayString = "${app.courseSuggestionReconcileIntervalMs:300000}",
+               initialDelayString = "${app.courseSuggestionReconcileIntervalMs:300000}")
+    public void reconcile() {
+        // Read under the lock: an event committed meanwhile waits and is applied over this snapshot
+        synchronized (writeLock) {
+            List<CourseSuggestionView> courses = courseRepository.findActiveSuggestionViews();
+            Set<Long> active = new HashSet<>();
+            int changed = 0;
+            for (CourseSuggestionView course : courses) {
+                active.add(course.getId());
+                Entry entry = entries.get(course.getId());
+                if (entry == null || !Objects.equals(entry.title(), course.getTitle())
+                        || !Objects.equals(entry.category(), course.getCategory())) {
+                    put(course.getId(), course.getTitle(), course.getCategory());
+                    entry = entries.get(course.getId());
+                    changed++;
+                }
+                entry.popularity().set(course.getEnrollmentCount() != null ? course.getEnrollmentCount() : 0);
+            }
+            for (Long courseId : new ArrayList<>(entries.keySet())) {
+                if (!active.contains(courseId)) {
+                    remove(courseId);
+                    changed++;
+                }
+            }
+            if (changed > 0) {
+                log.info("Course suggestion index reconciled: {} courses changed elsewhere", changed);
+            }
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        synchronized (writeLock) {
+            if (event.type() == CourseChangedEvent.Type.DELETED) {
+                remove(event.courseId());
+            } else {
+                put(event.courseId(), event.title(), event.category());
+            }
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseEnrolled(CourseEnrolledEvent event) {
+        Entry entry = entries.get(event.courseId());
+        if (entry != null) {
+            entry.popularity().incrementAndGet();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} active courses whose title or category has
+     * a word starting with every word of the query, most enrolled first.
+     */
+    public List<CourseSuggestionResponse> suggest(String query, int limit) {
+        String[] tokens = tokenize(query);
+        if (tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        
+        // Scan the longest (usually most selective) prefix and filter the rest per entry
+        String driver = tokens[0];
+        for (String token : tokens) {
+            if (token.length() > driver.length()) {
+                driver = token;
+            }
+        }
+        
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, BY_POPULARITY);
+        Set<Long> seen = new HashSet<>();
+        for (long[] ids : postings.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+            for (long id : ids) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                Entry entry = entries.get(id);
+                if (entry == null || !entry.matchesAll(tokens)) {
+                    continue;
+                }
+                top.offer(new Candidate(entry, entry.popularity().get()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        
+        List<CourseSuggestionResponse> suggestions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Candidate candidate = top.poll();
+            suggestions.add(CourseSuggestionResponse.builder()
+                    .id(candidate.entry().id())
+                    .title(candidate.entry().title())
+                    .category(candidate.entry().category())
+                    .enrollmentCount(candidate.popularity())
+                    .build());
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+    
+    private void put(Long courseId, String title, String category) {
+        String[] terms = terms(title, category);
+        Entry previous = entries.get(courseId);
+        AtomicLong popularity = previous != null ? previous.popularity() : new AtomicLong();
+        
+        // Publish the entry before its postings so readers never see a dangling id
+        entries.put(courseId, new Entry(courseId, title, category, terms, popularity));
+        if (previous != null) {
+            for (String term : previous.terms()) {
+                if (Arrays.binarySearch(terms, term) < 0) {
+                    removePosting(term, courseId);
+                }
+            }
+        }
+        for (String term : terms) {
+            addPosting(term, courseId);
+        }
+    }
+    
+    private void remove(Long courseId) {
+        Entry previous = entries.get(courseId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            removePosting(term, courseId);
+        }
+        entries.remove(courseId);
+    }
+    
+    private void addPosting(String term, long courseId) {
+        long[] ids = postings.getOrDefault(term, NO_IDS);
+        int index = Arrays.binarySearch(ids, courseId);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = courseId;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        postings.put(term, updated);
+    }
+    
+    private void removePosting(String term, long courseId) {
+        long[] ids = postings.get(term);
+        int index = ids != null ? Arrays.binarySearch(ids, courseId) : -1;
+        if (index < 0) {
+            return;
+        }
+        if (ids.length == 1) {
+            postings.remove(term);
+            return;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, index);
+        System.arraycopy(ids, index + 1, updated, index, ids.length - index - 1);
+        postings.put(term, updated);
+    }
+    
+    private static String[] terms(String title, String category) {
+        Set<String> terms = new TreeSet<>(Arrays.asList(tokenize(title)));
+        terms.addAll(Arrays.asList(tokenize(category)));
+        return terms.toArray(String[]::new);
+    }
+    
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return SEPARATORS.splitAsStream(normalized)
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+    
+    private record Entry(long id, String title, String category, String[] terms, AtomicLong popularity) {
+        
+        boolean matchesAll(String[] prefixes) {
+            for (String prefix : prefixes) {
+                if (!hasTermStartingWith(prefix)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private boolean hasTermStartingWith(String prefix) {
+            for (String term : terms) {
+                if (term.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    private record Candidate(Entry entry, long popularity) {
+    }
+}
\ No newline at end of file
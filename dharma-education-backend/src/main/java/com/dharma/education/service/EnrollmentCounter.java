@@ -0,0 +1,99 @@
+package com.dharma.education.service;
+
+import com.dharma.education.entity.Course;
+import com.dharma.education.event.CourseEnrolledEvent;
+import com.dharma.education.repository.CourseJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains courses.enrollment_count without a row update per enrollment.
+ * Committed enrollments bump a per-course LongAdder, a scheduled flush
+ * applies the accumulated deltas in one JDBC batch, and a periodic
+ * reconcile corrects any drift against the enrollments table.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EnrollmentCounter {
+    
+    private final CourseJdbcRepository courseJdbcRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    
+    @Value("${app.enrollmentCountReconcileQuietSeconds:300}")
+    private long reconcileQuietSeconds;
+    
+    // One adder per course enrolled in since startup, so bounded by the catalog size
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseEnrolled(CourseEnrolledEvent event) {
+        pending.computeIfAbsent(event.courseId(), id -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Enrollments committed on this instance that are not yet in the
+     * enrollment_count column.
+     */
+    public long pending(Long courseId) {
+        LongAdder adder = pending.get(courseId);
+        return adder != null ? adder.sum() : 0;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.enrollmentCountFlushIntervalMs:1000}")
+    public synchronized void flush() {
+        SortedMap<Long, Long> deltas = new TreeMap<>();
+        pending.forEach((courseId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.put(courseId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        
+        try {
+            courseJdbcRepository.addEnrollmentCounts(deltas);
+            // JDBC writes bypass Hibernate, so drop the now stale second-level cache entries
+            deltas.keySet().forEach(courseId -> entityManagerFactory.getCache().evict(Course.class, courseId));
+        } catch (DataAccessException e) {
+            // Keep the deltas for the next flush instead of dropping them
+            deltas.forEach((courseId, delta) ->
+                    pending.computeIfAbsent(courseId, id -> new LongAdder()).add(delta));
+            log.warn("Failed to flush enrollment counts for {} courses: {}", deltas.size(), e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.enrollmentCountReconcileIntervalMs:3600000}",
+               initialDelayString = "${app.enrollmentCountReconcileIntervalMs:3600000}")
+    public void reconcile() {
+        flush();
+        int corrected = courseJdbcRepository.reconcileEnrollmentCounts(
+                LocalDateTime.now().minusSeconds(reconcileQuietSeconds));
+        if (corrected > 0) {
+            entityManagerFactory.getCache().evict(Course.class);
+            log.warn("Corrected enrollment_count drift on {} courses", corrected);
+        }
+    }
+    
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,349 @@
+package com.dharma.education.service;
+
+import com.dharma.education.entity.MediaFile;
+import com.dharma.education.exception.ResourceNotFoundException;
+import com.dharma.education.repository.MediaDerivativeJdbcRepository;
+import com.dharma.education.repository.projection.ImageSourceRow;
+import com.dharma.education.repository.projection.MediaDerivativeRow;
+import com.dharma.education.repository.projection.MediaFileRow;
+import com.dharma.education.storage.MediaStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scales uploaded images down to the fixed {@link MediaFile.ImageVariant}
+ * widths with the JDK's ImageIO, on a bounded worker pool. Each source is
+ * decoded once and every variant is made from the next larger one, then
+ * stored next to the original under a key derived from it, so the same
+ * derivative always lands in the same place.
+ *
+ * <p>Work is per blob, so files sharing content share derivatives, and
+ * requests for a blob already being processed join that run instead of
+ * starting another. Requests never wait for a run: until the derivatives
+ * exist the original is served. A source that cannot be decoded, is too
+ * large, or has failed too many runs is marked failed and its original is
+ * served in place of derivatives from then on.
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService {
+    
+    private static final String READY = "READY";
+    private static final String FAILED = "FAILED";
+    
+    private static final float JPEG_QUALITY = 0.85f;
+    
+    private final MediaDerivativeJdbcRepository mediaDerivativeJdbcRepository;
+    private final MediaStorage mediaStorage;
+    private final long maxSourceBytes;
+    private final long maxPixels;
+    private final int maxAttempts;
+    private final ThreadPoolExecutor executor;
+    
+    // Runs in progress by blob id; like SingleFlight, but the work runs on the pool
+    private final ConcurrentHashMap<Long, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    
+    private final Timer processingTimer;
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Counter failed;
+    
+    public ImageDerivativeService(MediaDerivativeJdbcRepository mediaDerivativeJdbcRepository,
+                                  MediaStorage mediaStorage,
+                                  @Value("${app.imageDerivativeThreads:1}") int threads,
+                                  @Value("${app.imageDerivativeQueueCapacity:100}") int queueCapacity,
+                                  @Value("${app.imageMaxSourceBytes:26214400}") long maxSourceBytes,
+                                  @Value("${app.imageMaxPixels:50000000}") long maxPixels,
+                                  @Value("${app.imageDerivativeMaxAttempts:3}") int maxAttempts,
+                                  MeterRegistry meterRegistry) {
+        this.mediaDerivativeJdbcRepository = mediaDerivativeJdbcRepository;
+        this.mediaStorage = mediaStorage;
+        this.maxSourceBytes = maxSourceBytes;
+        this.maxPixels = maxPixels;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        Gauge.builder("image.derivatives.queue", executor, e -> e.getQueue().size())
+                .description("Images waiting for a derivative worker")
+                .register(meterRegistry);
+        Gauge.builder("image.derivatives.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Images whose derivatives are being made")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("image.derivatives.processing")
+                .description("Time to decode an image and make and store all its derivatives")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("image.derivatives.coalesced")
+                .description("Derivative requests that joined a run already in progress")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("image.derivatives.rejected")
+                .description("Derivative requests dropped because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("image.derivatives.failed")
+                .description("Images that could not be decoded, were too large or failed every attempt")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Queues the file's derivatives to be made, unless it is not an image or
+     * they already exist. Never fails the caller; a dropped request is made
+     * up for when a derivative is first asked for.
+     */
+    public void request(Long mediaFileId) {
+        mediaDerivativeJdbcRepository.findSource(mediaFileId)
+                .filter(source -> MediaFile.MediaType.IMAGE.name().equals(source.getMediaType()))
+                .filter(source -> source.getDerivativesStatus() == null)
+                .ifPresent(this::submit);
+    }
+    
+    /**
+     * The stored derivative, or empty when the original should be served
+     * instead. A missing derivative is queued to be made, without waiting,
+     * so a request never holds its worker thread on image processing.
+     */
+    public Optional<MediaFileRow> findDerivative(Long mediaFileId, MediaFile.ImageVariant variant) {
+        Optional<MediaFileRow> derivative = mediaDerivativeJdbcRepository.findDerivative(mediaFileId, variant.name());
+        if (derivative.isPresent()) {
+            return derivative;
+        }
+        ImageSourceRow source = mediaDerivativeJdbcRepository.findSource(mediaFileId)
+                .orElseThrow(() -> new ResourceNotFoundException("Media file not found"));
+        if (!MediaFile.MediaType.IMAGE.name().equals(source.getMediaType())) {
+            throw new ResourceNotFoundException("Media file is not an image");
+        }
+        if (source.getDerivativesStatus() != null) {
+            return Optional.empty();
+        }
+        
+        submit(source);
+        return Optional.empty();
+    }
+    
+    private void submit(ImageSourceRow source) {
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(source.getBlobId(), mine);
+        if (running != null) {
+            coalesced.increment();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    processingTimer.record(() -> process(source));
+                    mine.complete(null);
+                } catch (RuntimeException | Error e) {
+                    mine.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(source.getBlobId(), mine);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(source.getBlobId(), mine);
+            rejected.increment();
+            log.warn("Image derivative queue is full; skipped blob {}", source.getBlobId());
+            mine.completeExceptionally(e);
+        }
+    }
+    
+    private void process(ImageSourceRow source) {
+        // A run finishing just before this one was queued has already done the work
+        if (mediaDerivativeJdbcRepository.findStatus(source.getBlobId()).isPresent()) {
+            return;
+        }
+        List<MediaDerivativeRow> derivatives = new ArrayList<>();
+        try {
+            BufferedImage image = source.getSize() <= maxSourceBytes ? decode(read(source)) : null;
+            if (image == null) {
+                failed.increment();
+                log.info("Image blob {} could not be decoded or is too large; serving the original instead",
+                        source.getBlobId());
+                mediaDerivativeJdbcRepository.markStatus(source.getBlobId(), FAILED);
+                return;
+            }
+            
+            boolean alpha = image.getColorModel().hasAlpha();
+            MediaFile.ImageVariant[] variants = MediaFile.ImageVariant.values();
+            // Largest first, each scaled from the one before, so the full-size image is only scaled once
+            for (int i = variants.length - 1; i >= 0; i--) {
+                MediaFile.ImageVariant variant = variants[i];
+                image = scale(image, variant.getWidth(), alpha);
+                byte[] data = alpha ? encodePng(image) : encodeJpeg(image);
+                String key = derivativeKey(source.getStorageKey(), variant, alpha ? "png" : "jpg");
+                mediaStorage.put(key, data);
+                derivatives.add(new MediaDerivativeRow(variant.name(), key, alpha ? "image/png" : "image/jpeg",
+                        image.getWidth(), image.getHeight(), data.length));
+            }
+            if (!mediaDerivativeJdbcRepository.saveDerivatives(source.getBlobId(), derivatives, READY)) {
+                // The blob was swept while its derivatives were being made
+                deleteQuietly(derivatives);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Left unprocessed, so it is tried again when next asked for, up to the attempt limit
+            log.warn("Failed to make derivatives of image blob {}: {}", source.getBlobId(), e.toString());
+            deleteQuietly(derivatives);
+            if (mediaDerivativeJdbcRepository.recordFailedAttempt(source.getBlobId(), maxAttempts, FAILED)) {
+                failed.increment();
+                log.info("Image blob {} failed {} attempts; serving the original instead",
+                        source.getBlobId(), maxAttempts);
+            }
+        }
+    }
+    
+    private byte[] read(ImageSourceRow source) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) source.getSize());
+        mediaStorage.read(source.getStorageKey(), 0, source.getSize(), out);
+        return out.toByteArray();
+    }
+    
+    /**
+     * The image, decoded at reduced resolution when it is far larger than the
+     * largest variant, or null when it is not in a format ImageIO reads, is
+     * corrupt, or has more pixels than allowed.
+     */
+    private BufferedImage decode(byte[] data) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Checked from the header, before any pixel memory is allocated
+                if ((long) width * height > maxPixels) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, width / (largestWidth() * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IIOException | IllegalArgumentException e) {
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    /**
+     * The image scaled to at most {@code width} pixels wide, keeping its
+     * aspect ratio, by halving until the next step reaches the target:
+     * bilinear scaling by more than half at once skips pixels and aliases.
+     */
+    private static BufferedImage scale(BufferedImage source, int width, boolean alpha) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage current = source;
+        do {
+            int nextWidth = Math.max(current.getWidth() / 2, targetWidth);
+            int nextHeight = nextWidth == targetWidth ? targetHeight : Math.max(current.getHeight() / 2, targetHeight);
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() != targetWidth);
+        return current;
+    }
+    
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+    
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+    
+    // media/2024/05/<uuid>.png becomes media/2024/05/<uuid>.thumbnail.jpg
+    private static String derivativeKey(String sourceKey, MediaFile.ImageVariant variant, String extension) {
+        int slash = sourceKey.lastIndexOf('/');
+        int dot = sourceKey.lastIndexOf('.');
+        String base = dot > slash ? sourceKey.substring(0, dot) : sourceKey;
+        return base + "." + variant.pathName() + "." + extension;
+    }
+    
+    private static int largestWidth() {
+        int width = 0;
+        for (MediaFile.ImageVariant variant : MediaFile.ImageVariant.values()) {
+            width = Math.max(width, variant.getWidth());
+        }
+        return width;
+    }
+    
+    private void deleteQuietly(List<MediaDerivativeRow> derivatives) {
+        for (MediaDerivativeRow derivative : derivatives) {
+            try {
+                mediaStorage.delete(derivative.getStorageKey());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to delete {} from storage: {}", derivative.getStorageKey(), e.toString());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.response.ModuleOutlineResponse;
+import com.dharma.education.exception.ResourceNotFoundException;
+import com.dharma.education.repository.EnrollmentRepository;
+import com.dharma.education.repository.LearningModuleJdbcRepository;
+import com.dharma.education.repository.projection.ModuleContentBody;
+import com.dharma.education.repository.projection.ModuleContentInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Module outlines and lesson content. A body is gzipped once, when it is
+ * saved, and both forms are stored next to a hash of the body that serves as
+ * its ETag, so reads only pick a stored representation and never compress.
+ */
+@Service
+@Transactional
+@Slf4j
+@RequiredArgsConstructor
+public class LearningModuleService {
+    
+    public static final String GZIP = "gzip";
+    
+    private final LearningModuleJdbcRepository learningModuleJdbcRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseService courseService;
+    
+    @Transactional(readOnly = true)
+    public List<ModuleOutlineResponse> getOutline(Long courseId) {
+        return learningModuleJdbcRepository.findPublishedOutline(courseId).stream()
+                .map(row -> ModuleOutlineResponse.builder()
+                        .id(row.getId())
+                        .title(row.getTitle())
+                        .orderIndex(row.getOrderIndex())
+                        .durationMinutes(row.getDurationMinutes())
+                        .build())
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Content metadata for a student enrolled in the module's course, when the
+     * module is published, or for the course's teacher or an admin. A body
+     * carried over from before content was stored compressed is compressed
+     * here on its first read.
+     */
+    public ModuleContentInfo getContentInfo(Long moduleId, Long userId) {
+        ModuleContentInfo info = learningModuleJdbcRepository.findContentInfo(moduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Module content not found"));
+        if (!info.isPublished() || !enrollmentRepository.isEnrolled(userId, info.getCourseId())) {
+            courseService.verifyCourseManager(info.getCourseId(), userId,
+                    "You must be enrolled in the course to view this module");
+        }
+        if (info.isCompressed()) {
+            return info;
+        }
+        
+        byte[] body = learningModuleJdbcRepository.findBody(moduleId, false)
+                .map(ModuleContentBody::getBytes)
+                .orElseThrow(() -> new ResourceNotFoundException("Module content not found"));
+        byte[] gzip = gzip(body);
+        learningModuleJdbcRepository.saveCompressed(moduleId, gzip, hash(body));
+        return learningModuleJdbcRepository.findContentInfo(moduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Module content not found"));
+    }
+    
+    /**
+     * The stored body in the requested encoding with the ETag of that body,
+     * which differs from the one in the metadata if the content was replaced
+     * after the metadata was read.
+     */
+    @Transactional(readOnly = true)
+    public ModuleContentBody getBody(Long moduleId, boolean gzip) {
+        return learningModuleJdbcRepository.findBody(moduleId, gzip)
+                .filter(body -> body.getBytes() != null)
+                .orElseThrow(() -> new ResourceNotFoundException("Module content not found"));
+    }
+    
+    public void updateContent(Long moduleId, String content, Long userId) {
+        Long courseId = learningModuleJdbcRepository.findCourseId(moduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Module not found"));
+        courseService.verifyCourseManager(courseId, userId, "You can only edit modules of your own courses");
+        
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        byte[] gzip = gzip(body);
+        learningModuleJdbcRepository.saveContent(moduleId, content, body.length, gzip, hash(body));
+        log.debug("Stored content of module {}: {} bytes, {} gzipped", moduleId, body.length, gzip.length);
+    }
+    
+    /**
+     * Whether the gzip form is worth sending: the client accepts it and it is
+     * actually smaller, which short bodies often are not.
+     */
+    public static boolean shouldSendGzip(ModuleContentInfo info, String acceptEncoding) {
+        return info.getGzipLength() != null && info.getGzipLength() < info.getBodyLength()
+                && accepts(acceptEncoding, GZIP);
+    }
+    
+    // Each encoding of a body is a different representation, so each gets its own strong ETag
+    public static String etagOf(String hash, boolean gzip) {
+        return "\"" + hash + (gzip ? "-" + GZIP : "") + "\"";
+    }
+    
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean allowed = true;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        allowed = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        allowed = false;
+                    }
+                }
+            }
+            // An explicit entry wins over the wildcard, including gzip;q=0
+            if (coding.equals(encoding)) {
+                return allowed;
+            }
+            if (coding.equals("*")) {
+                wildcard = allowed;
+            }
+        }
+        return wildcard;
+    }
+    
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(body.length / 4, 64));
+        // Compressed once per save and sent many times, so the slowest level pays for itself
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    private static String hash(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,336 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.response.MediaUrlResponse;
+import com.dharma.education.entity.MediaFile;
+import com.dharma.education.entity.User;
+import com.dharma.education.exception.ResourceNotFoundException;
+import com.dharma.education.repository.EnrollmentRepository;
+import com.dharma.education.repository.MediaFileJdbcRepository;
+import com.dharma.education.repository.UserRepository;
+import com.dharma.education.repository.projection.MediaFileRow;
+import com.dharma.education.security.MediaUrlSigner;
+import com.dharma.education.storage.MediaStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serves stored media over HTTP with byte ranges, so players can seek.
+ * Stored files never change, so responses carry an immutable cache lifetime
+ * and a strong ETag that is also honoured in If-Range. Image variants are
+ * served the same way once made; until then the original is served in their
+ * place, marked to be revalidated.
+ *
+ * <p>Only public files, such as course covers, are served to anyone, and
+ * may be kept by shared caches for a year. Every other file needs a URL
+ * signed by {@link MediaUrlSigner}, handed out to users who may see the
+ * file, and is only cached privately until that URL expires.
+ *
+ * <p>Whole files and single ranges of a locally stored file are handed to
+ * Tomcat's sendfile, which has the kernel copy the file to the socket, so
+ * no bytes pass through the JVM. Everything else is copied by the storage
+ * backend in small fixed-size steps, so heap use stays flat however many
+ * streams are open.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MediaDownloadService {
+    
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    
+    // The original standing in for an image variant not made yet
+    private static final String CACHE_CONTROL_REVALIDATE = "public, no-cache";
+    private static final String CACHE_CONTROL_PRIVATE_REVALIDATE = "private, no-cache";
+    
+    // More ranges than a player ever asks for; beyond this the whole file is sent instead
+    private static final int MAX_RANGES = 16;
+    
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    private final MediaFileJdbcRepository mediaFileJdbcRepository;
+    private final MediaStorage mediaStorage;
+    private final ImageDerivativeService imageDerivativeService;
+    private final MediaUrlSigner mediaUrlSigner;
+    private final EnrollmentRepository enrollmentRepository;
+    private final UserRepository userRepository;
+    private final CourseService courseService;
+    
+    // The signature may be null for public files
+    public void serve(Long mediaFileId, Long expires, String signature, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        MediaFileRow file = findStored(mediaFileId);
+        serve(file, cacheControl(file, expires, signature), request, response);
+    }
+    
+    public void serveImage(Long mediaFileId, MediaFile.ImageVariant variant, Long expires, String signature,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaFileRow original = findStored(mediaFileId);
+        String cacheControl = cacheControl(original, expires, signature);
+        Optional<MediaFileRow> derivative = imageDerivativeService.findDerivative(mediaFileId, variant);
+        if (derivative.isPresent()) {
+            serve(derivative.get(), cacheControl, request, response);
+        } else {
+            serve(original, original.isPublicAccess() ? CACHE_CONTROL_REVALIDATE : CACHE_CONTROL_PRIVATE_REVALIDATE,
+                    request, response);
+        }
+    }
+    
+    /**
+     * A signed URL for the file and its image variants, for a user who may
+     * see it: anyone for a public file, its uploader, students enrolled in
+     * its course, and the course's teacher or an admin.
+     */
+    public MediaUrlResponse signUrl(Long mediaFileId, Long userId) {
+        MediaFileRow file = findStored(mediaFileId);
+        verifyCanView(file, userId);
+        
+        long expires = mediaUrlSigner.newExpiry();
+        String query = "?expires=" + expires + "&signature=" + mediaUrlSigner.sign(file.getId(), expires);
+        String base = "/api/media/" + file.getId();
+        Map<String, String> variants = null;
+        if (file.getFileType() != null && file.getFileType().toLowerCase(Locale.ROOT).startsWith("image/")) {
+            variants = new LinkedHashMap<>();
+            for (MediaFile.ImageVariant variant : MediaFile.ImageVariant.values()) {
+                variants.put(variant.pathName(), base + "/images/" + variant.pathName() + query);
+            }
+        }
+        return MediaUrlResponse.builder()
+                .mediaFileId(file.getId())
+                .url(base + "/content" + query)
+                .imageVariantUrls(variants)
+                .expiresAt(Instant.ofEpochSecond(expires))
+                .build();
+    }
+    
+    private void verifyCanView(MediaFileRow file, Long userId) {
+        if (file.isPublicAccess() || userId.equals(file.getUploadedBy())) {
+            return;
+        }
+        if (file.getCourseId() != null) {
+            if (!enrollmentRepository.isEnrolled(userId, file.getCourseId())) {
+                courseService.verifyCourseManager(file.getCourseId(), userId,
+                        "You must be enrolled in the course to view this media");
+            }
+            return;
+        }
+        boolean admin = userRepository.findById(userId)
+                .map(user -> user.getRole() == User.Role.ADMIN)
+                .orElse(false);
+        if (!admin) {
+            throw new ResourceNotFoundException("Media file not found");
+        }
+    }
+    
+    // Checks the file may be served, and how long it may then be cached and by whom
+    private String cacheControl(MediaFileRow file, Long expires, String signature) {
+        if (file.isPublicAccess()) {
+            return CACHE_CONTROL;
+        }
+        if (!mediaUrlSigner.verify(file.getId(), expires, signature)) {
+            throw new AccessDeniedException("This media file needs a current signed URL");
+        }
+        return "private, max-age=" + (expires - System.currentTimeMillis() / 1000) + ", immutable";
+    }
+    
+    private MediaFileRow findStored(Long mediaFileId) {
+        return mediaFileJdbcRepository.findStored(mediaFileId)
+                .orElseThrow(() -> new ResourceNotFoundException("Media file not found"));
+    }
+    
+    private void serve(MediaFileRow file, String cacheControl, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        String etag = "\"" + file.getFilename() + "\"";
+        long lastModified = file.getCreatedAt() != null
+                ? file.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+        
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        String contentType = file.getFileType() != null ? file.getFileType() : "application/octet-stream";
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(file, contentType));
+        
+        long size = file.getFileSize();
+        List<long[]> ranges = ranges(request, etag, lastModified, size);
+        if (ranges == null) {
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+            writeRegion(file, 0, size, request, response);
+        } else if (ranges.isEmpty()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+        } else if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, size));
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            writeRegion(file, range[0], range[1] - range[0] + 1, request, response);
+        } else {
+            writeMultipart(file, contentType, ranges, request, response);
+        }
+    }
+    
+    /**
+     * The satisfiable ranges asked for, as inclusive [start, end] pairs in the
+     * order given, an empty list when none is satisfiable, or null when the
+     * whole file should be sent: no Range header, an If-Range that no longer
+     * matches, or a range set that is malformed or not worth honouring.
+     */
+    private static List<long[]> ranges(HttpServletRequest request, String etag, long lastModified, long size) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !ifRangeMatches(request, etag, lastModified)) {
+            return null;
+        }
+        List<HttpRange> requested;
+        try {
+            requested = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (requested.isEmpty() || requested.size() > MAX_RANGES) {
+            return null;
+        }
+        
+        List<long[]> ranges = new ArrayList<>(requested.size());
+        long total = 0;
+        for (HttpRange range : requested) {
+            if (size == 0) {
+                continue;
+            }
+            long start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            if (start < size && start <= end) {
+                ranges.add(new long[]{start, end});
+                total += end - start + 1;
+            }
+        }
+        // Overlapping ranges could otherwise ask for the same bytes many times over
+        return total > size ? null : ranges;
+    }
+    
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return lastModified >= 0 && date >= 0 && date / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    private void writeRegion(MediaFileRow file, long start, long length, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+            return;
+        }
+        Optional<Path> path = mediaStorage.localPath(file.getStorageKey());
+        if (path.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file once the servlet returns; nothing may be written to the body
+            request.setAttribute(SENDFILE_FILENAME, path.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try {
+            mediaStorage.read(file.getStorageKey(), start, length, out);
+        } catch (IOException e) {
+            clientGone(file, response, e);
+        }
+    }
+    
+    private void writeMultipart(MediaFileRow file, String contentType, List<long[]> ranges,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String boundary = UUID.randomUUID().toString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long length = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, file.getFileSize()) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            length += partHeader.length + range[1] - range[0] + 1;
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        length += end.length;
+        
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(length);
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                out.write(partHeaders.get(i));
+                mediaStorage.read(file.getStorageKey(), range[0], range[1] - range[0] + 1, out);
+            }
+            out.write(end);
+        } catch (IOException e) {
+            clientGone(file, response, e);
+        }
+    }
+    
+    // Players drop connections whenever the user seeks, so a failure once bytes are on the wire is routine
+    private static void clientGone(MediaFileRow file, HttpServletResponse response, IOException e) throws IOException {
+        if (!response.isCommitted()) {
+            throw e;
+        }
+        log.debug("Stopped sending media file {}: {}", file.getId(), e.toString());
+    }
+    
+    private static String contentRange(long[] range, long size) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + size;
+    }
+    
+    // Uploaded markup could run script on this origin, so only passive types are shown inline
+    private static String contentDisposition(MediaFileRow file, String contentType) {
+        String type = contentType.toLowerCase(Locale.ROOT);
+        boolean inline = type.startsWith("video/") || type.startsWith("audio/")
+                || (type.startsWith("image/") && !type.startsWith("image/svg"))
+                || type.equals("application/pdf") || type.startsWith("text/plain");
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getFilename();
+        return (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                .filename(filename, StandardCharsets.UTF_8)
+                .build()
+                .toString();
+    }
+}
\ No newline at end of file
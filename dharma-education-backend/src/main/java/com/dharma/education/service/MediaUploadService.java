@@ -0,0 +1,622 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.request.MediaUploadRequest;
+import com.dharma.education.dto.response.MediaFileResponse;
+import com.dharma.education.dto.response.MediaUploadResponse;
+import com.dharma.education.entity.MediaFile;
+import com.dharma.education.entity.User;
+import com.dharma.education.exception.BadRequestException;
+import com.dharma.education.exception.ResourceNotFoundException;
+import com.dharma.education.repository.MediaFileJdbcRepository;
+import com.dharma.education.repository.MediaUploadJdbcRepository;
+import com.dharma.education.repository.UserRepository;
+import com.dharma.education.repository.projection.MediaFileRow;
+import com.dharma.education.repository.projection.MediaUploadPart;
+import com.dharma.education.repository.projection.MediaUploadRow;
+import com.dharma.education.storage.MediaStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Streams uploaded media into the configured MediaStorage. A file is sent as
+ * fixed-size chunks that each go straight from the request to storage as one
+ * part, so memory use does not depend on the file size, and an interrupted
+ * upload resumes by sending only the chunks storage does not have yet.
+ *
+ * <p>Stored content is deduplicated. Each chunk is hashed as it streams
+ * through, one SHA-256 per 4 MiB block, and the content hash is the SHA-256
+ * of those block digests in order, so chunks may arrive in any order and
+ * nothing is read twice. An upload whose hash is already stored becomes a
+ * new media file referencing the existing blob, and its own parts are
+ * discarded; a client that declares the hash up front skips sending the
+ * file at all. Blobs no file references any more are deleted by a sweeper.
+ *
+ * <p>Nothing here runs in a transaction: every database write is a single
+ * statement, so no connection is held while a chunk is being received.
+ */
+@Service
+@Slf4j
+public class MediaUploadService {
+    
+    // S3 allows at most this many parts per multipart upload
+    private static final int MAX_CHUNKS = 10_000;
+    
+    // Chunks are a whole number of blocks, so block digests do not depend on the chunk size
+    private static final int BLOCK_SIZE = 4 * 1024 * 1024;
+    
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+    
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+    
+    private static final String UPLOADING = MediaUploadResponse.Status.UPLOADING.name();
+    private static final String COMPLETING = MediaUploadResponse.Status.COMPLETING.name();
+    private static final String COMPLETED = MediaUploadResponse.Status.COMPLETED.name();
+    private static final String ABORTED = MediaUploadResponse.Status.ABORTED.name();
+    
+    private final MediaUploadJdbcRepository mediaUploadJdbcRepository;
+    private final MediaFileJdbcRepository mediaFileJdbcRepository;
+    private final MediaStorage mediaStorage;
+    private final CourseService courseService;
+    private final UserRepository userRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final int chunkSize;
+    private final long maxFileSize;
+    private final long expiryHours;
+    
+    public MediaUploadService(MediaUploadJdbcRepository mediaUploadJdbcRepository,
+                              MediaFileJdbcRepository mediaFileJdbcRepository,
+                              MediaStorage mediaStorage,
+                              CourseService courseService,
+                              UserRepository userRepository,
+                              ImageDerivativeService imageDerivativeService,
+                              @Value("${app.mediaChunkSizeBytes:8388608}") int chunkSize,
+                              @Value("${app.mediaMaxFileSizeBytes:10737418240}") long maxFileSize,
+                              @Value("${app.mediaUploadExpiryHours:24}") long expiryHours) {
+        this.mediaUploadJdbcRepository = mediaUploadJdbcRepository;
+        this.mediaFileJdbcRepository = mediaFileJdbcRepository;
+        this.mediaStorage = mediaStorage;
+        this.courseService = courseService;
+        this.userRepository = userRepository;
+        this.imageDerivativeService = imageDerivativeService;
+        long blocks = (Math.max(chunkSize, mediaStorage.minPartSize()) + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        this.chunkSize = (int) (blocks * BLOCK_SIZE);
+        this.maxFileSize = Math.min(maxFileSize, (long) this.chunkSize * MAX_CHUNKS);
+        this.expiryHours = expiryHours;
+    }
+    
+    /**
+     * Starts a resumable upload, or, when the request declares the content hash
+     * of one of the user's own stored files, creates the media file straight
+     * away and returns a completed upload with no chunks to send.
+     */
+    public MediaUploadResponse startUpload(MediaUploadRequest request, Long userId) throws IOException {
+        validate(request.getFilename(), request.getContentType(), request.getSize(), request.getCourseId(), userId);
+        Optional<MediaFileResponse> existing = fromStoredContent(request.getFilename(), request.getContentType(),
+                request.getSize(), request.getCourseId(), request.getContentHash(), userId);
+        if (existing.isPresent()) {
+            return MediaUploadResponse.builder()
+                    .status(MediaUploadResponse.Status.COMPLETED)
+                    .filename(request.getFilename())
+                    .contentType(request.getContentType())
+                    .totalSize(request.getSize())
+                    .chunkSize(chunkSize)
+                    .receivedChunks(List.of())
+                    .receivedBytes(request.getSize())
+                    .mediaFileId(existing.get().getId())
+                    .build();
+        }
+        MediaUploadRow upload = start(request.getFilename(), request.getContentType(), request.getSize(),
+                request.getCourseId(), request.getContentHash(), userId);
+        return toResponse(upload, List.of());
+    }
+    
+    /**
+     * Stores one chunk, read from {@code data}, replacing an earlier copy of
+     * it. Chunk {@code index} covers bytes {@code index * chunkSize} up to the
+     * next chunk or the end of the file.
+     */
+    public void uploadChunk(Long uploadId, int index, InputStream data, long contentLength, Long userId)
+            throws IOException {
+        MediaUploadRow upload = findOwnUpload(uploadId, userId);
+        if (!UPLOADING.equals(upload.getStatus())) {
+            throw new BadRequestException("Upload is " + upload.getStatus().toLowerCase(Locale.ROOT));
+        }
+        if (index < 0 || index >= upload.getChunkCount()) {
+            throw new BadRequestException("Chunk index must be between 0 and " + (upload.getChunkCount() - 1));
+        }
+        long length = upload.chunkLength(index);
+        if (contentLength >= 0 && contentLength != length) {
+            throw new BadRequestException("Chunk " + index + " must be " + length + " bytes");
+        }
+        writeChunk(upload, index, data);
+    }
+    
+    public MediaUploadResponse getUpload(Long uploadId, Long userId) {
+        MediaUploadRow upload = findOwnUpload(uploadId, userId);
+        return toResponse(upload, mediaUploadJdbcRepository.findParts(upload.getId()));
+    }
+    
+    /**
+     * Records the upload as a media file once all chunks have arrived. Content
+     * that is already stored is referenced and the upload's parts discarded;
+     * anything else is assembled into a new stored blob.
+     */
+    public MediaFileResponse completeUpload(Long uploadId, Long userId) throws IOException {
+        MediaUploadRow upload = findOwnUpload(uploadId, userId);
+        // Claimed before the parts are read, so they are final: a chunk finishing now cannot record its
+        // part, and each recorded part's storage tag pins the bytes that were hashed and get assembled
+        if (!mediaUploadJdbcRepository.transition(upload.getId(), UPLOADING, COMPLETING)) {
+            throw new BadRequestException("Upload is " + findOwnUpload(uploadId, userId).getStatus()
+                    .toLowerCase(Locale.ROOT));
+        }
+        
+        MediaFile.MediaType mediaType = mediaTypeOf(upload.getContentType());
+        List<MediaUploadPart> parts;
+        String contentHash;
+        Optional<Long> mediaFileId;
+        try {
+            parts = mediaUploadJdbcRepository.findParts(upload.getId());
+            if (parts.size() != upload.getChunkCount()) {
+                throw new BadRequestException("Upload has " + parts.size() + " of " + upload.getChunkCount()
+                        + " chunks");
+            }
+            contentHash = contentHash(upload, parts);
+            if (upload.getContentHash() != null && contentHash != null
+                    && !upload.getContentHash().equals(contentHash)) {
+                throw new BadRequestException("The content received does not match the declared content hash");
+            }
+            mediaFileId = contentHash == null ? Optional.empty()
+                    : mediaUploadJdbcRepository.completeFromBlob(upload, contentHash, mediaType.name(), COMPLETED);
+            if (mediaFileId.isEmpty()) {
+                List<String> partTags = new ArrayList<>(parts.size());
+                for (MediaUploadPart part : parts) {
+                    partTags.add(part.getPartTag());
+                }
+                mediaStorage.completeUpload(upload.getStorageKey(), upload.getStorageUploadId(), partTags);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The parts are still there, so the client may send chunks again and retry the completion
+            mediaUploadJdbcRepository.transition(upload.getId(), COMPLETING, UPLOADING);
+            throw e;
+        }
+        
+        MediaFileRow file;
+        if (mediaFileId.isPresent()) {
+            discardQuietly(upload);
+            file = findStoredFile(mediaFileId.get());
+            log.info("Stored upload {} as media file {}, sharing the {} bytes already stored as {}",
+                    upload.getId(), file.getId(), upload.getTotalSize(), file.getStorageKey());
+        } else {
+            file = findStoredFile(mediaUploadJdbcRepository.completeWithNewBlob(upload, contentHash, mediaType.name(),
+                    COMPLETED));
+            if (!file.getStorageKey().equals(upload.getStorageKey())) {
+                // The same content was stored by another upload completing at the same time
+                deleteQuietly(upload.getStorageKey());
+            }
+            log.info("Stored upload {} as media file {}: {} bytes in {} chunks",
+                    upload.getId(), file.getId(), upload.getTotalSize(), parts.size());
+        }
+        requestDerivatives(file.getId(), mediaType);
+        return toFileResponse(file, mediaType, upload.getCourseId());
+    }
+    
+    public void abortUpload(Long uploadId, Long userId) throws IOException {
+        MediaUploadRow upload = findOwnUpload(uploadId, userId);
+        if (!mediaUploadJdbcRepository.transition(upload.getId(), UPLOADING, ABORTED)) {
+            throw new BadRequestException("Upload is " + upload.getStatus().toLowerCase(Locale.ROOT));
+        }
+        mediaStorage.abortUpload(upload.getStorageKey(), upload.getStorageUploadId());
+    }
+    
+    /**
+     * Uploads a whole file sent as one request body of known length, cutting
+     * it into chunks as it is read. When the declared content hash is that of
+     * one of the user's own stored files the body is not read at all. Nothing is kept if the body ends
+     * early or storage fails.
+     */
+    public MediaFileResponse uploadFile(String filename, String contentType, long contentLength, Long courseId,
+                                        String contentHash, InputStream data, Long userId) throws IOException {
+        if (contentLength <= 0) {
+            throw new BadRequestException("A Content-Length is required");
+        }
+        if (contentHash != null && !CONTENT_HASH.matcher(contentHash).matches()) {
+            throw new BadRequestException("Content hash must be 64 lowercase hex characters");
+        }
+        validate(filename, contentType, contentLength, courseId, userId);
+        Optional<MediaFileResponse> existing = fromStoredContent(filename, contentType, contentLength, courseId,
+                contentHash, userId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        MediaUploadRow upload = start(filename, contentType, contentLength, courseId, contentHash, userId);
+        try {
+            for (int index = 0; index < upload.getChunkCount(); index++) {
+                writeChunk(upload, index, data);
+            }
+            return completeUpload(upload.getId(), userId);
+        } catch (IOException | RuntimeException e) {
+            abortQuietly(upload);
+            throw e;
+        }
+    }
+    
+    /**
+     * Aborts uploads that have not received a chunk within the expiry, and
+     * completions that never finished, freeing their parts in storage.
+     */
+    @Scheduled(fixedDelayString = "${app.mediaUploadSweepIntervalMs:3600000}",
+               initialDelayString = "${app.mediaUploadSweepIntervalMs:3600000}")
+    public void expireIdleUploads() {
+        LocalDateTime idleSince = LocalDateTime.now().minusHours(expiryHours);
+        List<MediaUploadRow> idle = mediaUploadJdbcRepository.findIdle(List.of(UPLOADING, COMPLETING), idleSince, 1000);
+        for (MediaUploadRow upload : idle) {
+            if (mediaUploadJdbcRepository.transition(upload.getId(), upload.getStatus(), ABORTED)) {
+                abortQuietly(upload);
+                if (COMPLETING.equals(upload.getStatus())) {
+                    // Storage may have assembled the object before the completion was lost
+                    deleteQuietly(upload.getStorageKey());
+                }
+            }
+        }
+        if (!idle.isEmpty()) {
+            log.info("Expired {} idle media uploads", idle.size());
+        }
+    }
+    
+    /**
+     * Deletes a media file uploaded by the user, or any media file for an
+     * admin. The stored bytes go once no other file shares them.
+     */
+    public void deleteFile(Long mediaFileId, Long userId) {
+        boolean admin = userRepository.findById(userId)
+                .map(user -> user.getRole() == User.Role.ADMIN)
+                .orElse(false);
+        if (!mediaFileJdbcRepository.delete(mediaFileId, userId, admin)) {
+            throw new ResourceNotFoundException("Media file not found");
+        }
+    }
+    
+    /**
+     * Deletes blobs no media file references any more, and their image
+     * derivatives, from the database first so they cannot be referenced
+     * again, then from storage.
+     */
+    @Scheduled(fixedDelayString = "${app.mediaBlobSweepIntervalMs:600000}",
+               initialDelayString = "${app.mediaBlobSweepIntervalMs:600000}")
+    public void deleteOrphanedBlobs() {
+        int deleted = 0;
+        List<String> keys;
+        do {
+            keys = mediaFileJdbcRepository.deleteOrphanedBlobs(1000);
+            for (String key : keys) {
+                deleteQuietly(key);
+            }
+            deleted += keys.size();
+            // A batch also returns the blobs' derivatives, so a full one has at least as many keys
+        } while (keys.size() >= 1000);
+        if (deleted > 0) {
+            log.info("Deleted {} stored objects no media file uses", deleted);
+        }
+    }
+    
+    private void validate(String filename, String contentType, long size, Long courseId, Long userId) {
+        if (filename == null || filename.isBlank() || filename.length() > 255) {
+            throw new BadRequestException("Filename is required and cannot exceed 255 characters");
+        }
+        if (contentType == null || contentType.isBlank() || contentType.length() > 100) {
+            throw new BadRequestException("Content type is required and cannot exceed 100 characters");
+        }
+        if (size > maxFileSize) {
+            throw new BadRequestException("File cannot exceed " + maxFileSize + " bytes");
+        }
+        if (courseId != null) {
+            courseService.verifyCourseManager(courseId, userId, "You can only upload media to your own courses");
+        }
+    }
+    
+    private Optional<MediaFileResponse> fromStoredContent(String filename, String contentType, long size,
+                                                          Long courseId, String contentHash, Long userId) {
+        if (contentHash == null) {
+            return Optional.empty();
+        }
+        MediaFile.MediaType mediaType = mediaTypeOf(contentType);
+        return mediaFileJdbcRepository.createFromBlob(contentHash, size, filename, contentType, mediaType.name(),
+                        userId, courseId)
+                .map(id -> {
+                    log.info("Stored {} as media file {} without an upload, its content was already stored",
+                            filename, id);
+                    requestDerivatives(id, mediaType);
+                    return toFileResponse(findStoredFile(id), mediaType, courseId);
+                });
+    }
+    
+    // Expects the arguments to have passed validate
+    private MediaUploadRow start(String filename, String contentType, long size, Long courseId, String contentHash,
+                                 Long userId) throws IOException {
+        String key = newStorageKey(filename);
+        String storageUploadId = mediaStorage.startUpload(key);
+        long id = mediaUploadJdbcRepository.create(userId, courseId, filename, contentType, size, chunkSize,
+                key, storageUploadId, UPLOADING, contentHash);
+        return mediaUploadJdbcRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+    }
+    
+    private void writeChunk(MediaUploadRow upload, int index, InputStream data) throws IOException {
+        long length = upload.chunkLength(index);
+        ChunkInputStream chunk = new ChunkInputStream(data, length);
+        String partTag;
+        try {
+            partTag = mediaStorage.writePart(upload.getStorageKey(), upload.getStorageUploadId(), index + 1,
+                    chunk, length);
+        } catch (IOException | RuntimeException e) {
+            if (chunk.isShort()) {
+                throw new BadRequestException("Chunk " + index + " ended after " + chunk.getCount()
+                        + " of " + length + " bytes");
+            }
+            throw e;
+        }
+        if (chunk.isShort()) {
+            throw new BadRequestException("Chunk " + index + " ended after " + chunk.getCount()
+                    + " of " + length + " bytes");
+        }
+        if (!mediaUploadJdbcRepository.savePart(upload.getId(), UPLOADING, index + 1, length, partTag,
+                chunk.blockHashes())) {
+            throw new BadRequestException("Upload is no longer accepting chunks");
+        }
+    }
+    
+    private MediaUploadRow findOwnUpload(Long uploadId, Long userId) {
+        return mediaUploadJdbcRepository.findById(uploadId)
+                .filter(upload -> upload.getUploadedBy() == userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+    }
+    
+    // Images get their scaled-down variants made in the background
+    private void requestDerivatives(long mediaFileId, MediaFile.MediaType mediaType) {
+        if (mediaType != MediaFile.MediaType.IMAGE) {
+            return;
+        }
+        try {
+            imageDerivativeService.request(mediaFileId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to request derivatives of media file {}: {}", mediaFileId, e.toString());
+        }
+    }
+    
+    private MediaFileRow findStoredFile(long mediaFileId) {
+        return mediaFileJdbcRepository.findStored(mediaFileId)
+                .orElseThrow(() -> new ResourceNotFoundException("Media file not found"));
+    }
+    
+    private void abortQuietly(MediaUploadRow upload) {
+        mediaUploadJdbcRepository.transition(upload.getId(), UPLOADING, ABORTED);
+        discardQuietly(upload);
+    }
+    
+    // Frees the upload's parts in storage without touching its status
+    private void discardQuietly(MediaUploadRow upload) {
+        try {
+            mediaStorage.abortUpload(upload.getStorageKey(), upload.getStorageUploadId());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to abort upload {} in storage: {}", upload.getId(), e.toString());
+        }
+    }
+    
+    private void deleteQuietly(String key) {
+        try {
+            mediaStorage.delete(key);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete {} from storage: {}", key, e.toString());
+        }
+    }
+    
+    private MediaUploadResponse toResponse(MediaUploadRow upload, List<MediaUploadPart> parts) {
+        List<Integer> received = new ArrayList<>(parts.size());
+        long receivedBytes = 0;
+        for (MediaUploadPart part : parts) {
+            received.add(part.getPartNumber() - 1);
+            receivedBytes += part.getSize();
+        }
+        return MediaUploadResponse.builder()
+                .uploadId(upload.getId())
+                .status(MediaUploadResponse.Status.valueOf(upload.getStatus()))
+                .filename(upload.getOriginalFilename())
+                .contentType(upload.getContentType())
+                .totalSize(upload.getTotalSize())
+                .chunkSize(upload.getChunkSize())
+                .chunkCount(upload.getChunkCount())
+                .receivedChunks(received)
+                .receivedBytes(receivedBytes)
+                .mediaFileId(upload.getMediaFileId())
+                .build();
+    }
+    
+    private static MediaFileResponse toFileResponse(MediaFileRow file, MediaFile.MediaType mediaType, Long courseId) {
+        return MediaFileResponse.builder()
+                .id(file.getId())
+                .filename(file.getFilename())
+                .originalFilename(file.getOriginalFilename())
+                .fileType(file.getFileType())
+                .fileSize(file.getFileSize())
+                .mediaType(mediaType)
+                .fileUrl("/api/media/" + file.getId() + "/content")
+                .contentHash(file.getContentHash())
+                .courseId(courseId)
+                .build();
+    }
+    
+    /**
+     * The SHA-256 of the block digests of all parts in order, or null when
+     * some part was stored before hashing or with chunks not made of whole
+     * blocks; such uploads are stored without deduplication.
+     */
+    private static String contentHash(MediaUploadRow upload, List<MediaUploadPart> parts) {
+        if (upload.getChunkSize() % BLOCK_SIZE != 0) {
+            return null;
+        }
+        MessageDigest digest = sha256();
+        for (MediaUploadPart part : parts) {
+            if (part.getBlockHashes() == null) {
+                return null;
+            }
+            digest.update(part.getBlockHashes());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    // Keys are generated, never taken from the client; only a sanitized extension is kept
+    private static String newStorageKey(String filename) {
+        LocalDate today = LocalDate.now();
+        String key = String.format("media/%d/%02d/%s", today.getYear(), today.getMonthValue(), UUID.randomUUID());
+        int dot = filename.lastIndexOf('.');
+        if (dot >= 0) {
+            String extension = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+            if (EXTENSION.matcher(extension).matches()) {
+                key += "." + extension;
+            }
+        }
+        return key;
+    }
+    
+    private static MediaFile.MediaType mediaTypeOf(String contentType) {
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("image/")) {
+            return MediaFile.MediaType.IMAGE;
+        }
+        if (type.startsWith("video/")) {
+            return MediaFile.MediaType.VIDEO;
+        }
+        if (type.startsWith("audio/")) {
+            return MediaFile.MediaType.AUDIO;
+        }
+        if (type.startsWith("text/") || type.equals("application/pdf") || type.contains("document")
+                || type.contains("presentation") || type.contains("spreadsheet") || type.equals("application/msword")) {
+            return MediaFile.MediaType.DOCUMENT;
+        }
+        return MediaFile.MediaType.OTHER;
+    }
+    
+    /**
+     * At most {@code length} bytes of the request body, hashed block by block
+     * as they are read. Closing it leaves the request stream open, since one
+     * body may be read as several chunks.
+     */
+    private static final class ChunkInputStream extends FilterInputStream {
+        
+        private final long length;
+        private long count;
+        private final MessageDigest block = sha256();
+        private final ByteArrayOutputStream blockHashes = new ByteArrayOutputStream();
+        
+        ChunkInputStream(InputStream in, long length) {
+            super(in);
+            this.length = length;
+        }
+        
+        long getCount() {
+            return count;
+        }
+        
+        boolean isShort() {
+            return count < length;
+        }
+        
+        // Valid once the whole chunk has been read
+        byte[] blockHashes() {
+            return blockHashes.toByteArray();
+        }
+        
+        @Override
+        public int read() throws IOException {
+            if (count >= length) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                hash(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int len) throws IOException {
+            if (count >= length) {
+                return -1;
+            }
+            int n = in.read(buffer, offset, (int) Math.min(len, length - count));
+            if (n > 0) {
+                hash(buffer, offset, n);
+            }
+            return n;
+        }
+        
+        // Skipped bytes still have to be hashed, so they are read
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[8192];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+        
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), length - count);
+        }
+        
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        // Chunks start on a block boundary, so a block ends every BLOCK_SIZE bytes and at the chunk's end
+        private void hash(byte[] buffer, int offset, int n) {
+            while (n > 0) {
+                int take = (int) Math.min(n, BLOCK_SIZE - count % BLOCK_SIZE);
+                block.update(buffer, offset, take);
+                count += take;
+                offset += take;
+                n -= take;
+                if (count % BLOCK_SIZE == 0 || count == length) {
+                    blockHashes.writeBytes(block.digest());
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
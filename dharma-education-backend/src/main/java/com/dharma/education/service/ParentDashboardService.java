@@ -0,0 +1,200 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.response.EnrolledCourseResponse;
+import com.dharma.education.dto.response.ParentDashboardResponse;
+import com.dharma.education.entity.User;
+import com.dharma.education.exception.BadRequestException;
+import com.dharma.education.exception.ResourceNotFoundException;
+import com.dharma.education.repository.AssessmentJdbcRepository;
+import com.dharma.education.repository.ParentStudentJdbcRepository;
+import com.dharma.education.repository.StudentProgressJdbcRepository;
+import com.dharma.education.repository.UserRepository;
+import com.dharma.education.repository.projection.ChildRow;
+import com.dharma.education.repository.projection.ProgressSummaryRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the parent dashboard in one request. Every child's enrollments,
+ * progress summary and recent assessment results are fetched concurrently
+ * on a bounded pool and awaited against a single deadline; a section that
+ * fails, misses the deadline or finds the pool full is left out and the
+ * child is marked partial instead of failing the whole response.
+ */
+@Service
+@Slf4j
+public class ParentDashboardService {
+    
+    private static final String ENROLLMENTS = "enrollments";
+    private static final String PROGRESS = "progress";
+    private static final String RECENT_RESULTS = "recentResults";
+    
+    private final ParentStudentJdbcRepository parentStudentJdbcRepository;
+    private final StudentProgressJdbcRepository studentProgressJdbcRepository;
+    private final AssessmentJdbcRepository assessmentJdbcRepository;
+    private final UserRepository userRepository;
+    private final CourseService courseService;
+    private final long deadlineMs;
+    private final int recentResultsLimit;
+    private final ThreadPoolExecutor executor;
+    
+    private final Counter sectionsLoaded;
+    private final Counter sectionsTimedOut;
+    private final Counter sectionsFailed;
+    
+    public ParentDashboardService(ParentStudentJdbcRepository parentStudentJdbcRepository,
+                                  StudentProgressJdbcRepository studentProgressJdbcRepository,
+                                  AssessmentJdbcRepository assessmentJdbcRepository,
+                                  UserRepository userRepository,
+                                  CourseService courseService,
+                                  @Value("${app.parentDashboardDeadlineMs:2000}") long deadlineMs,
+                                  @Value("${app.parentDashboardRecentResults:10}") int recentResultsLimit,
+                                  @Value("${app.parentDashboardThreads:8}") int threads,
+                                  @Value("${app.parentDashboardQueueCapacity:256}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this.parentStudentJdbcRepository = parentStudentJdbcRepository;
+        this.studentProgressJdbcRepository = studentProgressJdbcRepository;
+        this.assessmentJdbcRepository = assessmentJdbcRepository;
+        this.userRepository = userRepository;
+        this.courseService = courseService;
+        this.deadlineMs = deadlineMs;
+        this.recentResultsLimit = recentResultsLimit;
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "parent-dashboard-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        this.sectionsLoaded = Counter.builder("parent.dashboard.sections")
+                .tag("result", "loaded")
+                .register(meterRegistry);
+        this.sectionsTimedOut = Counter.builder("parent.dashboard.sections")
+                .tag("result", "timeout")
+                .register(meterRegistry);
+        this.sectionsFailed = Counter.builder("parent.dashboard.sections")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public ParentDashboardResponse getDashboard(Long parentId) {
+        List<ChildRow> children = parentStudentJdbcRepository.findChildren(parentId);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        
+        // Start every call before waiting on any, so the slowest one bounds the response time
+        List<Future<List<EnrolledCourseResponse>>> enrollments = new ArrayList<>(children.size());
+        List<Future<ProgressSummaryRow>> progress = new ArrayList<>(children.size());
+        List<Future<List<ParentDashboardResponse.RecentResult>>> recentResults = new ArrayList<>(children.size());
+        for (ChildRow child : children) {
+            Long studentId = child.getStudentId();
+            enrollments.add(submit(() -> courseService.getEnrolledCourses(studentId)));
+            progress.add(submit(() -> studentProgressJdbcRepository.findProgressSummary(studentId)));
+            recentResults.add(submit(() -> assessmentJdbcRepository.findRecentResults(studentId, recentResultsLimit)
+                    .stream()
+                    .map(row -> new ParentDashboardResponse.RecentResult(row.getCourseId(), row.getCourseTitle(),
+                            row.getAssessmentId(), row.getAssessmentTitle(), row.getScore(), row.isPassed(),
+                            row.getSubmittedAt()))
+                    .collect(Collectors.toList())));
+        }
+        
+        ParentDashboardResponse response = new ParentDashboardResponse();
+        for (int i = 0; i < children.size(); i++) {
+            ChildRow child = children.get(i);
+            List<String> unavailable = new ArrayList<>();
+            ProgressSummaryRow summary = await(progress.get(i), deadline, PROGRESS, child, unavailable);
+            ParentDashboardResponse.Child entry = ParentDashboardResponse.Child.builder()
+                    .studentId(child.getStudentId())
+                    .firstName(child.getFirstName())
+                    .lastName(child.getLastName())
+                    .gradeLevel(child.getGradeLevel())
+                    .enrollments(await(enrollments.get(i), deadline, ENROLLMENTS, child, unavailable))
+                    .progress(summary == null ? null : new ParentDashboardResponse.ProgressSummary(
+                            summary.getModulesCompleted(), summary.getTimeSpentSeconds(), summary.getLastActiveAt()))
+                    .recentResults(await(recentResults.get(i), deadline, RECENT_RESULTS, child, unavailable))
+                    .partial(!unavailable.isEmpty())
+                    .unavailable(unavailable)
+                    .build();
+            response.getChildren().add(entry);
+            response.setPartial(response.isPartial() || entry.isPartial());
+        }
+        return response;
+    }
+    
+    public void linkChild(Long parentId, Long studentId) {
+        requireRole(parentId, User.Role.PARENT, "Parent not found");
+        requireRole(studentId, User.Role.STUDENT, "Student not found");
+        if (parentStudentJdbcRepository.link(parentId, studentId)) {
+            log.info("Linked student {} to parent {}", studentId, parentId);
+        }
+    }
+    
+    public void unlinkChild(Long parentId, Long studentId) {
+        if (!parentStudentJdbcRepository.unlink(parentId, studentId)) {
+            throw new ResourceNotFoundException("Parent and student are not linked");
+        }
+    }
+    
+    private void requireRole(Long userId, User.Role role, String notFoundMessage) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(notFoundMessage));
+        if (user.getRole() != role) {
+            throw new BadRequestException("User " + userId + " is not a " + role.name().toLowerCase());
+        }
+    }
+    
+    private <T> Future<T> submit(Callable<T> call) {
+        try {
+            return executor.submit(call);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private <T> T await(Future<T> future, long deadline, String section, ChildRow child, List<String> unavailable) {
+        try {
+            T result = future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            sectionsLoaded.increment();
+            return result;
+        } catch (TimeoutException e) {
+            // Interrupt the call so a stuck query does not hold a pool thread longer than needed
+            future.cancel(true);
+            sectionsTimedOut.increment();
+            log.warn("Parent dashboard {} for student {} missed the {} ms deadline", section, child.getStudentId(), deadlineMs);
+        } catch (ExecutionException e) {
+            sectionsFailed.increment();
+            log.warn("Parent dashboard {} for student {} failed: {}", section, child.getStudentId(), e.getCause().toString());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        unavailable.add(section);
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.dharma.education.service;
+
+import com.dharma.education.exception.ServiceUnavailableException;
+import com.dharma.education.repository.StudentProgressJdbcRepository;
+import com.dharma.education.repository.StudentProgressJdbcRepository.ProgressDelta;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for progress heartbeats. Heartbeats are merged in
+ * memory per (student, module), and a scheduled flush writes everything
+ * accumulated since the previous flush in batched upserts, so a class full
+ * of students costs one statement per batch instead of one per heartbeat.
+ * Heartbeats not yet flushed are lost if the instance dies; at most one
+ * flush interval of viewing time is at stake.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProgressIngestor {
+    
+    private static final Comparator<ProgressDelta> BY_KEY = Comparator
+            .comparingLong(ProgressDelta::studentId)
+            .thenComparingLong(ProgressDelta::moduleId);
+    
+    private final StudentProgressJdbcRepository studentProgressJdbcRepository;
+    
+    @Value("${app.progressFlushBatchSize:1000}")
+    private int flushBatchSize;
+    
+    @Value("${app.progressMaxPendingKeys:200000}")
+    private int maxPendingKeys;
+    
+    private final Map<Key, ProgressDelta> pending = new ConcurrentHashMap<>();
+    
+    public void record(Long studentId, Long moduleId, int seconds, boolean completed) {
+        Key key = new Key(studentId, moduleId);
+        if (pending.size() >= maxPendingKeys && !pending.containsKey(key)) {
+            throw new ServiceUnavailableException("Progress updates are backing up, please retry shortly", 5);
+        }
+        ProgressDelta delta = new ProgressDelta(studentId, moduleId, seconds,
+                completed ? LocalDateTime.now() : null);
+        pending.merge(key, delta, ProgressDelta::plus);
+    }
+    
+    /**
+     * Progress recorded on this instance for the module that is not yet
+     * written, or null if there is none.
+     */
+    public ProgressDelta pending(Long studentId, Long moduleId) {
+        return pending.get(new Key(studentId, moduleId));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.progressFlushIntervalMs:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<ProgressDelta> drained = new ArrayList<>(pending.size());
+        for (Key key : pending.keySet()) {
+            ProgressDelta delta = pending.remove(key);
+            if (delta != null) {
+                drained.add(delta);
+            }
+        }
+        // Same row order on every instance so concurrent flushes cannot deadlock
+        drained.sort(BY_KEY);
+        
+        int batchSize = Math.max(flushBatchSize, 1);
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<ProgressDelta> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                studentProgressJdbcRepository.applyProgress(batch);
+            } catch (DataAccessException e) {
+                // Merge the batch back so it is retried with whatever arrives meanwhile
+                batch.forEach(delta -> pending.merge(new Key(delta.studentId(), delta.moduleId()),
+                        delta, ProgressDelta::plus));
+                log.warn("Failed to flush {} progress updates: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+    
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+    
+    private record Key(long studentId, long moduleId) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.dharma.education.service;
+
+import com.dharma.education.repository.StudentProgressJdbcRepository;
+import com.dharma.education.repository.projection.ModuleHeader;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a course's students x modules progress grid. Rows come from one
+ * ordered cursor and are folded into a single reused bitset and score array
+ * per student, which is written out before the next student is read, so heap
+ * use does not grow with the size of the class.
+ *
+ * <p>The binary form is big-endian: the int magic {@code RPM1}, the course id
+ * as a long, the module count as an int and each module id as a long, then
+ * until the end of the stream one record per student: the student id as a
+ * long, the name as modified UTF-8, the completion bitset as
+ * {@code (modules + 7) / 8} bytes with module i in bit {@code i % 8} of byte
+ * {@code i / 8}, and a short score per module, -1 when there is none.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ProgressMatrixService {
+    
+    private static final int BINARY_MAGIC = 0x52504D31;
+    private static final int NO_SCORE = -1;
+    
+    // The servlet container owns the response stream
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    
+    private final StudentProgressJdbcRepository studentProgressJdbcRepository;
+    private final CourseService courseService;
+    
+    public void writeJson(Long courseId, Long userId, OutputStream out) throws IOException {
+        courseService.verifyCourseManager(courseId, userId, "You can only view progress for your own courses");
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("courseId", courseId);
+            write(courseId, new MatrixSink() {
+                // completed is written as one '0' or '1' per module, in module order
+                private char[] flags;
+                
+                @Override
+                public void modules(List<ModuleHeader> modules) throws IOException {
+                    flags = new char[modules.size()];
+                    json.writeArrayFieldStart("modules");
+                    for (ModuleHeader module : modules) {
+                        json.writeStartObject();
+                        json.writeNumberField("id", module.getId());
+                        json.writeStringField("title", module.getTitle());
+                        json.writeEndObject();
+                    }
+                    json.writeEndArray();
+                    json.writeArrayFieldStart("students");
+                }
+                
+                @Override
+                public void student(long studentId, String name, BitSet completed, int[] scores) throws IOException {
+                    for (int i = 0; i < flags.length; i++) {
+                        flags[i] = completed.get(i) ? '1' : '0';
+                    }
+                    json.writeStartObject();
+                    json.writeNumberField("studentId", studentId);
+                    json.writeStringField("name", name);
+                    json.writeNumberField("completedCount", completed.cardinality());
+                    json.writeFieldName("completed");
+                    json.writeString(flags, 0, flags.length);
+                    json.writeArrayFieldStart("scores");
+                    for (int score : scores) {
+                        if (score == NO_SCORE) {
+                            json.writeNull();
+                        } else {
+                            json.writeNumber(score);
+                        }
+                    }
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }
+            });
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+    
+    public void writeBinary(Long courseId, Long userId, OutputStream out) throws IOException {
+        courseService.verifyCourseManager(courseId, userId, "You can only view progress for your own courses");
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(BINARY_MAGIC);
+        data.writeLong(courseId);
+        write(courseId, new MatrixSink() {
+            @Override
+            public void modules(List<ModuleHeader> modules) throws IOException {
+                data.writeInt(modules.size());
+                for (ModuleHeader module : modules) {
+                    data.writeLong(module.getId());
+                }
+            }
+            
+            @Override
+            public void student(long studentId, String name, BitSet completed, int[] scores) throws IOException {
+                data.writeLong(studentId);
+                data.writeUTF(name != null ? name : "");
+                byte[] bits = completed.toByteArray();
+                data.write(bits);
+                for (int i = bits.length; i < (scores.length + 7) / 8; i++) {
+                    data.writeByte(0);
+                }
+                for (int score : scores) {
+                    data.writeShort(score == NO_SCORE ? -1 : Math.max(Math.min(score, Short.MAX_VALUE), 0));
+                }
+            }
+        });
+        data.flush();
+    }
+    
+    private void write(Long courseId, MatrixSink sink) throws IOException {
+        List<ModuleHeader> modules = studentProgressJdbcRepository.findPublishedModules(courseId);
+        Map<Long, Integer> columns = new HashMap<>(modules.size() * 2);
+        for (int i = 0; i < modules.size(); i++) {
+            columns.put(modules.get(i).getId(), i);
+        }
+        sink.modules(modules);
+        
+        BitSet completed = new BitSet(modules.size());
+        int[] scores = new int[modules.size()];
+        Arrays.fill(scores, NO_SCORE);
+        long[] current = {-1};
+        String[] currentName = {null};
+        try {
+            studentProgressJdbcRepository.streamProgressMatrix(courseId, rs -> {
+                long studentId = rs.getLong(1);
+                if (studentId != current[0]) {
+                    if (current[0] != -1) {
+                        emit(sink, current[0], currentName[0], completed, scores);
+                    }
+                    current[0] = studentId;
+                    currentName[0] = rs.getString(2);
+                }
+                long moduleId = rs.getLong(3);
+                // Progress on unpublished modules has no column
+                Integer column = rs.wasNull() ? null : columns.get(moduleId);
+                if (column != null) {
+                    completed.set(column, rs.getBoolean(4));
+                    int score = rs.getInt(5);
+                    scores[column] = rs.wasNull() ? NO_SCORE : score;
+                }
+            });
+            if (current[0] != -1) {
+                emit(sink, current[0], currentName[0], completed, scores);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private static void emit(MatrixSink sink, long studentId, String name, BitSet completed, int[] scores) {
+        try {
+            sink.student(studentId, name, completed, scores);
+        } catch (IOException e) {
+            // Usually the client went away; unwinding stops the cursor read
+            throw new UncheckedIOException(e);
+        }
+        completed.clear();
+        Arrays.fill(scores, NO_SCORE);
+    }
+    
+    private interface MatrixSink {
+        
+        void modules(List<ModuleHeader> modules) throws IOException;
+        
+        void student(long studentId, String name, BitSet completed, int[] scores) throws IOException;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.dharma.education.service;
+
+import com.dharma.education.entity.RefreshToken;
+import com.dharma.education.entity.User;
+import com.dharma.education.exception.UnauthorizedException;
+import com.dharma.education.repository.RefreshTokenRepository;
+import com.dharma.education.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues and rotates opaque refresh tokens. Only a SHA-256 hash of each token
+ * is stored; presenting a token that was already rotated revokes every
+ * refresh token of that user.
+ */
+@Service
+@Transactional
+@Slf4j
+@RequiredArgsConstructor
+public class RefreshTokenService {
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    @Value("${app.jwtRefreshExpirationMs:1209600000}")
+    private long refreshExpirationMs;
+    
+    public String issue(Long userId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(userRepository.getReferenceById(userId))
+                .tokenHash(hash(token))
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs)))
+                .build());
+        return token;
+    }
+    
+    /**
+     * Validates a refresh token and marks it used. Returns the owning user so
+     * the caller can issue a new token pair.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public User consume(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshToken.isRevoked()) {
+            Long userId = refreshToken.getUser().getId();
+            refreshTokenRepository.revokeAllForUser(userId, now);
+            log.warn("Refresh token reuse detected for user {}", userId);
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        if (refreshToken.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedException("Refresh token has expired");
+        }
+        if (refreshTokenRepository.revokeIfActive(refreshToken.getId(), now) == 0) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        
+        User user = refreshToken.getUser();
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
+            throw new UnauthorizedException("Account is disabled");
+        }
+        return user;
+    }
+    
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.revokeIfActive(refreshToken.getId(), LocalDateTime.now()));
+    }
+    
+    @Scheduled(cron = "${app.refreshTokenCleanupCron:0 0 3 * * *}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Deleted {} expired refresh tokens", deleted);
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.request.ProgressHeartbeatRequest;
+import com.dharma.education.dto.response.ModuleProgressResponse;
+import com.dharma.education.exception.ResourceNotFoundException;
+import com.dharma.education.repository.EnrollmentRepository;
+import com.dharma.education.repository.StudentProgressJdbcRepository.ProgressDelta;
+import com.dharma.education.repository.StudentProgressRepository;
+import com.dharma.education.repository.projection.ModuleProgressRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+@RequiredArgsConstructor
+public class StudentProgressService {
+    
+    private final StudentProgressRepository studentProgressRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ProgressIngestor progressIngestor;
+    
+    // Buffered in memory only; heartbeats for modules outside the student's
+    // enrollments are dropped when the buffer is flushed
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recordHeartbeat(Long studentId, ProgressHeartbeatRequest request) {
+        progressIngestor.record(studentId, request.getModuleId(),
+                request.getSecondsSpent() != null ? request.getSecondsSpent() : 0,
+                Boolean.TRUE.equals(request.getCompleted()));
+    }
+    
+    public List<ModuleProgressResponse> getCourseProgress(Long studentId, Long courseId) {
+        if (!enrollmentRepository.isEnrolled(studentId, courseId)) {
+            throw new ResourceNotFoundException("Enrollment not found");
+        }
+        return studentProgressRepository.findModuleProgress(studentId, courseId).stream()
+                .map(row -> toResponse(row, progressIngestor.pending(studentId, row.getModuleId())))
+                .collect(Collectors.toList());
+    }
+    
+    // Stored progress plus heartbeats on this instance that are not flushed yet
+    private static ModuleProgressResponse toResponse(ModuleProgressRow row, ProgressDelta pending) {
+        int seconds = row.getTimeSpentSeconds() != null ? row.getTimeSpentSeconds() : 0;
+        LocalDateTime completedAt = row.getCompletedAt();
+        if (pending != null) {
+            seconds += pending.seconds();
+            completedAt = completedAt != null ? completedAt : pending.completedAt();
+        }
+        return ModuleProgressResponse.builder()
+                .moduleId(row.getModuleId())
+                .title(row.getTitle())
+                .orderIndex(row.getOrderIndex())
+                .completed(completedAt != null)
+                .completedAt(completedAt)
+                .score(row.getScore())
+                .timeSpentSeconds(seconds)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,374 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.request.RegisterRequest;
+import com.dharma.education.dto.response.UserImportResponse;
+import com.dharma.education.entity.User;
+import com.dharma.education.exception.BadRequestException;
+import com.dharma.education.exception.ServiceUnavailableException;
+import com.dharma.education.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Onboards users, and optionally their enrollments, from a CSV stream. Rows
+ * are read and written in fixed-size chunks, so memory does not grow with the
+ * file. Each chunk hashes its passwords in parallel on the shared password
+ * pool, then is committed by {@link UserImportWriter} in one transaction.
+ * Invalid rows are reported by line number and do not stop the import.
+ * <p>
+ * Expected header (case-insensitive, any order): email, password, firstName,
+ * lastName, role, and optionally phoneNumber, gradeLevel, specialization, bio
+ * and courseIds, a semicolon-separated list of courses to enroll a student in.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+    
+    private static final List<String> REQUIRED_COLUMNS = List.of("email", "password", "firstname", "lastname", "role");
+    private static final int MAX_HASH_ATTEMPTS = 3;
+    
+    private final UserRepository userRepository;
+    private final UserImportWriter userImportWriter;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    
+    // Each worker blocks on the shared bounded password pool, so this caps how
+    // much of that pool an import can take away from sign-ins
+    private final ExecutorService hashExecutor;
+    
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private final DistributionSummary rowsPerSecond;
+    
+    public UserImportService(UserRepository userRepository,
+                             UserImportWriter userImportWriter,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             @Value("${app.userImportChunkSize:500}") int chunkSize,
+                             @Value("${app.userImportHashParallelism:4}") int hashParallelism,
+                             @Value("${app.userImportMaxReportedErrors:1000}") int maxReportedErrors,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userImportWriter = userImportWriter;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxReportedErrors = maxReportedErrors;
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashExecutor = Executors.newFixedThreadPool(Math.max(hashParallelism, 1), runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        this.importedRows = Counter.builder("user.import.rows")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("user.import.rows")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.rowsPerSecond = DistributionSummary.builder("user.import.throughput")
+                .baseUnit("rows/s")
+                .description("Rows processed per second by each completed import")
+                .register(meterRegistry);
+    }
+    
+    public UserImportResponse importUsers(InputStream csv) {
+        long start = System.nanoTime();
+        UserImportResponse report = UserImportResponse.builder().build();
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new BadRequestException("CSV file is empty");
+            }
+            Map<String, Integer> columns = columns(header);
+            
+            List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.setRowsRead(report.getRowsRead() + 1);
+                try {
+                    chunk.add(parse(line, lineNumber, columns));
+                } catch (InvalidRowException e) {
+                    fail(report, lineNumber, e.email, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Could not read CSV file: " + e.getMessage());
+        }
+        
+        long elapsedNanos = System.nanoTime() - start;
+        report.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.setRowsPerSecond(elapsedNanos > 0 ? report.getRowsRead() * 1e9 / elapsedNanos : 0);
+        rowsPerSecond.record(report.getRowsPerSecond());
+        log.info("User import finished: {} rows, {} users created, {} failed in {} ms ({} rows/s)",
+                report.getRowsRead(), report.getUsersCreated(), report.getRowsFailed(),
+                report.getElapsedMs(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+    
+    private void importChunk(List<ParsedRow> chunk, UserImportResponse report) {
+        // Emails taken before this chunk, including by earlier chunks of the same file
+        Set<String> taken = new HashSet<>(userRepository.findExistingEmails(
+                chunk.stream().map(row -> row.request().getEmail()).collect(Collectors.toList())));
+        
+        List<ParsedRow> fresh = new ArrayList<>(chunk.size());
+        for (ParsedRow row : chunk) {
+            if (taken.add(row.request().getEmail())) {
+                fresh.add(row);
+            } else {
+                fail(report, row.line(), row.request().getEmail(), "Email is already taken");
+            }
+        }
+        
+        List<CompletableFuture<String>> hashes = fresh.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> hash(row.request().getPassword()), hashExecutor))
+                .collect(Collectors.toList());
+        
+        List<UserImportWriter.Row> rows = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            ParsedRow row = fresh.get(i);
+            try {
+                rows.add(new UserImportWriter.Row(row.line(), row.request(), row.role(), hashes.get(i).join(),
+                        row.courseIds()));
+            } catch (CompletionException e) {
+                fail(report, row.line(), row.request().getEmail(),
+                        "Password could not be hashed: " + e.getCause().getMessage());
+            }
+        }
+        write(rows, report);
+    }
+    
+    private void write(List<UserImportWriter.Row> rows, UserImportResponse report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            UserImportWriter.Result result = userImportWriter.write(rows);
+            report.setUsersCreated(report.getUsersCreated() + result.usersCreated());
+            report.setEnrollmentsCreated(report.getEnrollmentsCreated() + result.enrolled());
+            report.setWaitlisted(report.getWaitlisted() + result.waitlisted());
+            result.warnings().forEach(warning -> addError(report, warning));
+            importedRows.increment(result.usersCreated());
+        } catch (DataIntegrityViolationException e) {
+            if (rows.size() == 1) {
+                UserImportWriter.Row row = rows.get(0);
+                fail(report, row.line(), row.request().getEmail(),
+                        "Conflicts with existing data: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            // Usually an email registered concurrently; retry row by row to isolate it
+            for (UserImportWriter.Row row : rows) {
+                write(List.of(row), report);
+            }
+        }
+    }
+    
+    private String hash(String password) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return passwordEncoder.encode(password);
+            } catch (ServiceUnavailableException e) {
+                // The pool is saturated by sign-ins; back off rather than fail the row
+                if (attempt == MAX_HASH_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(e.getRetryAfterSeconds()));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private ParsedRow parse(String line, long lineNumber, Map<String, Integer> columns) {
+        List<String> fields = fields(line);
+        
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(field(fields, columns, "email"));
+        request.setPassword(field(fields, columns, "password"));
+        request.setFirstName(field(fields, columns, "firstname"));
+        request.setLastName(field(fields, columns, "lastname"));
+        request.setRole(field(fields, columns, "role"));
+        request.setPhoneNumber(field(fields, columns, "phonenumber"));
+        request.setGradeLevel(field(fields, columns, "gradelevel"));
+        request.setSpecialization(field(fields, columns, "specialization"));
+        request.setBio(field(fields, columns, "bio"));
+        
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidRowException(request.getEmail(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        
+        User.Role role;
+        try {
+            role = User.Role.valueOf(request.getRole().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRowException(request.getEmail(), "Unknown role: " + request.getRole());
+        }
+        if (role == User.Role.ADMIN) {
+            throw new InvalidRowException(request.getEmail(), "Admin accounts cannot be imported");
+        }
+        
+        Set<Long> courseIds = new LinkedHashSet<>();
+        String courses = field(fields, columns, "courseids");
+        if (courses != null) {
+            for (String courseId : courses.split(";")) {
+                if (courseId.isBlank()) {
+                    continue;
+                }
+                try {
+                    courseIds.add(Long.parseLong(courseId.trim()));
+                } catch (NumberFormatException e) {
+                    throw new InvalidRowException(request.getEmail(), "Invalid course id: " + courseId.trim());
+                }
+            }
+        }
+        if (!courseIds.isEmpty() && role != User.Role.STUDENT) {
+            throw new InvalidRowException(request.getEmail(), "Only students can be enrolled in courses");
+        }
+        
+        return new ParsedRow(lineNumber, request, role, courseIds);
+    }
+    
+    private void fail(UserImportResponse report, long line, String email, String message) {
+        report.setRowsFailed(report.getRowsFailed() + 1);
+        failedRows.increment();
+        addError(report, new UserImportResponse.RowError(line, email, message));
+    }
+    
+    private void addError(UserImportResponse report, UserImportResponse.RowError error) {
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(error);
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+    
+    private static Map<String, Integer> columns(String header) {
+        List<String> names;
+        try {
+            names = fields(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        } catch (InvalidRowException e) {
+            throw new BadRequestException("Invalid CSV header: " + e.getMessage());
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+    
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+    
+    // RFC 4180 fields on a single line: commas separate, double quotes wrap, "" escapes a quote
+    private static List<String> fields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch != '"') {
+                    field.append(ch);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        if (quoted) {
+            throw new InvalidRowException(null, "Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+    
+    private record ParsedRow(long line, RegisterRequest request, User.Role role, Set<Long> courseIds) {
+    }
+    
+    private static class InvalidRowException extends RuntimeException {
+        private final String email;
+        
+        InvalidRowException(String email, String message) {
+            super(message);
+            this.email = email;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.request.RegisterRequest;
+import com.dharma.education.dto.response.UserImportResponse;
+import com.dharma.education.entity.User;
+import com.dharma.education.event.CourseEnrolledEvent;
+import com.dharma.education.repository.EnrollmentJdbcRepository;
+import com.dharma.education.repository.UserRepository;
+import com.dharma.education.repository.projection.BulkEnrollmentRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes one chunk of a user import in its own transaction. Users go in as
+ * batched inserts with ids from the pooled sequence, then every course's
+ * enrollments from the chunk go in as one statement, honouring seat limits.
+ */
+@Component
+@RequiredArgsConstructor
+class UserImportWriter {
+    
+    private final UserRepository userRepository;
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Transactional
+    public Result write(List<Row> rows) {
+        // Most imported accounts will not sign in soon, so keep them out of the second-level cache
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        
+        List<User> users = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            RegisterRequest request = row.request();
+            users.add(User.builder()
+                    .email(request.getEmail())
+                    .password(row.passwordHash())
+                    .firstName(request.getFirstName())
+                    .lastName(request.getLastName())
+                    .role(row.role())
+                    .phoneNumber(request.getPhoneNumber())
+                    .gradeLevel(request.getGradeLevel())
+                    .specialization(request.getSpecialization())
+                    .bio(request.getBio())
+                    .build());
+        }
+        userRepository.saveAll(users);
+        userRepository.flush();
+        
+        // Courses in id order, so per-course row locks are taken in the same order as other writers
+        Map<Long, List<Long>> studentsByCourse = new TreeMap<>();
+        Map<Long, Row> rowsByStudent = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Long studentId = users.get(i).getId();
+            rowsByStudent.put(studentId, rows.get(i));
+            for (Long courseId : rows.get(i).courseIds()) {
+                studentsByCourse.computeIfAbsent(courseId, id -> new ArrayList<>()).add(studentId);
+            }
+        }
+        
+        long enrolled = 0;
+        long waitlisted = 0;
+        List<UserImportResponse.RowError> warnings = new ArrayList<>();
+        for (Map.Entry<Long, List<Long>> course : studentsByCourse.entrySet()) {
+            Long courseId = course.getKey();
+            List<BulkEnrollmentRow> outcomes = enrollmentJdbcRepository.bulkEnroll(courseId, course.getValue());
+            if (outcomes.isEmpty()) {
+                for (Long studentId : course.getValue()) {
+                    Row row = rowsByStudent.get(studentId);
+                    warnings.add(new UserImportResponse.RowError(row.line(), row.request().getEmail(),
+                            "User created, but course " + courseId + " was not found"));
+                }
+                continue;
+            }
+            for (BulkEnrollmentRow outcome : outcomes) {
+                if ("ENROLLED".equals(outcome.getOutcome())) {
+                    enrolled++;
+                    eventPublisher.publishEvent(new CourseEnrolledEvent(courseId, outcome.getStudentId()));
+                } else if ("WAITLISTED".equals(outcome.getOutcome())) {
+                    waitlisted++;
+                }
+            }
+        }
+        return new Result(users.size(), enrolled, waitlisted, warnings);
+    }
+    
+    record Row(long line, RegisterRequest request, User.Role role, String passwordHash, Set<Long> courseIds) {
+    }
+    
+    record Result(int usersCreated, long enrolled, long waitlisted, List<UserImportResponse.RowError> warnings) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.dharma.education.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Keeps media as files under a local directory, for development and tests.
+ * Parts are written to a per-upload staging directory, one file per copy
+ * sent, and the copies named by the given tags are concatenated into the
+ * object on completion, with the kernel copying the bytes. Reads go
+ * through FileChannel.transferTo in small fixed-size steps; whole-file and
+ * single-range downloads are instead handed to the container's sendfile
+ * through {@link #localPath}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.mediaStorage", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalMediaStorage implements MediaStorage {
+    
+    private static final String STAGING_DIR = ".uploads";
+    
+    private final Path root;
+    
+    public LocalMediaStorage(@Value("${app.mediaLocalRoot:media}") String root) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        Files.createDirectories(this.root.resolve(STAGING_DIR));
+        log.info("Storing media under {}", this.root);
+    }
+    
+    @Override
+    public long minPartSize() {
+        return 1;
+    }
+    
+    @Override
+    public String startUpload(String key) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        Files.createDirectories(stagingDir(uploadId));
+        return uploadId;
+    }
+    
+    @Override
+    public String writePart(String key, String uploadId, int partNumber, InputStream data, long length) throws IOException {
+        Path dir = stagingDir(uploadId);
+        if (!Files.isDirectory(dir)) {
+            throw new IOException("Upload " + uploadId + " does not exist");
+        }
+        // Every copy of a part gets its own file, named by the tag, so the tag recorded for a part pins
+        // the bytes assembled even if the part is sent again meanwhile, as an ETag does on S3
+        String partTag = partNumber + "-" + UUID.randomUUID();
+        Path temp = Files.createTempFile(dir, "part-", ".tmp");
+        try {
+            long written = Files.copy(data, temp, StandardCopyOption.REPLACE_EXISTING);
+            if (written != length) {
+                throw new IOException("Part " + partNumber + " has " + written + " bytes, expected " + length);
+            }
+            Files.move(temp, dir.resolve(partTag), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return partTag;
+    }
+    
+    @Override
+    public void completeUpload(String key, String uploadId, List<String> partTags) throws IOException {
+        Path dir = stagingDir(uploadId);
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(dir, "object-", ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            for (int part = 1; part <= partTags.size(); part++) {
+                String partTag = partTags.get(part - 1);
+                if (!partTag.startsWith(part + "-") || partTag.contains("/") || partTag.contains("\\")) {
+                    throw new IOException("Invalid tag for part " + part + " of upload " + uploadId);
+                }
+                try (FileChannel in = FileChannel.open(dir.resolve(partTag), StandardOpenOption.READ)) {
+                    long size = in.size();
+                    for (long position = 0; position < size; ) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteRecursively(dir);
+    }
+    
+    @Override
+    public void abortUpload(String key, String uploadId) throws IOException {
+        deleteRecursively(stagingDir(uploadId));
+    }
+    
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+    
+    @Override
+    public void read(String key, long offset, long length, OutputStream out) throws IOException {
+        // Not closed: it would close the response stream it wraps
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel in = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            for (long position = offset, end = offset + length; position < end; ) {
+                long sent = in.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new IOException(key + " ended at " + position + " of " + end + " bytes");
+                }
+                position += sent;
+            }
+        }
+    }
+    
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+    
+    private Path stagingDir(String uploadId) {
+        return resolve(STAGING_DIR + "/" + uploadId);
+    }
+    
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+    
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
\ No newline at end of file
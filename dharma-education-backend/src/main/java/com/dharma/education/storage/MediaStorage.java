@@ -0,0 +1,72 @@
+package com.dharma.education.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where uploaded media is kept. Objects are written as multipart uploads:
+ * parts arrive separately, in any order and possibly more than once, and
+ * only become a readable object when the upload is completed. Every part
+ * except the last must be at least {@link #minPartSize()} bytes.
+ */
+public interface MediaStorage {
+    
+    long minPartSize();
+    
+    /**
+     * Begins a multipart upload of the object and returns the backend's id
+     * for it.
+     */
+    String startUpload(String key) throws IOException;
+    
+    /**
+     * Stores exactly {@code length} bytes read from {@code data} as the given
+     * 1-based part, and returns the tag identifying this copy of it, which
+     * must be passed back to complete the upload. Completion assembles the
+     * copies the tags name, or fails if one has been replaced since.
+     */
+    String writePart(String key, String uploadId, int partNumber, InputStream data, long length) throws IOException;
+    
+    /**
+     * Assembles the parts, whose tags are given in part order, into the object.
+     */
+    void completeUpload(String key, String uploadId, List<String> partTags) throws IOException;
+    
+    void abortUpload(String key, String uploadId) throws IOException;
+    
+    void delete(String key) throws IOException;
+    
+    /**
+     * Stores a small object held in memory as a single-part upload,
+     * replacing any object with the same key.
+     */
+    default void put(String key, byte[] data) throws IOException {
+        String uploadId = startUpload(key);
+        try {
+            String partTag = writePart(key, uploadId, 1, new ByteArrayInputStream(data), data.length);
+            completeUpload(key, uploadId, List.of(partTag));
+        } catch (IOException | RuntimeException e) {
+            abortUpload(key, uploadId);
+            throw e;
+        }
+    }
+    
+    /**
+     * Writes {@code length} bytes of the object, starting at {@code offset},
+     * to {@code out}.
+     */
+    void read(String key, long offset, long length, OutputStream out) throws IOException;
+    
+    /**
+     * The file holding the object when the backend keeps objects on this
+     * host's filesystem, so the servlet container can send it with sendfile.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
\ No newline at end of file
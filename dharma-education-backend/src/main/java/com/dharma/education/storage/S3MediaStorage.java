@@ -0,0 +1,103 @@
+package com.dharma.education.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps media in an S3 bucket, mapping uploads one-to-one onto S3 multipart
+ * uploads so parts go straight from the request to S3.
+ */
+@Component
+@ConditionalOnProperty(name = "app.mediaStorage", havingValue = "s3")
+@Slf4j
+public class S3MediaStorage implements MediaStorage {
+    
+    // S3 rejects smaller parts other than the last
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    
+    private final S3Client s3;
+    private final String bucket;
+    
+    public S3MediaStorage(@Value("${aws.s3.bucket-name}") String bucket,
+                          @Value("${aws.s3.region}") String region) {
+        this.bucket = bucket;
+        this.s3 = S3Client.builder()
+                .region(Region.of(region))
+                .build();
+        log.info("Storing media in S3 bucket {} ({})", bucket, region);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        s3.close();
+    }
+    
+    @Override
+    public long minPartSize() {
+        return MIN_PART_SIZE;
+    }
+    
+    @Override
+    public String startUpload(String key) {
+        return s3.createMultipartUpload(request -> request.bucket(bucket).key(key)).uploadId();
+    }
+    
+    @Override
+    public String writePart(String key, String uploadId, int partNumber, InputStream data, long length) {
+        return s3.uploadPart(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                        .partNumber(partNumber).contentLength(length),
+                RequestBody.fromInputStream(data, length)).eTag();
+    }
+    
+    @Override
+    public void completeUpload(String key, String uploadId, List<String> partTags) {
+        List<CompletedPart> parts = new ArrayList<>(partTags.size());
+        for (int i = 0; i < partTags.size(); i++) {
+            parts.add(CompletedPart.builder().partNumber(i + 1).eTag(partTags.get(i)).build());
+        }
+        s3.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                .multipartUpload(upload -> upload.parts(parts)));
+    }
+    
+    @Override
+    public void abortUpload(String key, String uploadId) {
+        try {
+            s3.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+        } catch (NoSuchUploadException e) {
+            log.debug("S3 upload {} of {} was already gone", uploadId, key);
+        }
+    }
+    
+    @Override
+    public void delete(String key) {
+        s3.deleteObject(request -> request.bucket(bucket).key(key));
+    }
+    
+    @Override
+    public void read(String key, long offset, long length, OutputStream out) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        // Only the requested bytes leave S3
+        try (ResponseInputStream<GetObjectResponse> in = s3.getObject(request -> request.bucket(bucket).key(key)
+                .range("bytes=" + offset + "-" + (offset + length - 1)))) {
+            in.transferTo(out);
+        }
+    }
+}
\ No newline at end of file
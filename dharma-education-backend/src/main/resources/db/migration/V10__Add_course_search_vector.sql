@@ -0,0 +1,20 @@
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION courses_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', COALESCE(NEW.title, '')), 'A') ||
+        setweight(to_tsvector('english', COALESCE(NEW.description, '')), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_courses_search_vector
+    BEFORE INSERT OR UPDATE OF title, description ON courses
+    FOR EACH ROW EXECUTE FUNCTION courses_search_vector_update();
+
+UPDATE courses SET search_vector =
+    setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
+    setweight(to_tsvector('english', COALESCE(description, '')), 'B');
+
+CREATE INDEX idx_courses_search_vector ON courses USING GIN (search_vector);
\ No newline at end of file
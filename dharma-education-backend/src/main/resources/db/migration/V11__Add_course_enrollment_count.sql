@@ -0,0 +1,7 @@
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS enrollment_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE courses c SET enrollment_count =
+    (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id);
+
+CREATE INDEX idx_courses_active_enrollment_count
+    ON courses (enrollment_count DESC, id DESC) WHERE is_active = true;
\ No newline at end of file
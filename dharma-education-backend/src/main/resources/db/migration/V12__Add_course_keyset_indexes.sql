@@ -0,0 +1,8 @@
+CREATE INDEX idx_courses_active_created_at
+    ON courses (created_at DESC, id DESC) WHERE is_active = true;
+
+CREATE INDEX idx_courses_active_category_created_at
+    ON courses (category, created_at DESC, id DESC) WHERE is_active = true;
+
+CREATE INDEX idx_courses_active_category_enrollment_count
+    ON courses (category, enrollment_count DESC, id DESC) WHERE is_active = true;
\ No newline at end of file
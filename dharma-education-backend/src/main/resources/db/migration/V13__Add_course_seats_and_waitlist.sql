@@ -0,0 +1,18 @@
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS seat_capacity INTEGER
+    CHECK (seat_capacity IS NULL OR seat_capacity >= 0);
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS seats_taken INTEGER NOT NULL DEFAULT 0;
+
+UPDATE courses c SET seats_taken =
+    (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id);
+
+CREATE TABLE IF NOT EXISTS course_waitlist (
+    id BIGSERIAL PRIMARY KEY,
+    course_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE,
+    UNIQUE(course_id, student_id)
+);
+
+CREATE INDEX idx_course_waitlist_queue ON course_waitlist(course_id, created_at, id);
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- Users get ids from a pooled sequence so Hibernate can batch inserts; the
+-- increment must match allocationSize on the User entity. Rows inserted with
+-- the column default still take a value from a block of their own.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
\ No newline at end of file
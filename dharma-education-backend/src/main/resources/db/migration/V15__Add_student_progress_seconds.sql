@@ -0,0 +1,4 @@
+-- Heartbeats report seconds; minutes stay derived from this column
+ALTER TABLE student_progress ADD COLUMN IF NOT EXISTS time_spent_seconds INTEGER NOT NULL DEFAULT 0;
+
+UPDATE student_progress SET time_spent_seconds = COALESCE(time_spent_minutes, 0) * 60;
\ No newline at end of file
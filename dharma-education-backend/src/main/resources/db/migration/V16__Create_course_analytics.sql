@@ -0,0 +1,243 @@
+-- Learning analytics rollups, kept current by statement-level triggers on
+-- enrollments and student_progress. Each write statement folds its whole
+-- transition table into at most one row change per course and per day.
+CREATE TABLE IF NOT EXISTS course_analytics (
+    course_id BIGINT PRIMARY KEY,
+    enrolled_count BIGINT NOT NULL DEFAULT 0,
+    completed_count BIGINT NOT NULL DEFAULT 0,
+    progress_sum NUMERIC(16,2) NOT NULL DEFAULT 0,
+    modules_completed BIGINT NOT NULL DEFAULT 0,
+    score_sum BIGINT NOT NULL DEFAULT 0,
+    score_count BIGINT NOT NULL DEFAULT 0,
+    time_spent_seconds BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE
+);
+
+-- active_learners and time_spent_seconds record activity as it happens and
+-- cannot be derived again from the base tables; the other columns can
+CREATE TABLE IF NOT EXISTS course_analytics_daily (
+    course_id BIGINT NOT NULL,
+    activity_date DATE NOT NULL,
+    new_enrollments INTEGER NOT NULL DEFAULT 0,
+    completions INTEGER NOT NULL DEFAULT 0,
+    modules_completed INTEGER NOT NULL DEFAULT 0,
+    active_learners INTEGER NOT NULL DEFAULT 0,
+    -- learners whose most recent activity fell on this day, so a window sum counts each learner once
+    last_active_learners INTEGER NOT NULL DEFAULT 0,
+    time_spent_seconds BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (course_id, activity_date),
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS course_learner_activity (
+    course_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    last_active_date DATE NOT NULL,
+    PRIMARY KEY (course_id, student_id),
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Every trigger upserts course_analytics first, in course id order, so the
+-- totals row lock serializes all writers of a course's figures, including
+-- the rebuild job
+CREATE OR REPLACE FUNCTION course_analytics_enrollments_changed() RETURNS trigger AS $$
+DECLARE
+    changes TEXT := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT 1 AS sign, n.* FROM new_rows n'
+        WHEN 'DELETE' THEN 'SELECT -1 AS sign, o.* FROM old_rows o'
+        ELSE 'SELECT 1 AS sign, n.* FROM new_rows n UNION ALL SELECT -1, o.* FROM old_rows o'
+    END;
+    changed BOOLEAN;
+BEGIN
+    EXECUTE format('SELECT EXISTS (%s)', changes) INTO changed;
+    IF NOT changed THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format($sql$
+        WITH changes AS (%s)
+        INSERT INTO course_analytics AS a (course_id, enrolled_count, completed_count, progress_sum)
+        SELECT ch.course_id, SUM(ch.sign),
+            SUM(CASE WHEN ch.completed_at IS NOT NULL THEN ch.sign ELSE 0 END),
+            SUM(ch.sign * COALESCE(ch.progress, 0))
+        FROM changes ch JOIN courses c ON c.id = ch.course_id
+        GROUP BY ch.course_id ORDER BY ch.course_id
+        ON CONFLICT (course_id) DO UPDATE SET
+            enrolled_count = a.enrolled_count + EXCLUDED.enrolled_count,
+            completed_count = a.completed_count + EXCLUDED.completed_count,
+            progress_sum = a.progress_sum + EXCLUDED.progress_sum,
+            updated_at = now()
+    $sql$, changes);
+
+    EXECUTE format($sql$
+        WITH changes AS (%s), deltas AS (
+            SELECT course_id, enrolled_at::date AS activity_date, sign AS enrollments, 0 AS completions
+            FROM changes WHERE enrolled_at IS NOT NULL
+            UNION ALL
+            SELECT course_id, completed_at::date, 0, sign FROM changes WHERE completed_at IS NOT NULL
+        )
+        INSERT INTO course_analytics_daily AS d (course_id, activity_date, new_enrollments, completions)
+        SELECT dl.course_id, dl.activity_date, SUM(dl.enrollments), SUM(dl.completions)
+        FROM deltas dl JOIN courses c ON c.id = dl.course_id
+        GROUP BY dl.course_id, dl.activity_date
+        HAVING SUM(dl.enrollments) <> 0 OR SUM(dl.completions) <> 0
+        ORDER BY dl.course_id, dl.activity_date
+        ON CONFLICT (course_id, activity_date) DO UPDATE SET
+            new_enrollments = d.new_enrollments + EXCLUDED.new_enrollments,
+            completions = d.completions + EXCLUDED.completions
+    $sql$, changes);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION course_analytics_progress_changed() RETURNS trigger AS $$
+DECLARE
+    changes TEXT := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT 1 AS sign, n.* FROM new_rows n'
+        WHEN 'DELETE' THEN 'SELECT -1 AS sign, o.* FROM old_rows o'
+        ELSE 'SELECT 1 AS sign, n.* FROM new_rows n UNION ALL SELECT -1, o.* FROM old_rows o'
+    END;
+    changed BOOLEAN;
+BEGIN
+    EXECUTE format('SELECT EXISTS (%s)', changes) INTO changed;
+    IF NOT changed THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format($sql$
+        WITH changes AS (%s)
+        INSERT INTO course_analytics AS a (course_id, modules_completed, score_sum, score_count, time_spent_seconds)
+        SELECT ch.course_id,
+            SUM(CASE WHEN ch.completed_at IS NOT NULL THEN ch.sign ELSE 0 END),
+            SUM(ch.sign * COALESCE(ch.score, 0)),
+            SUM(CASE WHEN ch.score IS NOT NULL THEN ch.sign ELSE 0 END),
+            SUM(ch.sign * ch.time_spent_seconds)
+        FROM changes ch JOIN courses c ON c.id = ch.course_id
+        GROUP BY ch.course_id ORDER BY ch.course_id
+        ON CONFLICT (course_id) DO UPDATE SET
+            modules_completed = a.modules_completed + EXCLUDED.modules_completed,
+            score_sum = a.score_sum + EXCLUDED.score_sum,
+            score_count = a.score_count + EXCLUDED.score_count,
+            time_spent_seconds = a.time_spent_seconds + EXCLUDED.time_spent_seconds,
+            updated_at = now()
+    $sql$, changes);
+
+    EXECUTE format($sql$
+        WITH changes AS (%s)
+        INSERT INTO course_analytics_daily AS d (course_id, activity_date, modules_completed)
+        SELECT ch.course_id, ch.completed_at::date, SUM(ch.sign)
+        FROM changes ch JOIN courses c ON c.id = ch.course_id
+        WHERE ch.completed_at IS NOT NULL
+        GROUP BY ch.course_id, ch.completed_at::date
+        HAVING SUM(ch.sign) <> 0
+        ORDER BY ch.course_id, ch.completed_at::date
+        ON CONFLICT (course_id, activity_date) DO UPDATE SET
+            modules_completed = d.modules_completed + EXCLUDED.modules_completed
+    $sql$, changes);
+
+    -- Deleting progress removes its totals but not the activity already recorded
+    IF TG_OP = 'DELETE' THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format($sql$
+        WITH changes AS (%s), touched AS (
+            SELECT ch.course_id, ch.student_id, SUM(ch.sign * ch.time_spent_seconds) AS seconds
+            FROM changes ch JOIN courses c ON c.id = ch.course_id
+            GROUP BY ch.course_id, ch.student_id
+        ), previous AS (
+            SELECT la.course_id, la.student_id, la.last_active_date
+            FROM touched t JOIN course_learner_activity la
+            ON la.course_id = t.course_id AND la.student_id = t.student_id
+        ), activated AS (
+            INSERT INTO course_learner_activity AS la (course_id, student_id, last_active_date)
+            SELECT course_id, student_id, current_date FROM touched ORDER BY course_id, student_id
+            ON CONFLICT (course_id, student_id) DO UPDATE SET last_active_date = EXCLUDED.last_active_date
+            WHERE la.last_active_date < EXCLUDED.last_active_date
+            RETURNING la.course_id, la.student_id
+        ), deltas AS (
+            SELECT course_id, current_date AS activity_date, SUM(seconds) AS seconds,
+                0 AS learners, 0 AS last_active
+            FROM touched GROUP BY course_id
+            UNION ALL
+            SELECT course_id, current_date, 0, COUNT(*), COUNT(*) FROM activated GROUP BY course_id
+            UNION ALL
+            SELECT p.course_id, p.last_active_date, 0, 0, -COUNT(*)
+            FROM activated ac JOIN previous p ON p.course_id = ac.course_id AND p.student_id = ac.student_id
+            GROUP BY p.course_id, p.last_active_date
+        )
+        INSERT INTO course_analytics_daily AS d
+            (course_id, activity_date, time_spent_seconds, active_learners, last_active_learners)
+        SELECT course_id, activity_date, SUM(seconds), SUM(learners), SUM(last_active)
+        FROM deltas GROUP BY course_id, activity_date
+        ORDER BY course_id, activity_date
+        ON CONFLICT (course_id, activity_date) DO UPDATE SET
+            time_spent_seconds = d.time_spent_seconds + EXCLUDED.time_spent_seconds,
+            active_learners = d.active_learners + EXCLUDED.active_learners,
+            last_active_learners = d.last_active_learners + EXCLUDED.last_active_learners
+    $sql$, changes);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- Backfill before the triggers exist; activity history before this point is
+-- limited to each learner's last progress update
+INSERT INTO course_learner_activity (course_id, student_id, last_active_date)
+SELECT sp.course_id, sp.student_id, MAX(COALESCE(sp.updated_at, sp.created_at, CURRENT_TIMESTAMP))::date
+FROM student_progress sp
+GROUP BY sp.course_id, sp.student_id;
+
+INSERT INTO course_analytics (course_id, enrolled_count, completed_count, progress_sum,
+    modules_completed, score_sum, score_count, time_spent_seconds)
+SELECT c.id, COALESCE(e.enrolled, 0), COALESCE(e.completed, 0), COALESCE(e.progress_sum, 0),
+    COALESCE(p.modules_completed, 0), COALESCE(p.score_sum, 0), COALESCE(p.score_count, 0),
+    COALESCE(p.seconds, 0)
+FROM courses c
+LEFT JOIN (
+    SELECT course_id, COUNT(*) AS enrolled, COUNT(completed_at) AS completed,
+        SUM(COALESCE(progress, 0)) AS progress_sum
+    FROM enrollments GROUP BY course_id
+) e ON e.course_id = c.id
+LEFT JOIN (
+    SELECT course_id, COUNT(completed_at) AS modules_completed, SUM(COALESCE(score, 0)) AS score_sum,
+        COUNT(score) AS score_count, SUM(time_spent_seconds) AS seconds
+    FROM student_progress GROUP BY course_id
+) p ON p.course_id = c.id;
+
+INSERT INTO course_analytics_daily (course_id, activity_date, new_enrollments, completions,
+    modules_completed, active_learners, last_active_learners)
+SELECT course_id, activity_date, SUM(enrollments), SUM(completions), SUM(modules), SUM(learners), SUM(learners)
+FROM (
+    SELECT course_id, enrolled_at::date AS activity_date, 1 AS enrollments, 0 AS completions,
+        0 AS modules, 0 AS learners
+    FROM enrollments WHERE enrolled_at IS NOT NULL
+    UNION ALL
+    SELECT course_id, completed_at::date, 0, 1, 0, 0 FROM enrollments WHERE completed_at IS NOT NULL
+    UNION ALL
+    SELECT course_id, completed_at::date, 0, 0, 1, 0 FROM student_progress WHERE completed_at IS NOT NULL
+    UNION ALL
+    SELECT course_id, last_active_date, 0, 0, 0, 1 FROM course_learner_activity
+) backfill
+GROUP BY course_id, activity_date;
+
+CREATE TRIGGER course_analytics_enrollments_insert AFTER INSERT ON enrollments
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION course_analytics_enrollments_changed();
+CREATE TRIGGER course_analytics_enrollments_update AFTER UPDATE ON enrollments
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION course_analytics_enrollments_changed();
+CREATE TRIGGER course_analytics_enrollments_delete AFTER DELETE ON enrollments
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION course_analytics_enrollments_changed();
+
+CREATE TRIGGER course_analytics_progress_insert AFTER INSERT ON student_progress
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION course_analytics_progress_changed();
+CREATE TRIGGER course_analytics_progress_update AFTER UPDATE ON student_progress
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION course_analytics_progress_changed();
+CREATE TRIGGER course_analytics_progress_delete AFTER DELETE ON student_progress
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION course_analytics_progress_changed();
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- Lets the progress matrix read one course's progress as an ordered range
+-- scan; the old single-column index is a prefix of this one
+CREATE INDEX IF NOT EXISTS idx_progress_course_student ON student_progress(course_id, student_id);
+DROP INDEX IF EXISTS idx_progress_course;
\ No newline at end of file
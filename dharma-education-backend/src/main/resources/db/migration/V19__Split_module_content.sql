@@ -0,0 +1,21 @@
+-- Lesson bodies move out of learning_modules so outline reads never touch
+-- them. The gzip form and ETag are computed by the application, on save or
+-- on the first read of a body migrated here.
+CREATE TABLE module_contents (
+    module_id BIGINT PRIMARY KEY,
+    body TEXT NOT NULL,
+    body_length INTEGER NOT NULL,
+    body_gzip BYTEA,
+    gzip_length INTEGER,
+    etag VARCHAR(64),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (module_id) REFERENCES learning_modules(id) ON DELETE CASCADE
+);
+
+-- Already compressed by the application; TOAST compressing it again is wasted work
+ALTER TABLE module_contents ALTER COLUMN body_gzip SET STORAGE EXTERNAL;
+
+INSERT INTO module_contents (module_id, body, body_length)
+SELECT id, content, octet_length(content) FROM learning_modules WHERE content IS NOT NULL;
+
+ALTER TABLE learning_modules DROP COLUMN content;
\ No newline at end of file
@@ -0,0 +1,37 @@
+-- Files may live in any configured storage backend, not only S3
+ALTER TABLE media_files RENAME COLUMN s3_key TO storage_key;
+
+-- A resumable upload: the file is sent as fixed-size chunks, each stored as
+-- one part of a multipart upload in the storage backend, and assembled into
+-- the final object once every chunk has arrived.
+CREATE TABLE media_uploads (
+    id BIGSERIAL PRIMARY KEY,
+    uploaded_by BIGINT NOT NULL,
+    course_id BIGINT,
+    original_filename VARCHAR(255) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    total_size BIGINT NOT NULL,
+    chunk_size INTEGER NOT NULL,
+    storage_key TEXT NOT NULL,
+    storage_upload_id TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('UPLOADING', 'COMPLETING', 'COMPLETED', 'ABORTED')),
+    media_file_id BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (uploaded_by) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE SET NULL,
+    FOREIGN KEY (media_file_id) REFERENCES media_files(id) ON DELETE SET NULL
+);
+
+CREATE TABLE media_upload_parts (
+    upload_id BIGINT NOT NULL,
+    part_number INTEGER NOT NULL,
+    size BIGINT NOT NULL,
+    part_tag TEXT NOT NULL,
+    PRIMARY KEY (upload_id, part_number),
+    FOREIGN KEY (upload_id) REFERENCES media_uploads(id) ON DELETE CASCADE
+);
+
+-- Only unfinished uploads are swept for expiry
+CREATE INDEX idx_media_uploads_active ON media_uploads(updated_at) WHERE status IN ('UPLOADING', 'COMPLETING');
+CREATE INDEX idx_media_uploads_uploader ON media_uploads(uploaded_by);
\ No newline at end of file
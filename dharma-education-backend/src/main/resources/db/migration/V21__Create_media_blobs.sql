@@ -0,0 +1,30 @@
+-- Stored objects, shared by every media file with the same content. The
+-- content hash is the SHA-256 of the SHA-256 digests of the file's 4 MiB
+-- blocks, computed while uploads stream in; ref_count is the number of
+-- media_files rows using the blob, and blobs left at zero are swept.
+CREATE TABLE media_blobs (
+    id BIGSERIAL PRIMARY KEY,
+    content_hash CHAR(64) UNIQUE,
+    size BIGINT NOT NULL,
+    storage_key TEXT NOT NULL UNIQUE,
+    ref_count INTEGER NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_media_blobs_orphaned ON media_blobs(id) WHERE ref_count = 0;
+
+ALTER TABLE media_files ADD COLUMN blob_id BIGINT REFERENCES media_blobs(id);
+CREATE INDEX idx_media_blob ON media_files(blob_id);
+
+-- Files uploaded before hashing get a blob each; with no hash they are never deduplicated
+INSERT INTO media_blobs (size, storage_key, ref_count, created_at)
+SELECT file_size, storage_key, 1, created_at FROM media_files
+WHERE storage_key IS NOT NULL AND file_size IS NOT NULL
+ORDER BY id;
+
+UPDATE media_files f SET blob_id = b.id FROM media_blobs b WHERE b.storage_key = f.storage_key;
+
+ALTER TABLE media_files DROP COLUMN storage_key;
+
+ALTER TABLE media_upload_parts ADD COLUMN block_hashes BYTEA;
+ALTER TABLE media_uploads ADD COLUMN content_hash CHAR(64);
\ No newline at end of file
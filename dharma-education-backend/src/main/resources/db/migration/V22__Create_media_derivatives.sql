@@ -0,0 +1,17 @@
+-- Scaled-down copies of stored images, one per blob and variant, kept next
+-- to the original in storage. derivatives_status records that a blob has
+-- been processed, or could not be decoded, so it is not tried again.
+ALTER TABLE media_blobs ADD COLUMN derivatives_status VARCHAR(20) CHECK (derivatives_status IN ('READY', 'FAILED'));
+
+CREATE TABLE media_derivatives (
+    blob_id BIGINT NOT NULL,
+    variant VARCHAR(20) NOT NULL,
+    storage_key TEXT NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    width INTEGER NOT NULL,
+    height INTEGER NOT NULL,
+    size BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (blob_id, variant),
+    FOREIGN KEY (blob_id) REFERENCES media_blobs(id) ON DELETE CASCADE
+);
\ No newline at end of file
@@ -0,0 +1,25 @@
+-- Assessments carry a version that every edit bumps, so compiled question
+-- banks cached by the application can tell when they are stale, and each
+-- graded submission records the version it was graded against.
+ALTER TABLE assessments
+    ADD COLUMN version INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMP;
+
+CREATE TABLE assessment_attempts (
+    id BIGSERIAL PRIMARY KEY,
+    assessment_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    assessment_version INTEGER NOT NULL,
+    points_earned INTEGER NOT NULL,
+    points_possible INTEGER NOT NULL,
+    score INTEGER NOT NULL,
+    passed BOOLEAN NOT NULL,
+    correct_count INTEGER NOT NULL,
+    review_points INTEGER NOT NULL DEFAULT 0,
+    submitted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (assessment_id) REFERENCES assessments(id) ON DELETE CASCADE,
+    FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_assessment_attempts_assessment ON assessment_attempts(assessment_id);
+CREATE INDEX idx_assessment_attempts_student ON assessment_attempts(student_id, submitted_at DESC);
\ No newline at end of file
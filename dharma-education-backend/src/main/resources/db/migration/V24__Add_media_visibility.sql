@@ -0,0 +1,9 @@
+-- Media files are private unless marked public. Private files are only
+-- served through short-lived signed URLs handed out to users who may see
+-- them; public ones, such as course covers, are served to anyone.
+ALTER TABLE media_files ADD COLUMN is_public BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Stored files already used as course covers or profile pictures are shown on public pages
+UPDATE media_files f SET is_public = TRUE
+WHERE EXISTS (SELECT 1 FROM courses c WHERE c.image_url LIKE '%/api/media/' || f.id || '/content')
+   OR EXISTS (SELECT 1 FROM users u WHERE u.profile_image_url LIKE '%/api/media/' || f.id || '/content');
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- Runs that failed on a transient error, such as a storage read, leave the
+-- blob unprocessed so it is tried again. Counting them lets the service give
+-- up and mark the blob FAILED instead of decoding it on every request.
+ALTER TABLE media_blobs ADD COLUMN derivative_attempts INTEGER NOT NULL DEFAULT 0;
\ No newline at end of file
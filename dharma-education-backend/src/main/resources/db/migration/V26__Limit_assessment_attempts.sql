@@ -0,0 +1,18 @@
+-- Each graded attempt reveals a score, so unlimited attempts let a student
+-- recover the answer key one changed answer at a time. Attempts are numbered
+-- per student and assessment so the application can cap them, and the
+-- numbers are unique so concurrent submissions cannot both take the last one.
+ALTER TABLE assessment_attempts ADD COLUMN attempt_number INTEGER;
+
+UPDATE assessment_attempts a SET attempt_number = n.attempt_number
+FROM (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY assessment_id, student_id ORDER BY submitted_at, id) AS attempt_number
+    FROM assessment_attempts
+) n
+WHERE n.id = a.id;
+
+ALTER TABLE assessment_attempts ALTER COLUMN attempt_number SET NOT NULL;
+
+-- Also serves lookups by assessment, which the old single-column index did
+DROP INDEX idx_assessment_attempts_assessment;
+CREATE UNIQUE INDEX idx_assessment_attempts_number ON assessment_attempts(assessment_id, student_id, attempt_number);
\ No newline at end of file
@@ -0,0 +1,6 @@
+-- Module scores were only ever written by progress heartbeats, which let a
+-- student send any score they liked. Heartbeats no longer carry one, and
+-- graded results live in assessment_attempts; clearing the stored scores
+-- here also takes them out of the course analytics totals through the
+-- student_progress update trigger.
+UPDATE student_progress SET score = NULL WHERE score IS NOT NULL;
\ No newline at end of file
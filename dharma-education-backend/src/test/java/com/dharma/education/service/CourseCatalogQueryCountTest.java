@@ -0,0 +1,130 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.request.CourseSortKey;
+import com.dharma.education.dto.response.CourseResponse;
+import com.dharma.education.dto.response.CursorPage;
+import com.dharma.education.entity.Course;
+import com.dharma.education.entity.User;
+import com.dharma.education.repository.EnrollmentJdbcRepository;
+import com.dharma.education.repository.MediaFileJdbcRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The catalog must cost the same few statements per page however many
+ * teachers the listed courses have: courses and teachers come back in one
+ * statement, and enrollments are never loaded to be counted.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import(CourseService.class)
+class CourseCatalogQueryCountTest {
+    
+    private static final int COURSES = 30;
+    private static final int PAGE_SIZE = 10;
+    
+    @Autowired
+    private CourseService courseService;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @MockBean
+    private CourseSuggestionIndex courseSuggestionIndex;
+    
+    @MockBean
+    private EnrollmentCounter enrollmentCounter;
+    
+    @MockBean
+    private EnrollmentJdbcRepository enrollmentJdbcRepository;
+    
+    @MockBean
+    private MediaFileJdbcRepository mediaFileJdbcRepository;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void seedCourses() {
+        // A teacher per course, so loading teachers one by one would show up as extra statements
+        for (int i = 0; i < COURSES; i++) {
+            User teacher = entityManager.persist(User.builder()
+                    .email("teacher" + i + "@example.com")
+                    .password("secret")
+                    .firstName("Teacher")
+                    .lastName(String.valueOf(i))
+                    .role(User.Role.TEACHER)
+                    .build());
+            entityManager.persist(Course.builder()
+                    .title("Course " + i)
+                    .description("Course number " + i)
+                    .category(i % 2 == 0 ? "Philosophy" : "Yoga")
+                    .teacher(teacher)
+                    .build());
+        }
+        entityManager.flush();
+        // Counters are written over JDBC in the application, never through the entity
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE courses SET enrollment_count = id, seats_taken = 0")
+                .executeUpdate();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void offsetPageLoadsRowsAndCountInTwoStatements() {
+        Page<CourseResponse> page = courseService.getAllCourses(
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")), null, null);
+        
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(COURSES);
+        assertThat(page.getContent()).allSatisfy(course -> assertThat(course.getTeacher()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void filteredOffsetPageLoadsRowsAndCountInTwoStatements() {
+        Page<CourseResponse> page = courseService.getAllCourses(PageRequest.of(0, PAGE_SIZE), "Yoga", null);
+        
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(COURSES / 2);
+        assertThat(page.getContent()).allSatisfy(course -> assertThat(course.getCategory()).isEqualTo("Yoga"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void cursorPagesLoadInOneStatementEach() {
+        CursorPage<CourseResponse> first = courseService.getCoursesByCursor(null, PAGE_SIZE,
+                CourseSortKey.ENROLLMENT_COUNT, Sort.Direction.DESC, null, null);
+        assertThat(first.getContent()).hasSize(PAGE_SIZE);
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        
+        statistics.clear();
+        CursorPage<CourseResponse> second = courseService.getCoursesByCursor(first.getNextCursor(), PAGE_SIZE,
+                CourseSortKey.ENROLLMENT_COUNT, Sort.Direction.DESC, null, null);
+        assertThat(second.getContent()).hasSize(PAGE_SIZE);
+        assertThat(second.getContent().get(0).getEnrollmentCount())
+                .isLessThan(first.getContent().get(PAGE_SIZE - 1).getEnrollmentCount());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.dharma.education.service;
+
+import com.dharma.education.dto.response.EnrolledCourseResponse;
+import com.dharma.education.entity.Course;
+import com.dharma.education.entity.Enrollment;
+import com.dharma.education.entity.User;
+import com.dharma.education.repository.EnrollmentJdbcRepository;
+import com.dharma.education.repository.MediaFileJdbcRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The student dashboard behind /api/courses/my-courses must load every
+ * enrolled course, its teacher and the enrollment in a single statement, so
+ * its cost does not grow with the number of enrollments.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import(CourseService.class)
+class EnrolledCoursesQueryCountTest {
+    
+    private static final int MORE_ENROLLMENTS = 24;
+    
+    @Autowired
+    private CourseService courseService;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @MockBean
+    private CourseSuggestionIndex courseSuggestionIndex;
+    
+    @MockBean
+    private EnrollmentCounter enrollmentCounter;
+    
+    @MockBean
+    private EnrollmentJdbcRepository enrollmentJdbcRepository;
+    
+    @MockBean
+    private MediaFileJdbcRepository mediaFileJdbcRepository;
+    
+    private User student;
+    private int courses;
+    
+    @BeforeEach
+    void seedStudent() {
+        student = entityManager.persist(user("student@example.com", User.Role.STUDENT));
+    }
+    
+    @Test
+    void oneStatementForOneOrManyEnrollments() {
+        enroll(1);
+        assertThat(enrolledCoursesInStatements(1)).hasSize(1);
+        
+        enroll(MORE_ENROLLMENTS);
+        List<EnrolledCourseResponse> enrolled = enrolledCoursesInStatements(1);
+        assertThat(enrolled).hasSize(1 + MORE_ENROLLMENTS);
+        assertThat(enrolled).allSatisfy(row -> {
+            assertThat(row.getCourse().getTeacher()).isNotNull();
+            assertThat(row.getEnrolledAt()).isNotNull();
+        });
+    }
+    
+    // Each course has its own teacher, so loading teachers one by one would show up as extra statements
+    private void enroll(int count) {
+        for (int i = 0; i < count; i++) {
+            int n = courses++;
+            User teacher = entityManager.persist(user("teacher" + n + "@example.com", User.Role.TEACHER));
+            Course course = entityManager.persist(Course.builder()
+                    .title("Course " + n)
+                    .category("Philosophy")
+                    .teacher(teacher)
+                    .build());
+            entityManager.persist(Enrollment.builder()
+                    .student(student)
+                    .course(course)
+                    .build());
+        }
+        entityManager.flush();
+        // Counters are written over JDBC in the application, never through the entity
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE courses SET enrollment_count = 1, seats_taken = 0")
+                .executeUpdate();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+    }
+    
+    private List<EnrolledCourseResponse> enrolledCoursesInStatements(long expected) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<EnrolledCourseResponse> enrolled = courseService.getEnrolledCourses(student.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        return enrolled;
+    }
+    
+    private static User user(String email, User.Role role) {
+        return User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("Test")
+                .lastName("User")
+                .role(role)
+                .build();
+    }
+}
\ No newline at end of file